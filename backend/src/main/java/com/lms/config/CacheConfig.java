@@ -0,0 +1,40 @@
+package com.lms.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Cache configuration. Caches are Caffeine-backed (see spring.cache in application.yml)
+ * and their hit/miss counters are published through actuator as cache.gets.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+    public static final String USERNAMES_BY_ID = "usernamesById";
+
+    /**
+     * Caffeine caches from spring.cache, wrapped so that puts and evictions are deferred until the
+     * surrounding transaction commits: a reader can never re-cache a row that a concurrent
+     * transaction is about to change.
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        if (properties.getCaffeine().getSpec() != null) {
+            caffeine.setCacheSpecification(properties.getCaffeine().getSpec());
+        }
+        if (!properties.getCacheNames().isEmpty()) {
+            caffeine.setCacheNames(properties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
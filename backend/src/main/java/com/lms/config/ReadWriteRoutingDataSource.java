@@ -0,0 +1,167 @@
+package com.lms.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Routes connections of read-only transactions to the replica pool and everything else to the
+ * primary. Read-only transactions of a user who committed a write within the sticky window
+ * still go to the primary (read-your-writes).
+ *
+ * Work that rebuilds in-memory state from the database runs through {@link #onPrimary}, so a
+ * lagging replica can never seed the queue index with stale rows. Writes made for a user on
+ * another thread (request writer lanes, dispatcher, timers) run through {@link #actingAs}, so
+ * they start that user's window too; every user a transaction acted for is recorded on commit.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager fetches the
+ * connection before it publishes the read-only flag, so routing has to wait for the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<String> ACTING_USER = new ThreadLocal<>();
+    /** Transaction resource key of the {@link WriteSynchronization} of a read-write transaction. */
+    private static final Object WRITERS = new Object();
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadWriteRoutingDataSource(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    /**
+     * Run work whose reads must come from the primary, even inside a read-only transaction.
+     * Applies to connections fetched while it runs; without a replica it changes nothing.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean outer = PRIMARY_READS.get();
+        PRIMARY_READS.set(true);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_READS.set(outer);
+        }
+    }
+
+    /**
+     * Run work without result whose reads must come from the primary.
+     */
+    public static void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run work on behalf of a user on a thread without their security context. Writes it commits
+     * keep the user's reads on the primary, also when it joins a transaction that is already
+     * writing for other users (a group commit). A null user runs the work unchanged.
+     */
+    public static <T> T actingAs(String username, Supplier<T> work) {
+        if (username == null) {
+            return work.get();
+        }
+        String outer = ACTING_USER.get();
+        ACTING_USER.set(username);
+        try {
+            if (TransactionSynchronizationManager.getResource(WRITERS) instanceof WriteSynchronization writers) {
+                writers.usernames.add(username);
+            }
+            return work.get();
+        } finally {
+            if (outer != null) {
+                ACTING_USER.set(outer);
+            } else {
+                ACTING_USER.remove();
+            }
+        }
+    }
+
+    /**
+     * The user writes on this thread are made for: the one passed to {@link #actingAs}, otherwise
+     * the authenticated one, null if neither.
+     */
+    public static String currentUsername() {
+        String acting = ACTING_USER.get();
+        if (acting != null) {
+            return acting;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String username = currentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite(username);
+            return Route.PRIMARY;
+        }
+        if (PRIMARY_READS.get()) {
+            return Route.PRIMARY;
+        }
+        return tracker.isSticky(username) ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    /**
+     * Start the sticky window when the user's read-write transaction commits, or right away
+     * for connections used outside a transaction.
+     */
+    private void trackWrite(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (username != null) {
+                tracker.recordWrite(username);
+            }
+            return;
+        }
+        WriteSynchronization writers = (WriteSynchronization) TransactionSynchronizationManager.getResource(WRITERS);
+        if (writers == null) {
+            writers = new WriteSynchronization();
+            TransactionSynchronizationManager.bindResource(WRITERS, writers);
+            TransactionSynchronizationManager.registerSynchronization(writers);
+        }
+        if (username != null) {
+            writers.usernames.add(username);
+        }
+    }
+
+    /**
+     * Users a read-write transaction wrote for, bound to it while it runs.
+     */
+    private final class WriteSynchronization implements TransactionSynchronization {
+        private final Set<String> usernames = new HashSet<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(WRITERS);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(WRITERS, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            usernames.forEach(tracker::recordWrite);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(WRITERS);
+        }
+    }
+}
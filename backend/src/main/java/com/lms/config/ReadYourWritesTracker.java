@@ -0,0 +1,40 @@
+package com.lms.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each user last committed a write, so their reads stay on the primary until
+ * the replica has had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private final long stickyMs;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long stickyMs) {
+        this.stickyMs = stickyMs;
+    }
+
+    public void recordWrite(String username) {
+        lastWriteByUser.put(username, System.currentTimeMillis());
+    }
+
+    /**
+     * Whether the user wrote recently enough that a replica read might miss it.
+     */
+    public boolean isSticky(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByUser.get(username);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite < stickyMs) {
+            return true;
+        }
+        lastWriteByUser.remove(username, lastWrite);
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.lms.controller;
+
+import com.lms.service.TaDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST controller for automatic TA dispatch settings.
+ */
+@RestController
+@RequestMapping("/api/dispatch")
+@RequiredArgsConstructor
+@Slf4j
+public class DispatchController {
+
+    private final TaDispatcher taDispatcher;
+
+    /**
+     * Get the automatic dispatch setting for a lab session (TA only).
+     */
+    @GetMapping("/sessions/{labSessionId}")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<Map<String, Object>> getDispatchMode(@PathVariable String labSessionId) {
+        return ResponseEntity.ok(Map.of(
+                "labSessionId", labSessionId,
+                "enabled", taDispatcher.isEnabled(labSessionId)));
+    }
+
+    /**
+     * Enable or disable automatic dispatch for a lab session (TA only).
+     */
+    @PutMapping("/sessions/{labSessionId}")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<Map<String, Object>> setDispatchMode(
+            @PathVariable String labSessionId,
+            @RequestBody Map<String, Boolean> body) {
+        Boolean enabled = body.get("enabled");
+        if (enabled == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Set automatic dispatch for lab session {} to: {}", labSessionId, enabled);
+        taDispatcher.setEnabled(labSessionId, enabled);
+        return ResponseEntity.ok(Map.of(
+                "labSessionId", labSessionId,
+                "enabled", enabled));
+    }
+}
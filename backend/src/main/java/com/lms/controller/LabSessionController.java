@@ -0,0 +1,84 @@
+package com.lms.controller;
+
+import com.lms.dto.CreateLabSessionDto;
+import com.lms.dto.LabSessionClosedSummary;
+import com.lms.dto.LabSessionResponse;
+import com.lms.service.LabSessionService;
+import com.lms.service.RequestMutationPipeline;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for lab session management endpoints.
+ */
+@RestController
+@RequestMapping("/api/lab-sessions")
+@RequiredArgsConstructor
+@Slf4j
+public class LabSessionController {
+
+    private final LabSessionService labSessionService;
+    private final RequestMutationPipeline mutationPipeline;
+
+    /**
+     * Get all lab sessions.
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyRole('STUDENT', 'TA')")
+    public ResponseEntity<List<LabSessionResponse>> getAllSessions() {
+        return ResponseEntity.ok(labSessionService.getAllSessions());
+    }
+
+    /**
+     * Get the currently active lab session.
+     */
+    @GetMapping("/active")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TA')")
+    public ResponseEntity<LabSessionResponse> getActiveSession() {
+        return ResponseEntity.ok(labSessionService.getActiveSession());
+    }
+
+    /**
+     * Get a lab session by ID.
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TA')")
+    public ResponseEntity<LabSessionResponse> getSession(@PathVariable String id) {
+        return ResponseEntity.ok(labSessionService.getSession(id));
+    }
+
+    /**
+     * Create a lab session (TA only).
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<LabSessionResponse> createSession(
+            @Valid @RequestBody CreateLabSessionDto dto,
+            Authentication authentication) {
+        log.info("Create lab session by: {}", authentication.getName());
+        LabSessionResponse response = labSessionService.createSession(dto, authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Close a lab session, cancelling its pending requests (TA only).
+     */
+    @PutMapping("/{id}/close")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<LabSessionClosedSummary> closeSession(
+            @PathVariable String id,
+            Authentication authentication) {
+        log.info("Close lab session {} by TA: {}", id, authentication.getName());
+        LabSessionClosedSummary summary = mutationPipeline.execute(id,
+                () -> labSessionService.closeSession(id, authentication.getName()));
+        return ResponseEntity.ok(summary);
+    }
+}
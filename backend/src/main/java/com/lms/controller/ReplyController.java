@@ -1,5 +1,7 @@
 package com.lms.controller;
 
+import com.lms.dto.ClusterReplyResponse;
+import com.lms.dto.CursorPage;
 import com.lms.dto.ReplyCreateDto;  // ✅ Import
 import com.lms.dto.ReplyDto;
 import com.lms.service.ReplyService;
@@ -42,6 +44,22 @@ public class ReplyController {
         return ResponseEntity.status(HttpStatus.CREATED).body(reply);
     }
 
+    /**
+     * Reply to all open requests of a near-duplicate cluster and resolve them (TA only).
+     */
+    @PostMapping("/cluster/{clusterId}")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<ClusterReplyResponse> replyToCluster(
+            @PathVariable String clusterId,
+            @Valid @RequestBody ReplyCreateDto dto,
+            Authentication authentication) {
+
+        log.info("Create cluster reply for cluster {} by TA: {}", clusterId, authentication.getName());
+        ClusterReplyResponse response = replyService.replyToCluster(
+                clusterId, dto.getMessage().trim(), authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     /**
      * Get all replies for a request (Students and TAs can view).
      */
@@ -66,4 +84,18 @@ public class ReplyController {
         Page<ReplyDto> replies = replyService.getRepliesByRequestId(requestId, page, size);
         return ResponseEntity.ok(replies);
     }
+
+    /**
+     * Get replies for a request with cursor-based pagination (Students and TAs can view).
+     */
+    @GetMapping("/request/{requestId}/cursor")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TA')")
+    public ResponseEntity<CursorPage<ReplyDto>> getRepliesByRequestIdByCursor(
+            @PathVariable String requestId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Get replies for request {} by cursor - Size: {}", requestId, size);
+        CursorPage<ReplyDto> replies = replyService.getRepliesByRequestIdByCursor(requestId, cursor, size);
+        return ResponseEntity.ok(replies);
+    }
 }
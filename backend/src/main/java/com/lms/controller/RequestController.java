@@ -1,11 +1,25 @@
 package com.lms.controller;
 
+import com.lms.dto.BulkRequestOperationDto;
+import com.lms.dto.BulkRequestUpdateDto;
 import com.lms.dto.CreateRequestDto;
+import com.lms.dto.CursorPage;
+import com.lms.dto.QueueEtaResponse;
+import com.lms.dto.RequestClusterResponse;
+import com.lms.dto.QueuePositionResponse;
 import com.lms.dto.RequestResponse;
+import com.lms.dto.StatsResponse;
 import com.lms.dto.UpdateRequestDto;
 import com.lms.entity.RequestStatus;
 import com.lms.service.AuthorizationService;  // ✅ Import
+import com.lms.service.QueueMove;
+import com.lms.service.RequestClusterIndex;
+import com.lms.service.QueuePositionService;
+import com.lms.service.QueueReorderService;
+import com.lms.service.RequestMutationPipeline;
+import com.lms.service.LabSessionService;
 import com.lms.service.RequestService;
+import com.lms.service.WaitTimeEstimator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +30,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST controller for request management endpoints.
@@ -29,6 +46,12 @@ public class RequestController {
 
     private final RequestService requestService;
     private final AuthorizationService authorizationService;  // ✅ Inject service
+    private final QueuePositionService queuePositionService;
+    private final RequestMutationPipeline mutationPipeline;
+    private final QueueReorderService queueReorderService;
+    private final WaitTimeEstimator waitTimeEstimator;
+    private final RequestClusterIndex requestClusterIndex;
+    private final LabSessionService labSessionService;
 
     /**
      * Create a new help request (Student only).
@@ -39,7 +62,8 @@ public class RequestController {
             @Valid @RequestBody CreateRequestDto dto,
             Authentication authentication) {
         log.info("Create request by: {}", authentication.getName());
-        RequestResponse response = requestService.createRequest(dto, authentication.getName());
+        RequestResponse response = mutationPipeline.execute(dto.getLabSessionId(),
+                () -> requestService.createRequest(dto, authentication.getName()));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -50,16 +74,17 @@ public class RequestController {
     @PreAuthorize("hasRole('TA')")
     public ResponseEntity<Page<RequestResponse>> getAllRequests(
             @RequestParam(required = false) RequestStatus status,
+            @RequestParam(required = false) String labSessionId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "priority") String sort) {
-        log.info("Get all requests - Status: {}, Page: {}, Size: {}", status, page, size);
-        Page<RequestResponse> requests = requestService.getAllRequests(status, page, size, sort);
+        log.info("Get all requests - Status: {}, Lab session: {}, Page: {}, Size: {}", status, labSessionId, page, size);
+        Page<RequestResponse> requests = requestService.getAllRequests(status, labSessionId, page, size, sort);
         return ResponseEntity.ok(requests);
     }
 
     /**
-     * Get student's own requests (Student only).
+     * Get student's own requests (Student only). includeArchived adds requests moved to the archive.
      */
     @GetMapping("/my")
     @PreAuthorize("hasRole('STUDENT')")
@@ -67,13 +92,70 @@ public class RequestController {
             @RequestParam(required = false) RequestStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             Authentication authentication) {
         log.info("Get my requests for user: {}", authentication.getName());
         Page<RequestResponse> requests = requestService.getMyRequests(
-                authentication.getName(), status, page, size);
+                authentication.getName(), status, page, size, includeArchived);
         return ResponseEntity.ok(requests);
     }
 
+    /**
+     * Get requests in queue order with cursor-based pagination (TA only).
+     * Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<CursorPage<RequestResponse>> getAllRequestsByCursor(
+            @RequestParam(required = false) RequestStatus status,
+            @RequestParam(required = false) String labSessionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("Get all requests by cursor - Status: {}, Lab session: {}, Size: {}", status, labSessionId, size);
+        CursorPage<RequestResponse> requests =
+                requestService.getAllRequestsByCursor(status, labSessionId, cursor, size);
+        return ResponseEntity.ok(requests);
+    }
+
+    /**
+     * Get student's own requests with cursor-based pagination (Student only).
+     */
+    @GetMapping("/my/cursor")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<CursorPage<RequestResponse>> getMyRequestsByCursor(
+            @RequestParam(required = false) RequestStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            Authentication authentication) {
+        log.info("Get my requests by cursor for user: {}", authentication.getName());
+        CursorPage<RequestResponse> requests = requestService.getMyRequestsByCursor(
+                authentication.getName(), status, cursor, size, includeArchived);
+        return ResponseEntity.ok(requests);
+    }
+
+    /**
+     * Get queue statistics, optionally for one lab session (TA only).
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<StatsResponse> getStats(@RequestParam(required = false) String labSessionId) {
+        log.info("Get request stats - Lab session: {}", labSessionId);
+        return ResponseEntity.ok(requestService.getStats(labSessionId));
+    }
+
+    /**
+     * Get clusters of near-duplicate open requests (TA only).
+     */
+    @GetMapping("/clusters")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<List<RequestClusterResponse>> getClusters(
+            @RequestParam(required = false) String labSessionId,
+            @RequestParam(defaultValue = "2") int minSize) {
+        log.info("Get request clusters - Lab session: {}, Min size: {}", labSessionId, minSize);
+        return ResponseEntity.ok(requestClusterIndex.clusters(labSessionId, Math.max(1, minSize)));
+    }
+
     /**
      * Get a single request by ID (Student can view their own, TA can view assigned).
      */
@@ -104,10 +186,56 @@ public class RequestController {
         // ✅ SECURITY FIX: Verify user is a TA
         authorizationService.verifyCanAssignRequest(id, authentication.getName());
         
-        RequestResponse response = requestService.assignRequest(id, authentication.getName());
+        RequestResponse response = mutationPipeline.executeForRequest(id, RequestStatus.IN_PROGRESS,
+                () -> requestService.assignRequest(id, authentication.getName()));
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get a request's position in its lab session queue (creator or any TA).
+     */
+    @GetMapping("/{id}/position")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TA')")
+    public ResponseEntity<QueuePositionResponse> getQueuePosition(
+            @PathVariable String id,
+            Authentication authentication) {
+        authorizationService.verifyCanViewQueuePosition(id, authentication.getName());
+
+        QueuePositionResponse position = queuePositionService.getPosition(id, requestService.getRequestStatus(id));
+        return ResponseEntity.ok(position);
+    }
+
+    /**
+     * Get the estimated wait of a pending request (creator or any TA).
+     */
+    @GetMapping("/{id}/eta")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TA')")
+    public ResponseEntity<QueueEtaResponse> getEstimatedWait(
+            @PathVariable String id,
+            Authentication authentication) {
+        authorizationService.verifyCanViewQueuePosition(id, authentication.getName());
+
+        QueueEtaResponse eta = waitTimeEstimator.estimate(id, requestService.getRequestStatus(id));
+        return ResponseEntity.ok(eta);
+    }
+
+    /**
+     * Claim the next pending request of a lab session in queue order (TA only).
+     * Defaults to the active lab session. Returns 204 No Content when its queue is empty.
+     */
+    @PutMapping("/next/assign")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<RequestResponse> assignNextRequest(
+            @RequestParam(required = false) String labSessionId,
+            Authentication authentication) {
+        String sessionId = labSessionId != null ? labSessionId : labSessionService.getActiveSession().getId();
+        log.info("Assign next request to TA: {}, Lab session: {}", authentication.getName(), sessionId);
+
+        return requestService.assignNextRequest(authentication.getName(), sessionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
     /**
      * Mark request as resolved (only assigned TA or admin can resolve).
      */
@@ -121,7 +249,8 @@ public class RequestController {
         // ✅ SECURITY FIX: Verify user is assigned TA or admin
         authorizationService.verifyCanResolveRequest(id, authentication.getName());
         
-        RequestResponse response = requestService.resolveRequest(id, authentication.getName());
+        RequestResponse response = mutationPipeline.executeForRequest(id, RequestStatus.RESOLVED,
+                () -> requestService.resolveRequest(id, authentication.getName()));
         return ResponseEntity.ok(response);
     }
 
@@ -144,10 +273,66 @@ public class RequestController {
         // ✅ SECURITY FIX: Verify user is assigned TA or admin
         authorizationService.verifyCanUpdatePriority(id, authentication.getName());
 
-        RequestResponse response = requestService.updatePriority(id, priority);
+        RequestResponse response = mutationPipeline.executeForRequest(id,
+                () -> requestService.updatePriority(id, priority));
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Resolve or re-prioritise many requests in one transaction (only the assigned TA).
+     * Emits one aggregated "requests:bulk-updated" event instead of one per request.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<List<RequestResponse>> bulkUpdate(
+            @Valid @RequestBody BulkRequestUpdateDto dto,
+            Authentication authentication) {
+        log.info("Bulk update of {} requests by TA: {}", dto.getOperations().size(), authentication.getName());
+
+        Set<String> requestIds = new LinkedHashSet<>();
+        for (BulkRequestOperationDto operation : dto.getOperations()) {
+            requestIds.add(operation.getRequestId());
+        }
+        authorizationService.verifyCanBulkUpdate(requestIds, authentication.getName());
+
+        List<RequestResponse> responses = requestService.applyBulkOperations(dto.getOperations(), authentication.getName());
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Move a pending request directly before another one (TA only).
+     * Moves are debounced and applied asynchronously; the result is broadcast as "queue:reordered".
+     */
+    @PutMapping("/{id}/move-before/{targetId}")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<Map<String, String>> moveBefore(
+            @PathVariable String id,
+            @PathVariable String targetId,
+            Authentication authentication) {
+        log.info("Move request {} before {} by TA: {}", id, targetId, authentication.getName());
+        return submitMove(new QueueMove(id, targetId, true), authentication);
+    }
+
+    /**
+     * Move a pending request directly after another one (TA only).
+     */
+    @PutMapping("/{id}/move-after/{targetId}")
+    @PreAuthorize("hasRole('TA')")
+    public ResponseEntity<Map<String, String>> moveAfter(
+            @PathVariable String id,
+            @PathVariable String targetId,
+            Authentication authentication) {
+        log.info("Move request {} after {} by TA: {}", id, targetId, authentication.getName());
+        return submitMove(new QueueMove(id, targetId, false), authentication);
+    }
+
+    private ResponseEntity<Map<String, String>> submitMove(QueueMove move, Authentication authentication) {
+        authorizationService.verifyCanReorderQueue(authentication.getName());
+
+        queueReorderService.submit(authentication.getName(), move);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Move scheduled"));
+    }
+
     /**
      * Update a request (only creator or admin can update).
      */
@@ -162,7 +347,8 @@ public class RequestController {
         // ✅ SECURITY FIX: Verify user is creator or admin
         authorizationService.verifyCanUpdateRequest(id, authentication.getName());
         
-        RequestResponse response = requestService.updateRequest(id, dto, authentication.getName());
+        RequestResponse response = mutationPipeline.executeForRequest(id,
+                () -> requestService.updateRequest(id, dto, authentication.getName()));
         return ResponseEntity.ok(response);
     }
 
@@ -179,7 +365,7 @@ public class RequestController {
         // ✅ SECURITY FIX: Verify user is creator or admin
         authorizationService.verifyCanDeleteRequest(id, authentication.getName());
         
-        requestService.deleteRequest(id, authentication.getName());
+        mutationPipeline.executeForRequest(id, () -> requestService.deleteRequest(id, authentication.getName()));
         return ResponseEntity.ok(Map.of("message", "Request deleted successfully"));
     }
 }
\ No newline at end of file
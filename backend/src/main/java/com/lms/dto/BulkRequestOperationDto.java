@@ -0,0 +1,34 @@
+package com.lms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One operation of a bulk request update: resolve a request or set its priority.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRequestOperationDto {
+
+    public enum Action {
+        RESOLVE,
+        SET_PRIORITY
+    }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    @NotBlank(message = "Request id is required")
+    private String requestId;
+
+    /**
+     * New priority, required for SET_PRIORITY.
+     */
+    private Long priority;
+}
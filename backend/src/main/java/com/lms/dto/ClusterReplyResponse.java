@@ -0,0 +1,24 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of replying to a request cluster.
+ * Skipped requests were claimed by another TA or closed in the meantime.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterReplyResponse {
+
+    private String clusterId;
+    private List<ReplyDto> replies;
+    private List<String> resolvedRequestIds;
+    private List<String> skippedRequestIds;
+}
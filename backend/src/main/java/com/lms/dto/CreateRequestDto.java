@@ -27,4 +27,10 @@ public class CreateRequestDto {
 
     @NotBlank(message = "Lab session is required")
     private String labSessionId;
+
+    /**
+     * Optional request class used for fair queuing (e.g. "quick", "debugging").
+     */
+    @Size(max = 50, message = "Category must be at most 50 characters")
+    private String category;
 }
\ No newline at end of file
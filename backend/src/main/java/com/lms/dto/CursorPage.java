@@ -0,0 +1,25 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for keyset (cursor) paginated responses.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ * No total count is computed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,24 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary of a lab session close, returned to the caller and broadcast as one "session:closed" event.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabSessionClosedSummary {
+
+    private String labSessionId;
+    private LocalDateTime closedAt;
+    private int cancelledCount;
+    private List<String> cancelledRequestIds;
+}
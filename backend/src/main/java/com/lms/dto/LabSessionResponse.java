@@ -0,0 +1,27 @@
+package com.lms.dto;
+
+import com.lms.entity.LabSessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing a lab session for API responses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabSessionResponse {
+
+    private String id;
+    private String name;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LabSessionStatus status;
+    private boolean autoDispatch;
+    private LocalDateTime closedAt;
+}
@@ -0,0 +1,26 @@
+package com.lms.dto;
+
+import com.lms.entity.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO with the estimated wait of a pending request.
+ * Position and estimatedWaitSeconds are null when the request is no longer waiting.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueEtaResponse {
+
+    private String requestId;
+    private String labSessionId;
+    private RequestStatus status;
+    private Integer position;
+    private Long estimatedWaitSeconds;
+    private Double averageServiceTimeSeconds;
+    private int activeTas;
+}
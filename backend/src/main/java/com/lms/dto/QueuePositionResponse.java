@@ -0,0 +1,24 @@
+package com.lms.dto;
+
+import com.lms.entity.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing where a request stands in its lab session's pending queue.
+ * Position is 1-based and null when the request is no longer waiting.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuePositionResponse {
+
+    private String requestId;
+    private String labSessionId;
+    private RequestStatus status;
+    private Integer position;
+    private int queueLength;
+}
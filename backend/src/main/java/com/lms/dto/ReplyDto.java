@@ -21,6 +21,7 @@ public class ReplyDto {
     private String taId;
     private String taUsername;
     private String message;
+    private boolean messageTruncated;
     private LocalDateTime createdAt;
 }
 
@@ -0,0 +1,25 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO describing a cluster of near-duplicate open requests.
+ * The title is the one of the cluster's oldest open request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestClusterResponse {
+
+    private String clusterId;
+    private String labSessionId;
+    private String title;
+    private int size;
+    private List<String> requestIds;
+}
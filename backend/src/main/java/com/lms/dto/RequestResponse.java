@@ -20,6 +20,7 @@ public class RequestResponse {
     private String id;
     private String title;
     private String description;
+    private boolean descriptionTruncated;
     private String studentId;
     private String studentUsername;
     private String labSessionId;
@@ -30,4 +31,7 @@ public class RequestResponse {
     private LocalDateTime createdAt;
     private LocalDateTime resolvedAt;
     private String metadata;
+    private Long version;
+    private Integer replyCount;
+    private LocalDateTime lastReplyAt;
 }
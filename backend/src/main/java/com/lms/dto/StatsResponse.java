@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 
 /**
  * DTO for admin statistics.
+ * All figures are for labSessionId, or for all lab sessions when it is null. Counts and queue
+ * depth are current; times and arrival rate are recent (exponentially weighted) figures.
  */
 @Data
 @Builder
@@ -20,4 +22,8 @@ public class StatsResponse {
     private long cancelledCount;
     private Double averageWaitTimeSeconds;
     private long totalRequests;
+    private String labSessionId;
+    private int queueDepth;
+    private Double averageServiceTimeSeconds;
+    private Double arrivalRatePerMinute;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.lms.dto;
+
+import com.lms.entity.Role;
+import com.lms.entity.User;
+import com.lms.entity.UserRole;
+import lombok.Value;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the user fields needed for authentication and authorization checks.
+ * Safe to share from a cache, unlike the managed User entity.
+ */
+@Value
+public class UserSnapshot {
+
+    String id;
+    String username;
+    String studentId;
+    String passwordHash;
+    Set<Role> roles;
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getStudentId(), user.getPasswordHash(),
+                user.getRoles().stream().map(UserRole::getRole).collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public boolean hasRole(Role role) {
+        return roles.contains(role);
+    }
+}
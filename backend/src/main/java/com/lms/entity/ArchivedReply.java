@@ -0,0 +1,46 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a reply moved to cold storage together with its request.
+ */
+@Entity
+@Immutable
+@Table(name = "replies_archive", indexes = {
+    @Index(name = "idx_replies_archive_request_created", columnList = "request_id,created_at")
+})
+@Getter
+@NoArgsConstructor
+public class ArchivedReply {
+
+    @Id
+    @Type(UuidBinaryType.class)
+    @Column(columnDefinition = "BINARY(16)")
+    private String id;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "request_id", nullable = false, columnDefinition = "BINARY(16)")
+    private String requestId;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "ta_id", nullable = false, columnDefinition = "BINARY(16)")
+    private String taId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "message_truncated", nullable = false)
+    private boolean messageTruncated;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,84 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a finished request moved to cold storage by the archival job.
+ */
+@Entity
+@Immutable
+@Table(name = "requests_archive", indexes = {
+    @Index(name = "idx_requests_archive_student_created", columnList = "student_id,created_at"),
+    @Index(name = "idx_requests_archive_student_status", columnList = "student_id,status,created_at")
+})
+@Getter
+@NoArgsConstructor
+public class ArchivedRequest {
+
+    @Id
+    @Type(UuidBinaryType.class)
+    @Column(columnDefinition = "BINARY(16)")
+    private String id;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "description_truncated", nullable = false)
+    private boolean descriptionTruncated;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "student_id", nullable = false, columnDefinition = "BINARY(16)")
+    private String studentId;
+
+    @Column(name = "student_username", length = 50)
+    private String studentUsername;
+
+    @Column(name = "lab_session_id", length = 36)
+    private String labSessionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RequestStatus status;
+
+    @Column(nullable = false)
+    private Long priority;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "assigned_to", columnDefinition = "BINARY(16)")
+    private String assignedTo;
+
+    @Column(name = "assigned_to_username", length = 50)
+    private String assignedToUsername;
+
+    @Column(name = "assigned_at")
+    private LocalDateTime assignedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    @Column(columnDefinition = "JSON")
+    private String metadata;
+
+    @Column(name = "reply_count", nullable = false)
+    private Integer replyCount;
+
+    @Column(name = "last_reply_at")
+    private LocalDateTime lastReplyAt;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
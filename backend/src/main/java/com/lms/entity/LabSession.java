@@ -0,0 +1,73 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lab session entity. Each session has its own request queue.
+ * autoDispatch is null when the session follows the application default.
+ */
+@Entity
+@Table(name = "lab_sessions", indexes = {
+    @Index(name = "idx_start_time", columnList = "start_time"),
+    @Index(name = "idx_end_time", columnList = "end_time"),
+    @Index(name = "idx_lab_sessions_status_start", columnList = "status,start_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LabSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private LabSessionStatus status;
+
+    @Column(name = "auto_dispatch")
+    private Boolean autoDispatch;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = TimeOrderedUuid.next();
+        }
+        if (status == null) {
+            status = LabSessionStatus.OPEN;
+        }
+    }
+
+    /**
+     * Check if requests can currently be created in this session.
+     */
+    public boolean isOpen() {
+        return status == LabSessionStatus.OPEN;
+    }
+}
@@ -0,0 +1,10 @@
+package com.lms.entity;
+
+/**
+ * Lab session lifecycle status.
+ * Requests can only be created in OPEN sessions; closing cancels the remaining queue.
+ */
+public enum LabSessionStatus {
+    OPEN,
+    CLOSED
+}
@@ -22,7 +22,8 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "user_id", nullable = false, length = 36)
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "user_id", nullable = false, columnDefinition = "BINARY(16)")
     private String userId;
 
     @Column(nullable = false, unique = true, length = 500)
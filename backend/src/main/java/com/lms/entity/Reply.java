@@ -3,9 +3,9 @@ package com.lms.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 /**
  * Reply entity representing TA responses to student requests.
@@ -13,7 +13,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "replies", indexes = {
     @Index(name = "idx_request_id", columnList = "request_id"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_replies_request_created", columnList = "request_id,created_at")
 })
 @Data
 @NoArgsConstructor
@@ -22,18 +23,25 @@ import java.util.UUID;
 public class Reply {
 
     @Id
-    @Column(length = 36)
+    @Type(UuidBinaryType.class)
+    @Column(columnDefinition = "BINARY(16)")
     private String id;
 
-    @Column(name = "request_id", nullable = false, length = 36)
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "request_id", nullable = false, columnDefinition = "BINARY(16)")
     private String requestId;
 
-    @Column(name = "ta_id", nullable = false, length = 36)
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "ta_id", nullable = false, columnDefinition = "BINARY(16)")
     private String taId;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // Preview only; longer messages are kept whole in reply_bodies (see LargeTextStore)
+    @Column(nullable = false, length = 1000)
     private String message;
 
+    @Column(name = "message_truncated", nullable = false)
+    private boolean messageTruncated;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -41,7 +49,7 @@ public class Reply {
     @PrePersist
     public void prePersist() {
         if (id == null) {
-            id = UUID.randomUUID().toString();
+            id = TimeOrderedUuid.next();
         }
     }
 }
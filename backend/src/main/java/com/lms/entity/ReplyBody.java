@@ -0,0 +1,32 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Type;
+
+/**
+ * Full message of a reply too long for its hot row (see LargeTextStore).
+ */
+@Entity
+@Table(name = "reply_bodies")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplyBody {
+
+    @Id
+    @Type(UuidBinaryType.class)
+    @Column(name = "reply_id", columnDefinition = "BINARY(16)")
+    private String replyId;
+
+    // Whether content is a zlib stream
+    @Column(nullable = false)
+    private boolean compressed;
+
+    @Column(name = "original_bytes", nullable = false)
+    private int originalBytes;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] content;
+}
@@ -2,21 +2,31 @@ package com.lms.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 /**
  * Request entity representing student help requests.
  * Priority is set to created_at epoch by default for FCFS ordering.
  * TAs can manually adjust priority for re-ordering.
+ *
+ * Student and assignee usernames, the reply count and the last reply time are denormalised
+ * onto the row so list endpoints need no joins. Updates are dynamic so that saving an entity
+ * never writes back a stale copy of the columns maintained by bulk UPDATEs.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "requests", indexes = {
     @Index(name = "idx_status_priority", columnList = "status,priority,created_at"),
     @Index(name = "idx_student_id", columnList = "student_id"),
-    @Index(name = "idx_assigned_to", columnList = "assigned_to")
+    @Index(name = "idx_requests_student_created", columnList = "student_id,created_at"),
+    @Index(name = "idx_assigned_to", columnList = "assigned_to"),
+    @Index(name = "idx_requests_session_status", columnList = "lab_session_id,status,priority,created_at"),
+    @Index(name = "idx_requests_status_resolved", columnList = "status,resolved_at")
 })
 @Data
 @NoArgsConstructor
@@ -25,18 +35,27 @@ import java.util.UUID;
 public class Request {
 
     @Id
-    @Column(length = 36)
+    @Type(UuidBinaryType.class)
+    @Column(columnDefinition = "BINARY(16)")
     private String id;
 
     @Column(nullable = false, length = 200)
     private String title;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // Preview only; longer descriptions are kept whole in request_bodies (see LargeTextStore)
+    @Column(nullable = false, length = 1000)
     private String description;
 
-    @Column(name = "student_id", nullable = false, length = 36)
+    @Column(name = "description_truncated", nullable = false)
+    private boolean descriptionTruncated;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "student_id", nullable = false, columnDefinition = "BINARY(16)")
     private String studentId;
 
+    @Column(name = "student_username", length = 50, updatable = false)
+    private String studentUsername;
+
     @Column(name = "lab_session_id", length = 36)
     private String labSessionId;
 
@@ -47,9 +66,20 @@ public class Request {
     @Column(nullable = false)
     private Long priority;
 
-    @Column(name = "assigned_to", length = 36)
+    // Set when a TA moves the request or sets its priority; escalation leaves it in place
+    @Column(name = "hand_ranked", nullable = false)
+    private boolean handRanked;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "assigned_to", columnDefinition = "BINARY(16)")
     private String assignedTo;
 
+    @Column(name = "assigned_to_username", length = 50)
+    private String assignedToUsername;
+
+    @Column(name = "assigned_at")
+    private LocalDateTime assignedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -60,13 +90,21 @@ public class Request {
     @Column(columnDefinition = "JSON")
     private String metadata;
 
+    // Maintained by ReplyService through a counter UPDATE, never written from the entity
+    @ColumnDefault("0")
+    @Column(name = "reply_count", nullable = false, insertable = false, updatable = false)
+    private Integer replyCount;
+
+    @Column(name = "last_reply_at", insertable = false, updatable = false)
+    private LocalDateTime lastReplyAt;
+
     @Version
     private Long version; // For optimistic locking
 
     @PrePersist
     public void prePersist() {
         if (id == null) {
-            id = UUID.randomUUID().toString();
+            id = TimeOrderedUuid.next();
         }
         if (status == null) {
             status = RequestStatus.PENDING;
@@ -81,10 +119,6 @@ public class Request {
      * Validate state transition for request status.
      */
     public boolean canTransitionTo(RequestStatus newStatus) {
-        return switch (status) {
-            case PENDING -> newStatus == RequestStatus.IN_PROGRESS || newStatus == RequestStatus.CANCELLED;
-            case IN_PROGRESS -> newStatus == RequestStatus.RESOLVED || newStatus == RequestStatus.PENDING;
-            case RESOLVED, CANCELLED -> false;
-        };
+        return status.canTransitionTo(newStatus);
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Type;
+
+/**
+ * Full description of a request too long for its hot row (see LargeTextStore).
+ */
+@Entity
+@Table(name = "request_bodies")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestBody {
+
+    @Id
+    @Type(UuidBinaryType.class)
+    @Column(name = "request_id", columnDefinition = "BINARY(16)")
+    private String requestId;
+
+    // Whether content is a zlib stream
+    @Column(nullable = false)
+    private boolean compressed;
+
+    @Column(name = "original_bytes", nullable = false)
+    private int originalBytes;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] content;
+}
@@ -11,5 +11,19 @@ public enum RequestStatus {
     PENDING,
     IN_PROGRESS,
     RESOLVED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Whether a request in this status may move to the given one.
+     * One path skips a step: answering a near-duplicate cluster claims and resolves its pending
+     * requests in a single UPDATE (RequestRepository#resolveAllForTa), which sets assigned_at too,
+     * so PENDING to RESOLVED is allowed there and only there.
+     */
+    public boolean canTransitionTo(RequestStatus newStatus) {
+        return switch (this) {
+            case PENDING -> newStatus == IN_PROGRESS || newStatus == CANCELLED;
+            case IN_PROGRESS -> newStatus == RESOLVED || newStatus == PENDING;
+            case RESOLVED, CANCELLED -> false;
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.lms.entity;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generator of time-ordered UUIDs (version 7, RFC 9562).
+ *
+ * The first 48 bits are the Unix time in milliseconds, so new rows append to the right-hand
+ * side of the primary key B-tree instead of landing on random pages. The remaining 74 bits are
+ * random, keeping ids as hard to guess as UUID.randomUUID().
+ */
+public final class TimeOrderedUuid {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TimeOrderedUuid() {
+    }
+
+    /**
+     * A new UUIDv7 in canonical string form.
+     */
+    public static String next() {
+        long millis = System.currentTimeMillis();
+        long randA = RANDOM.nextInt(1 << 12);
+        long randB = RANDOM.nextLong();
+
+        long mostSignificant = (millis << 16) | 0x7000L | randA;
+        long leastSignificant = (randB & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+}
@@ -2,13 +2,14 @@ package com.lms.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
 
 /**
  * User entity representing students, TAs, and admins in the system.
@@ -26,7 +27,8 @@ import java.util.UUID;
 public class User {
 
     @Id
-    @Column(length = 36)
+    @Type(UuidBinaryType.class)
+    @Column(columnDefinition = "BINARY(16)")
     private String id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -49,13 +51,15 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+    // Lazy: most lookups only need id/username; roles load in batches or via the auth entity graph
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<UserRole> roles = new HashSet<>();
 
     @PrePersist
     public void prePersist() {
         if (id == null) {
-            id = UUID.randomUUID().toString();
+            id = TimeOrderedUuid.next();
         }
         if (roles == null) {
             roles = new HashSet<>();
@@ -1,8 +1,11 @@
 package com.lms.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.JpaSystemException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
@@ -59,6 +62,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Handle illegal arguments raised inside a repository call, such as a malformed id rejected by
+     * UuidBinaryConverter, which Hibernate and Spring wrap on the way out.
+     */
+    @ExceptionHandler({InvalidDataAccessApiUsageException.class, JpaSystemException.class})
+    public ResponseEntity<Map<String, Object>> handleDataAccessArgumentException(RuntimeException ex) {
+        if (NestedExceptionUtils.getMostSpecificCause(ex) instanceof IllegalArgumentException cause) {
+            return handleIllegalArgumentException(cause);
+        }
+        return handleGlobalException(ex);
+    }
+
     /**
      * Handle illegal state exceptions.
      */
@@ -0,0 +1,40 @@
+package com.lms.repository;
+
+import com.lms.dto.ReplyDto;
+import com.lms.entity.ArchivedReply;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read access to archived replies, using the same projection and ordering as the live table.
+ */
+@Repository
+public interface ArchivedReplyRepository extends JpaRepository<ArchivedReply, String> {
+
+    String DTO_SELECT = "SELECT new com.lms.dto.ReplyDto("
+            + "r.id, r.requestId, r.taId, COALESCE(u.username, 'Unknown TA'), r.message, r.messageTruncated, r.createdAt) "
+            + "FROM ArchivedReply r LEFT JOIN User u ON u.id = r.taId ";
+
+    @Query(DTO_SELECT + "WHERE r.requestId = :requestId ORDER BY r.createdAt ASC")
+    List<ReplyDto> findDtosByRequestId(@Param("requestId") String requestId);
+
+    @Query(value = DTO_SELECT + "WHERE r.requestId = :requestId ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) FROM ArchivedReply r WHERE r.requestId = :requestId")
+    Page<ReplyDto> findDtosByRequestId(@Param("requestId") String requestId, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE r.requestId = :requestId ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReplyDto> seekDtosByRequestId(@Param("requestId") String requestId, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE r.requestId = :requestId AND "
+            + "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReplyDto> seekDtosByRequestIdBefore(@Param("requestId") String requestId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+}
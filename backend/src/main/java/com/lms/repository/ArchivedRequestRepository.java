@@ -0,0 +1,52 @@
+package com.lms.repository;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.ArchivedRequest;
+import com.lms.entity.RequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to archived requests, using the same projection and keyset ordering as the live table.
+ */
+@Repository
+public interface ArchivedRequestRepository extends JpaRepository<ArchivedRequest, String> {
+
+    String RESPONSE_SELECT = "SELECT new com.lms.dto.RequestResponse("
+            + "r.id, r.title, r.description, r.descriptionTruncated, r.studentId, r.studentUsername, r.labSessionId, "
+            + "r.status, r.priority, r.assignedTo, r.assignedToUsername, r.createdAt, r.resolvedAt, r.metadata, "
+            + "r.version, r.replyCount, r.lastReplyAt) "
+            + "FROM ArchivedRequest r ";
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = :id")
+    Optional<RequestResponse> findResponseById(@Param("id") String id);
+
+    long countByStudentId(String studentId);
+
+    long countByStudentIdAndStatus(String studentId, RequestStatus status);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId" + RequestRepository.NEWEST_ORDER)
+    List<RequestResponse> seekByStudentId(@Param("studentId") String studentId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId AND "
+            + RequestRepository.BEFORE_TIME_KEY + RequestRepository.NEWEST_ORDER)
+    List<RequestResponse> seekByStudentIdBefore(@Param("studentId") String studentId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId AND r.status = :status" + RequestRepository.NEWEST_ORDER)
+    List<RequestResponse> seekByStudentIdAndStatus(@Param("studentId") String studentId,
+            @Param("status") RequestStatus status, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId AND r.status = :status AND "
+            + RequestRepository.BEFORE_TIME_KEY + RequestRepository.NEWEST_ORDER)
+    List<RequestResponse> seekByStudentIdAndStatusBefore(@Param("studentId") String studentId,
+            @Param("status") RequestStatus status, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id, Pageable pageable);
+}
@@ -0,0 +1,52 @@
+package com.lms.repository;
+
+import com.lms.entity.LabSession;
+import com.lms.entity.LabSessionStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for LabSession entity operations.
+ */
+@Repository
+public interface LabSessionRepository extends JpaRepository<LabSession, String> {
+
+    List<LabSession> findAllByOrderByStartTimeDesc();
+
+    List<LabSession> findByStatusOrderByStartTimeDesc(LabSessionStatus status);
+
+    List<LabSession> findByAutoDispatchIsNotNull();
+
+    @Query("SELECT s.status FROM LabSession s WHERE s.id = :id")
+    Optional<LabSessionStatus> findStatusById(@Param("id") String id);
+
+    /**
+     * Load a session under a shared row lock held until commit (SELECT ... FOR SHARE).
+     * Request inserts take it so that closing the session, which updates this row before
+     * cancelling pending requests, either waits for them or is seen by them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT s FROM LabSession s WHERE s.id = :id")
+    Optional<LabSession> findByIdForShare(@Param("id") String id);
+
+    /**
+     * Open sessions whose time window contains {@code now}, latest start first.
+     */
+    @Query("SELECT s FROM LabSession s WHERE s.status = com.lms.entity.LabSessionStatus.OPEN "
+            + "AND s.startTime <= :now AND s.endTime >= :now ORDER BY s.startTime DESC")
+    List<LabSession> findActive(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE LabSession s SET s.autoDispatch = :enabled WHERE s.id = :id")
+    int updateAutoDispatch(@Param("id") String id, @Param("enabled") boolean enabled);
+}
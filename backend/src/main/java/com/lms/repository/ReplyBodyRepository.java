@@ -0,0 +1,22 @@
+package com.lms.repository;
+
+import com.lms.entity.ReplyBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the full messages of long replies.
+ */
+@Repository
+public interface ReplyBodyRepository extends JpaRepository<ReplyBody, String> {
+
+    /**
+     * Drop the bodies of all replies to a request, in one statement.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ReplyBody b WHERE b.replyId IN (SELECT r.id FROM Reply r WHERE r.requestId = :requestId)")
+    int deleteByRequestId(@Param("requestId") String requestId);
+}
@@ -1,11 +1,15 @@
 package com.lms.repository;
 
+import com.lms.dto.ReplyDto;
 import com.lms.entity.Reply;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -14,11 +18,34 @@ import java.util.List;
 @Repository
 public interface ReplyRepository extends JpaRepository<Reply, String> {
 
+    /**
+     * Projection building ReplyDto with the TA username in a single query.
+     */
+    String DTO_SELECT = "SELECT new com.lms.dto.ReplyDto("
+            + "r.id, r.requestId, r.taId, COALESCE(u.username, 'Unknown TA'), r.message, r.messageTruncated, r.createdAt) "
+            + "FROM Reply r LEFT JOIN User u ON u.id = r.taId ";
+
     Page<Reply> findByRequestIdOrderByCreatedAtDesc(String requestId, Pageable pageable);
 
     List<Reply> findByRequestIdOrderByCreatedAtAsc(String requestId);
 
     long countByRequestId(String requestId);
-}
 
+    @Query(DTO_SELECT + "WHERE r.requestId = :requestId ORDER BY r.createdAt ASC")
+    List<ReplyDto> findDtosByRequestId(@Param("requestId") String requestId);
+
+    @Query(value = DTO_SELECT + "WHERE r.requestId = :requestId ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) FROM Reply r WHERE r.requestId = :requestId")
+    Page<ReplyDto> findDtosByRequestId(@Param("requestId") String requestId, Pageable pageable);
 
+    // Keyset (seek) pagination, newest first: the Pageable only carries the limit.
+
+    @Query(DTO_SELECT + "WHERE r.requestId = :requestId ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReplyDto> seekDtosByRequestId(@Param("requestId") String requestId, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE r.requestId = :requestId AND "
+            + "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReplyDto> seekDtosByRequestIdBefore(@Param("requestId") String requestId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+}
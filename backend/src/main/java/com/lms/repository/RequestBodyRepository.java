@@ -0,0 +1,22 @@
+package com.lms.repository;
+
+import com.lms.entity.RequestBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the full descriptions of long requests.
+ */
+@Repository
+public interface RequestBodyRepository extends JpaRepository<RequestBody, String> {
+
+    /**
+     * Drop a request's body, if it has one, without loading it first.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RequestBody b WHERE b.requestId = :requestId")
+    int deleteByRequestId(@Param("requestId") String requestId);
+}
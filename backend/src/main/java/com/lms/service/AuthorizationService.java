@@ -1,15 +1,19 @@
 package com.lms.service;
 
+import com.lms.dto.UserSnapshot;
+import com.lms.entity.ArchivedRequest;
 import com.lms.entity.Request;
 import com.lms.entity.Role;
-import com.lms.entity.User;
+import com.lms.repository.ArchivedRequestRepository;
 import com.lms.repository.RequestRepository;
-import com.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Service for verifying resource-level authorization.
  * Implements fine-grained access control beyond simple role-based checks.
@@ -20,7 +24,8 @@ import org.springframework.stereotype.Service;
 public class AuthorizationService {
 
     private final RequestRepository requestRepository;
-    private final UserRepository userRepository;
+    private final ArchivedRequestRepository archivedRequestRepository;
+    private final UserDirectory userDirectory;
 
     /**
      * ✅ Check if current user is the student who created the request.
@@ -29,7 +34,7 @@ public class AuthorizationService {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
 
-        User student = userRepository.findByUsername(username)
+        UserSnapshot student = userDirectory.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         return request.getStudentId().equals(student.getId());
@@ -42,7 +47,7 @@ public class AuthorizationService {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
 
-        User ta = userRepository.findByUsername(username)
+        UserSnapshot ta = userDirectory.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         return request.getAssignedTo() != null &&
@@ -69,15 +74,34 @@ public class AuthorizationService {
         }
     }
 
+    /**
+     * Verify user is the assigned TA of every request in a bulk update.
+     * Loads all requests with one query instead of one lookup per request.
+     */
+    public void verifyCanBulkUpdate(Collection<String> requestIds, String username) {
+        UserSnapshot ta = userDirectory.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<Request> requests = requestRepository.findAllById(requestIds);
+        if (requests.size() != requestIds.size()) {
+            throw new IllegalArgumentException("Request not found");
+        }
+        for (Request request : requests) {
+            if (!ta.getId().equals(request.getAssignedTo())) {
+                throw new AccessDeniedException("You are not authorized to update request " + request.getId()
+                        + ". Only assigned TA can update.");
+            }
+        }
+    }
+
     /**
      * ✅ Verify user can assign themselves to request (TA role only).
      */
     public void verifyCanAssignRequest(String requestId, String username) {
-        User user = userRepository.findByUsername(username)
+        UserSnapshot user = userDirectory.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        boolean isTA = user.getRoles().stream()
-                .anyMatch(role -> role.getRole() == Role.TA);
+        boolean isTA = user.hasRole(Role.TA);
 
         if (!isTA) {
             throw new AccessDeniedException("Only TAs can assign requests to themselves.");
@@ -88,6 +112,10 @@ public class AuthorizationService {
      * ✅ Verify user can view request (creator or assigned TA).
      */
     public void verifyCanViewRequest(String requestId, String username) {
+        if (!requestRepository.existsById(requestId)) {
+            verifyCanViewArchivedRequest(requestId, username);
+            return;
+        }
         if (!isRequestCreator(requestId, username) &&
                 !isAssignedTA(requestId, username)) {
             throw new AccessDeniedException(
@@ -95,6 +123,40 @@ public class AuthorizationService {
         }
     }
 
+    /**
+     * Archived requests stay viewable by the same people: their creator and the TA who handled them.
+     */
+    private void verifyCanViewArchivedRequest(String requestId, String username) {
+        ArchivedRequest request = archivedRequestRepository.findById(requestId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+        UserSnapshot user = userDirectory.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        if (!user.getId().equals(request.getStudentId()) && !user.getId().equals(request.getAssignedTo())) {
+            throw new AccessDeniedException(
+                    "You are not authorized to view this request.");
+        }
+    }
+
+    /**
+     * Verify user can view a request's queue position (creator or any TA).
+     */
+    public void verifyCanViewQueuePosition(String requestId, String username) {
+        if (!isRequestCreator(requestId, username) && !hasRole(username, Role.TA)) {
+            throw new AccessDeniedException(
+                    "You are not authorized to view this request's queue position.");
+        }
+    }
+
+    /**
+     * Verify user can reorder the pending queue (TA role only).
+     */
+    public void verifyCanReorderQueue(String username) {
+        if (!hasRole(username, Role.TA)) {
+            throw new AccessDeniedException("Only TAs can reorder the queue.");
+        }
+    }
+
     /**
      * ✅ Verify user can update request (creator only).
      */
@@ -114,4 +176,10 @@ public class AuthorizationService {
                     "You are not authorized to delete this request. Only creator can delete.");
         }
     }
+
+    private boolean hasRole(String username, Role role) {
+        UserSnapshot user = userDirectory.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return user.hasRole(role);
+    }
 }
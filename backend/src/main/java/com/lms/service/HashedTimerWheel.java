@@ -0,0 +1,118 @@
+package com.lms.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: deadlines are hashed into buckets by tick, so scheduling and
+ * cancelling are O(1) and each tick only visits one bucket. Deadlines further away
+ * than one revolution carry a round counter. Not thread-safe; callers must synchronize.
+ */
+final class HashedTimerWheel<T> {
+
+    static final class Timeout<T> {
+        final T task;
+        final long deadline;
+        long rounds;
+        int bucket = -1;
+        Timeout<T> prev;
+        Timeout<T> next;
+
+        Timeout(T task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    private final Timeout<T>[] heads;
+    private final int mask;
+    private final long tickMs;
+    private final long startMs;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HashedTimerWheel(int wheelSize, long tickMs, long startMs) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.heads = (Timeout<T>[]) new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.tickMs = tickMs;
+        this.startMs = startMs;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedule a task at an absolute time in milliseconds. Past deadlines fire on the next tick.
+     */
+    Timeout<T> schedule(T task, long deadlineMs) {
+        Timeout<T> timeout = new Timeout<>(task, deadlineMs);
+        long targetTick = Math.max(currentTick, Math.floorDiv(deadlineMs - startMs + tickMs - 1, tickMs));
+        timeout.rounds = (targetTick - currentTick) / heads.length;
+        link(timeout, (int) (targetTick & mask));
+        return timeout;
+    }
+
+    /**
+     * Cancel a scheduled timeout. Returns false if it already fired or was cancelled.
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Process every tick up to {@code nowMs}, handing expired tasks to {@code expired}.
+     */
+    void advance(long nowMs, Consumer<T> expired) {
+        while (startMs + currentTick * tickMs <= nowMs) {
+            Timeout<T> timeout = heads[(int) (currentTick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    unlink(timeout);
+                    expired.accept(timeout.task);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+            currentTick++;
+        }
+    }
+
+    private void link(Timeout<T> timeout, int bucket) {
+        Timeout<T> head = heads[bucket];
+        timeout.bucket = bucket;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        heads[bucket] = timeout;
+        size++;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            heads[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+}
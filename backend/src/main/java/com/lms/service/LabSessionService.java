@@ -0,0 +1,156 @@
+package com.lms.service;
+
+import com.lms.dto.CreateLabSessionDto;
+import com.lms.dto.LabSessionClosedSummary;
+import com.lms.dto.LabSessionResponse;
+import com.lms.dto.RequestResponse;
+import com.lms.dto.WebSocketEvent;
+import com.lms.entity.LabSession;
+import com.lms.entity.LabSessionStatus;
+import com.lms.repository.LabSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service for managing lab sessions.
+ * Each session has its own queue; closing a session cancels what is left of it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LabSessionService {
+
+    /** Session seeded by migration V8, used when no time-scheduled session is active. */
+    public static final String DEFAULT_SESSION_ID = "DEFAULT";
+
+    private final LabSessionRepository labSessionRepository;
+    private final RequestService requestService;
+    private final TaDispatcher taDispatcher;
+    private final RequestMutationPipeline mutationPipeline;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * WebSocket topic carrying the request events of one lab session.
+     */
+    public static String requestsTopic(String labSessionId) {
+        return "/topic/sessions/" + labSessionId + "/requests";
+    }
+
+    /**
+     * Get all lab sessions, latest first.
+     */
+    @Transactional(readOnly = true)
+    public List<LabSessionResponse> getAllSessions() {
+        return labSessionRepository.findAllByOrderByStartTimeDesc().stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    /**
+     * Get a lab session by ID.
+     */
+    @Transactional(readOnly = true)
+    public LabSessionResponse getSession(String id) {
+        return labSessionRepository.findById(id)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Lab session not found"));
+    }
+
+    /**
+     * Get the active lab session: the open session currently running with the latest start,
+     * falling back to the default session while it is open.
+     */
+    @Transactional(readOnly = true)
+    public LabSessionResponse getActiveSession() {
+        return labSessionRepository.findActive(LocalDateTime.now(), PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .or(() -> labSessionRepository.findById(DEFAULT_SESSION_ID).filter(LabSession::isOpen))
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new IllegalArgumentException("No active lab session"));
+    }
+
+    /**
+     * Create a new lab session.
+     */
+    @Transactional
+    public LabSessionResponse createSession(CreateLabSessionDto dto, String username) {
+        if (!dto.getEndTime().isAfter(dto.getStartTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+
+        LabSession session = LabSession.builder()
+                .name(dto.getName())
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .status(LabSessionStatus.OPEN)
+                .build();
+
+        session = labSessionRepository.save(session);
+        log.info("Lab session {} created by: {}", session.getId(), username);
+        return mapToResponse(session);
+    }
+
+    /**
+     * Close a lab session and cancel its remaining pending requests.
+     * The cancellation is one set-based UPDATE and clients receive one "session:closed" summary.
+     * Requests already in progress are left to their TAs.
+     */
+    @Transactional
+    public LabSessionClosedSummary closeSession(String id, String username) {
+        LabSession session = labSessionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Lab session not found"));
+        if (!session.isOpen()) {
+            throw new IllegalStateException("Lab session is already closed");
+        }
+
+        session.setStatus(LabSessionStatus.CLOSED);
+        session.setClosedAt(LocalDateTime.now());
+        // Flush first: the session row lock makes concurrent request inserts wait for this close
+        labSessionRepository.saveAndFlush(session);
+
+        List<RequestResponse> cancelled = requestService.cancelPendingRequests(id);
+        LabSessionClosedSummary summary = LabSessionClosedSummary.builder()
+                .labSessionId(id)
+                .closedAt(session.getClosedAt())
+                .cancelledCount(cancelled.size())
+                .cancelledRequestIds(cancelled.stream().map(RequestResponse::getId).toList())
+                .build();
+
+        log.info("Lab session {} closed by: {} ({} pending requests cancelled)", id, username, cancelled.size());
+        broadcastAfterCommit(summary);
+        return summary;
+    }
+
+    private void broadcastAfterCommit(LabSessionClosedSummary summary) {
+        AfterCommit.run(() -> {
+            mutationPipeline.closeLane(summary.getLabSessionId());
+            try {
+                WebSocketEvent event = WebSocketEvent.of("session:closed", summary);
+                messagingTemplate.convertAndSend("/topic/requests", event);
+                messagingTemplate.convertAndSend(requestsTopic(summary.getLabSessionId()), event);
+            } catch (Exception e) {
+                log.error("Error broadcasting close of lab session {}: {}",
+                        summary.getLabSessionId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    private LabSessionResponse mapToResponse(LabSession session) {
+        return LabSessionResponse.builder()
+                .id(session.getId())
+                .name(session.getName())
+                .startTime(session.getStartTime())
+                .endTime(session.getEndTime())
+                .status(session.getStatus())
+                .autoDispatch(taDispatcher.isEnabled(session.getId()))
+                .closedAt(session.getClosedAt())
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.lms.service;
+
+import com.lms.entity.ReplyBody;
+import com.lms.entity.RequestBody;
+import com.lms.repository.ReplyBodyRepository;
+import com.lms.repository.RequestBodyRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Side-table storage for long request descriptions and reply messages.
+ *
+ * The hot rows keep a preview of at most {@link #PREVIEW_LENGTH} characters, so list queries,
+ * the in-memory queue index and WebSocket events never carry full bodies. Longer texts are
+ * stored whole in request_bodies / reply_bodies, as a zlib stream once they reach the
+ * compression threshold, and are read back only by detail endpoints.
+ */
+@Service
+public class LargeTextStore {
+
+    /** Characters (code points) kept in the hot row; matches the VARCHAR(1000) columns. */
+    public static final int PREVIEW_LENGTH = 1000;
+
+    private final RequestBodyRepository requestBodyRepository;
+    private final ReplyBodyRepository replyBodyRepository;
+    private final EntityManager entityManager;
+    private final int compressThresholdBytes;
+
+    public LargeTextStore(RequestBodyRepository requestBodyRepository,
+                          ReplyBodyRepository replyBodyRepository,
+                          EntityManager entityManager,
+                          @Value("${lms.bodies.compress-threshold-bytes:2048}") int compressThresholdBytes) {
+        this.requestBodyRepository = requestBodyRepository;
+        this.replyBodyRepository = replyBodyRepository;
+        this.entityManager = entityManager;
+        this.compressThresholdBytes = compressThresholdBytes;
+    }
+
+    /**
+     * Whether a text is too long for the hot row and needs a side-table body.
+     */
+    public static boolean isLong(String text) {
+        return text != null && text.codePointCount(0, text.length()) > PREVIEW_LENGTH;
+    }
+
+    /**
+     * The hot-row preview of a text: its first {@link #PREVIEW_LENGTH} characters.
+     */
+    public static String preview(String text) {
+        if (!isLong(text)) {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, PREVIEW_LENGTH));
+    }
+
+    /**
+     * Store, replace or drop the full description of a request to match the given text.
+     * {@code hadBody} is whether the request was truncated before; only then can there be a body to drop.
+     */
+    public void saveRequestBody(String requestId, String text, boolean hadBody) {
+        if (!isLong(text)) {
+            if (hadBody) {
+                requestBodyRepository.deleteByRequestId(requestId);
+            }
+            return;
+        }
+        Body body = encode(text);
+        RequestBody entity = RequestBody.builder()
+                .requestId(requestId)
+                .compressed(body.compressed())
+                .originalBytes(body.originalBytes())
+                .content(body.content())
+                .build();
+        if (hadBody) {
+            requestBodyRepository.save(entity);
+        } else {
+            entityManager.persist(entity);
+        }
+    }
+
+    /**
+     * Store the full message of each long reply; the inserts are batched. The map is reply id to text.
+     * Bodies are always new, so they are persisted directly: saving an entity with an assigned id
+     * would look it up first.
+     */
+    public void saveReplyBodies(Map<String, String> messages) {
+        messages.forEach((replyId, text) -> {
+            if (isLong(text)) {
+                Body body = encode(text);
+                entityManager.persist(ReplyBody.builder()
+                        .replyId(replyId)
+                        .compressed(body.compressed())
+                        .originalBytes(body.originalBytes())
+                        .content(body.content())
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Full description of a request, empty if it fits in the hot row.
+     */
+    public Optional<String> findRequestBody(String requestId) {
+        return requestBodyRepository.findById(requestId)
+                .map(body -> decode(body.isCompressed(), body.getOriginalBytes(), body.getContent()));
+    }
+
+    /**
+     * Full messages of the given replies that have one, keyed by reply id.
+     */
+    public Map<String, String> findReplyBodies(Collection<String> replyIds) {
+        if (replyIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> bodies = new HashMap<>();
+        for (ReplyBody body : replyBodyRepository.findAllById(replyIds)) {
+            bodies.put(body.getReplyId(), decode(body.isCompressed(), body.getOriginalBytes(), body.getContent()));
+        }
+        return bodies;
+    }
+
+    /**
+     * Drop the bodies of a request and its replies, before the request itself is deleted.
+     */
+    public void deleteRequestBodies(String requestId) {
+        replyBodyRepository.deleteByRequestId(requestId);
+        requestBodyRepository.deleteByRequestId(requestId);
+    }
+
+    private record Body(boolean compressed, int originalBytes, byte[] content) {
+    }
+
+    private Body encode(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < compressThresholdBytes) {
+            return new Body(false, raw.length, raw);
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            // Already-compressed or random text can grow; keep it raw then
+            return out.size() < raw.length
+                    ? new Body(true, raw.length, out.toByteArray())
+                    : new Body(false, raw.length, raw);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String decode(boolean compressed, int originalBytes, byte[] content) {
+        if (!compressed) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(content);
+            byte[] raw = new byte[originalBytes];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Stored body is truncated: " + length + " of " + raw.length + " bytes");
+            }
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Stored body is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
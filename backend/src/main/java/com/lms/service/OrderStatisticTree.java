@@ -0,0 +1,171 @@
+package com.lms.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Order-statistic set backed by a size-augmented treap.
+ * add, remove and rank run in expected O(log n). Not thread-safe; callers must synchronize.
+ */
+final class OrderStatisticTree<K extends Comparable<K>> {
+
+    private static final class Node<K> {
+        final K key;
+        final int heapPriority;
+        int size = 1;
+        Node<K> left;
+        Node<K> right;
+
+        Node(K key) {
+            this.key = key;
+            this.heapPriority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Node<K> root;
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    boolean contains(K key) {
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Insert a key. Returns false if it was already present.
+     */
+    boolean add(K key) {
+        if (contains(key)) {
+            return false;
+        }
+        Node<K>[] parts = split(root, key);
+        root = merge(merge(parts[0], new Node<>(key)), parts[1]);
+        return true;
+    }
+
+    /**
+     * Remove a key. Returns false if it was not present.
+     */
+    boolean remove(K key) {
+        if (!contains(key)) {
+            return false;
+        }
+        root = remove(root, key);
+        return true;
+    }
+
+    /**
+     * Zero-based rank of a key (number of smaller keys), or -1 if absent.
+     */
+    int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Visit all keys in ascending order with their zero-based rank.
+     */
+    void forEachRanked(ObjIntConsumer<K> action) {
+        forEachRanked(root, 0, action);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    private int forEachRanked(Node<K> node, int offset, ObjIntConsumer<K> action) {
+        if (node == null) {
+            return offset;
+        }
+        int rank = forEachRanked(node.left, offset, action);
+        action.accept(node.key, rank);
+        return forEachRanked(node.right, rank + 1, action);
+    }
+
+    /**
+     * Split into keys smaller than {@code key} and keys greater or equal.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K>[] split(Node<K> node, K key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.key.compareTo(key) < 0) {
+            Node<K>[] parts = split(node.right, key);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node<K>[] parts = split(node.left, key);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    /**
+     * Merge two treaps where every key of {@code left} is smaller than every key of {@code right}.
+     */
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.heapPriority > right.heapPriority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node<K> remove(Node<K> node, K key) {
+        int cmp = key.compareTo(node.key);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, key);
+        } else {
+            node.right = remove(node.right, key);
+        }
+        update(node);
+        return node;
+    }
+
+    private void update(Node<K> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private int size(Node<K> node) {
+        return node != null ? node.size : 0;
+    }
+}
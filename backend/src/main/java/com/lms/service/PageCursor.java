@@ -0,0 +1,80 @@
+package com.lms.service;
+
+import com.lms.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset pagination cursor.
+ * Encodes the sort key of the last row of a page: (priority, createdAt, id) for queue order,
+ * or (createdAt, id) for chronological order, in which case priority is null.
+ */
+public record PageCursor(Long priority, LocalDateTime createdAt, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Encode the cursor as a URL-safe string.
+     */
+    public String encode() {
+        String raw = (priority != null ? priority.toString() : "") + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode()}.
+     * Returns null for an empty cursor (first page).
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Long priority = parts[0].isEmpty() ? null : Long.valueOf(parts[0]);
+            return new PageCursor(priority, LocalDateTime.parse(parts[1]), parts[2]);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Whether the cursor carries a queue-order key.
+     */
+    public boolean hasPriority() {
+        return priority != null;
+    }
+
+    /**
+     * Convert a queue-order cursor to a queue index key.
+     */
+    public QueueKey toQueueKey() {
+        return new QueueKey(priority, createdAt, id);
+    }
+
+    /**
+     * Build a cursor page from rows fetched with a limit of {@code size + 1}.
+     * The extra row only signals that another page exists.
+     */
+    public static <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, PageCursor> keyOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? keyOf.apply(content.get(content.size() - 1)).encode() : null;
+
+        return CursorPage.<T>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .size(content.size())
+                .hasNext(hasNext)
+                .build();
+    }
+}
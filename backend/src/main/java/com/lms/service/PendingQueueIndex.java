@@ -0,0 +1,421 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-local ordered index of open (PENDING and IN_PROGRESS) requests.
+ * Keyed by (priority, createdAt, id) so that iteration order matches the FCFS queue.
+ *
+ * Reads are lock-free; writes are serialized so the ordered map and the
+ * ID lookup map always agree. The index is only updated after a transaction
+ * commits and is periodically reconciled against the database by RequestService.
+ *
+ * After-commit listeners of two transactions on the same request can run out of commit order,
+ * so every change is checked against the version last applied for that request and dropped
+ * unless it is newer. Closed and deleted requests leave a tombstone with their last version
+ * for one to two reconciliation intervals, so a late event cannot bring them back.
+ *
+ * Changes that were applied are republished as {@link AppliedRequestChange}, in the order they
+ * were applied and with the previous status and TA the index held, for the in-memory structures
+ * that follow the index. Publishing happens outside the write lock, one thread at a time.
+ */
+@Component
+@Slf4j
+public class PendingQueueIndex {
+
+    private static final Sort QUEUE_SORT = Sort.by(Sort.Direction.ASC, "priority")
+            .and(Sort.by(Sort.Direction.ASC, "createdAt"));
+
+    private final ConcurrentSkipListMap<QueueKey, RequestResponse> queue = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, QueueKey> keysById = new ConcurrentHashMap<>();
+    // Guarded by writeLock: modification count at which each open entry was last applied
+    private final Map<String, Long> appliedAt = new HashMap<>();
+    // Guarded by writeLock: last version of closed or deleted requests, in two generations
+    private Map<String, RequestResponse> tombstones = new HashMap<>();
+    private Map<String, RequestResponse> retiredTombstones = new HashMap<>();
+    private final Object writeLock = new Object();
+    private final AtomicLong modificationCount = new AtomicLong();
+    // Appended under writeLock, so in the order the changes were applied
+    private final ConcurrentLinkedQueue<AppliedRequestChange> appliedChanges = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean ready = false;
+
+    public PendingQueueIndex(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Whether the index has been warmed from the database and can serve reads.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Check if a status is tracked by this index.
+     */
+    public static boolean isOpen(RequestStatus status) {
+        return status == RequestStatus.PENDING || status == RequestStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Replace the whole index content (startup warm-up or reconciliation).
+     */
+    public void load(Collection<RequestResponse> openRequests) {
+        synchronized (writeLock) {
+            queue.clear();
+            keysById.clear();
+            appliedAt.clear();
+            tombstones.clear();
+            retiredTombstones.clear();
+            for (RequestResponse request : openRequests) {
+                put(request, modificationCount.get());
+            }
+            ready = true;
+        }
+        log.info("Pending queue index loaded with {} open requests", keysById.size());
+    }
+
+    /**
+     * Insert, move or drop a request depending on its current status.
+     * Ignored unless the request is newer than the state last applied for it.
+     * Returns whether the change was applied.
+     */
+    public boolean upsert(RequestResponse request) {
+        synchronized (writeLock) {
+            return upsert(request, latest(request.getId()));
+        }
+    }
+
+    /**
+     * Remove a deleted request from the index, given its last state.
+     * Ignored if a newer state of the request has already been applied.
+     */
+    public boolean remove(RequestResponse request) {
+        synchronized (writeLock) {
+            return remove(request, latest(request.getId()));
+        }
+    }
+
+    /**
+     * Whether {@code request} is a later state than {@code other} of the same request.
+     * Reply counters are updated without a version bump, so at equal versions more replies is later.
+     */
+    public static boolean isNewer(RequestResponse request, RequestResponse other) {
+        long version = versionOf(request);
+        long otherVersion = versionOf(other);
+        if (version != otherVersion) {
+            return version > otherVersion;
+        }
+        return replyCountOf(request) > replyCountOf(other);
+    }
+
+    /**
+     * Get a request by ID if it is currently open.
+     */
+    public RequestResponse get(String requestId) {
+        QueueKey key = keysById.get(requestId);
+        return key != null ? queue.get(key) : null;
+    }
+
+    /**
+     * Get the requests with the given status in queue order.
+     */
+    public List<RequestResponse> list(RequestStatus status) {
+        List<RequestResponse> result = new ArrayList<>();
+        for (RequestResponse request : queue.values()) {
+            if (request.getStatus() == status) {
+                result.add(request);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get a page of requests with the given status in queue order.
+     */
+    public Page<RequestResponse> page(RequestStatus status, int page, int size) {
+        return page(status, null, page, size);
+    }
+
+    /**
+     * Get a page of requests with the given status in queue order, limited to one lab session
+     * unless {@code labSessionId} is null.
+     */
+    public Page<RequestResponse> page(RequestStatus status, String labSessionId, int page, int size) {
+        long offset = (long) page * size;
+        long matched = 0;
+        List<RequestResponse> content = new ArrayList<>(Math.min(size, 100));
+
+        for (RequestResponse request : queue.values()) {
+            if (!matches(request, status, labSessionId)) {
+                continue;
+            }
+            if (matched >= offset && content.size() < size) {
+                content.add(request);
+            }
+            matched++;
+        }
+
+        return new PageImpl<>(content, PageRequest.of(page, size, QUEUE_SORT), matched);
+    }
+
+    /**
+     * Get up to {@code limit} requests with the given status that come after {@code after}
+     * in queue order (keyset pagination). A null key starts from the head of the queue.
+     */
+    public List<RequestResponse> after(RequestStatus status, QueueKey after, int limit) {
+        return after(status, null, after, limit);
+    }
+
+    /**
+     * Keyset page as {@link #after(RequestStatus, QueueKey, int)}, limited to one lab session
+     * unless {@code labSessionId} is null.
+     */
+    public List<RequestResponse> after(RequestStatus status, String labSessionId, QueueKey after, int limit) {
+        Collection<RequestResponse> tail = after == null ? queue.values() : queue.tailMap(after, false).values();
+        List<RequestResponse> result = new ArrayList<>(Math.min(limit, 100));
+
+        for (RequestResponse request : tail) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (matches(request, status, labSessionId)) {
+                result.add(request);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get all open requests in queue order.
+     */
+    public List<RequestResponse> snapshot() {
+        return new ArrayList<>(queue.values());
+    }
+
+    /**
+     * Number of open requests in the index.
+     */
+    public int size() {
+        return keysById.size();
+    }
+
+    /**
+     * Counter of applied changes, used to detect writes racing with a reconciliation read.
+     */
+    public long modificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Repair the index from the open requests currently in the database, entry by entry.
+     * A database row is applied if it is newer than what the index holds, so rows read before a
+     * concurrent change cannot overwrite it. An indexed request missing from the database is
+     * dropped only if it was last applied before {@code readStamp} was taken, since a later one
+     * may have been created after the read. Returns the number of entries repaired.
+     */
+    public int reconcile(Collection<RequestResponse> openRequests, long readStamp) {
+        int drift = 0;
+        synchronized (writeLock) {
+            Set<String> open = new HashSet<>();
+            for (RequestResponse request : openRequests) {
+                open.add(request.getId());
+                RequestResponse current = latest(request.getId());
+                if (current == null || isNewer(request, current)) {
+                    apply(request, modificationCount.incrementAndGet());
+                    drift++;
+                }
+            }
+            for (String id : new ArrayList<>(keysById.keySet())) {
+                if (!open.contains(id) && appliedAt.getOrDefault(id, 0L) <= readStamp) {
+                    RequestResponse closed = get(id);
+                    modificationCount.incrementAndGet();
+                    removeById(id);
+                    bury(closed);
+                    drift++;
+                }
+            }
+
+            // Late events arrive within moments of their commit; older tombstones can go
+            retiredTombstones = tombstones;
+            tombstones = new HashMap<>();
+        }
+        if (drift > 0) {
+            log.warn("Pending queue index drifted from database by {} entries, repaired", drift);
+        }
+        return drift;
+    }
+
+    /**
+     * Keep the index in sync with committed request changes and republish the ones applied.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onRequestLifecycleEvent(RequestLifecycleEvent event) {
+        if (!ready) {
+            return;
+        }
+        RequestResponse request = event.request();
+        synchronized (writeLock) {
+            RequestResponse previous = latest(request.getId());
+            boolean applied = event.isDeleted() ? remove(request, previous) : upsert(request, previous);
+            if (applied) {
+                appliedChanges.add(new AppliedRequestChange(asApplied(event, previous)));
+            }
+        }
+        publishAppliedChanges();
+    }
+
+    /**
+     * Publish queued applied changes in order. Whoever holds the publish lock publishes for
+     * everyone, and the queue is checked again after releasing it, so a change queued by a
+     * thread that found the lock taken is never left behind. A follower applying a change of
+     * its own while being published to only queues it.
+     */
+    private void publishAppliedChanges() {
+        while (!appliedChanges.isEmpty()) {
+            if (publishLock.isHeldByCurrentThread() || !publishLock.tryLock()) {
+                return;
+            }
+            try {
+                AppliedRequestChange change;
+                while ((change = appliedChanges.poll()) != null) {
+                    try {
+                        eventPublisher.publishEvent(change);
+                    } catch (RuntimeException e) {
+                        log.error("Error publishing applied change of request {}: {}",
+                                change.event().request().getId(), e.getMessage());
+                    }
+                }
+            } finally {
+                publishLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The event with the previous status and TA the index held. A request the index has no state
+     * for but whose event comes from an open status was never seen open here: the change that
+     * opened it was dropped as older than this one, so for followers this change opens it.
+     */
+    private static RequestLifecycleEvent asApplied(RequestLifecycleEvent event, RequestResponse previous) {
+        if (previous != null) {
+            return new RequestLifecycleEvent(event.type(), event.request(),
+                    previous.getStatus(), previous.getAssignedTo());
+        }
+        if (isOpen(event.previousStatus())) {
+            return new RequestLifecycleEvent(event.type(), event.request(), null, null);
+        }
+        return event;
+    }
+
+    private boolean upsert(RequestResponse request, RequestResponse current) {
+        if (current != null && !isNewer(request, current)) {
+            log.debug("Ignoring stale update of request {} (version {}, have {})",
+                    request.getId(), request.getVersion(), current.getVersion());
+            return false;
+        }
+        apply(request, modificationCount.incrementAndGet());
+        return true;
+    }
+
+    private boolean remove(RequestResponse request, RequestResponse current) {
+        if (current != null && isNewer(current, request)) {
+            log.debug("Ignoring stale removal of request {} (version {}, have {})",
+                    request.getId(), request.getVersion(), current.getVersion());
+            return false;
+        }
+        modificationCount.incrementAndGet();
+        removeById(request.getId());
+        bury(request);
+        return true;
+    }
+
+    private static boolean matches(RequestResponse request, RequestStatus status, String labSessionId) {
+        return request.getStatus() == status
+                && (labSessionId == null || labSessionId.equals(request.getLabSessionId()));
+    }
+
+    private void apply(RequestResponse request, long stamp) {
+        removeById(request.getId());
+        if (isOpen(request.getStatus())) {
+            put(request, stamp);
+        } else {
+            bury(request);
+        }
+    }
+
+    private void put(RequestResponse request, long stamp) {
+        QueueKey key = QueueKey.of(request);
+        queue.put(key, request);
+        keysById.put(request.getId(), key);
+        appliedAt.put(request.getId(), stamp);
+        tombstones.remove(request.getId());
+        retiredTombstones.remove(request.getId());
+    }
+
+    private void removeById(String requestId) {
+        QueueKey key = keysById.remove(requestId);
+        if (key != null) {
+            queue.remove(key);
+        }
+        appliedAt.remove(requestId);
+    }
+
+    private void bury(RequestResponse request) {
+        // Only what isNewer compares and followers are told was the previous state, not the body
+        tombstones.put(request.getId(), RequestResponse.builder()
+                .id(request.getId())
+                .version(request.getVersion())
+                .replyCount(request.getReplyCount())
+                .status(request.getStatus())
+                .assignedTo(request.getAssignedTo())
+                .build());
+    }
+
+    /**
+     * Last applied state of a request: its open entry or its tombstone, null if unknown.
+     */
+    private RequestResponse latest(String requestId) {
+        RequestResponse open = get(requestId);
+        if (open != null) {
+            return open;
+        }
+        RequestResponse closed = tombstones.get(requestId);
+        return closed != null ? closed : retiredTombstones.get(requestId);
+    }
+
+    private static long versionOf(RequestResponse request) {
+        return request.getVersion() != null ? request.getVersion() : -1L;
+    }
+
+    private static int replyCountOf(RequestResponse request) {
+        return request.getReplyCount() != null ? request.getReplyCount() : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Ordering key for open requests.
+ * Matches the database ordering (priority ASC, created_at ASC) with the ID as a tie-breaker
+ * so that every request has a unique position in the queue.
+ */
+public record QueueKey(long priority, LocalDateTime createdAt, String id) implements Comparable<QueueKey> {
+
+    private static final Comparator<QueueKey> ORDER = Comparator
+            .comparingLong(QueueKey::priority)
+            .thenComparing(QueueKey::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(QueueKey::id);
+
+    /**
+     * Build the queue key for a request response.
+     */
+    public static QueueKey of(RequestResponse request) {
+        return new QueueKey(request.getPriority(), request.getCreatedAt(), request.getId());
+    }
+
+    @Override
+    public int compareTo(QueueKey other) {
+        return ORDER.compare(this, other);
+    }
+}
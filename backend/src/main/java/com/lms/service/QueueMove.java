@@ -0,0 +1,11 @@
+package com.lms.service;
+
+/**
+ * A queue reorder: place a pending request directly before or after another pending request.
+ *
+ * @param requestId request being moved
+ * @param targetId  request it is placed next to
+ * @param before    true to place it before the target, false to place it after
+ */
+public record QueueMove(String requestId, String targetId, boolean before) {
+}
@@ -0,0 +1,195 @@
+package com.lms.service;
+
+import com.lms.dto.QueuePositionResponse;
+import com.lms.dto.RequestResponse;
+import com.lms.dto.WebSocketEvent;
+import com.lms.entity.RequestStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service answering "where am I in line" for pending requests.
+ *
+ * Each lab session has an order-statistic tree of pending queue keys, so a rank
+ * lookup is O(log n). Position changes are pushed to the affected students only:
+ * sessions touched by a change are marked dirty and a periodic flush walks the
+ * session queue once, sending an update to students whose position actually moved.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueuePositionService {
+
+    private record Entry(QueueKey key, String labSessionId, String studentUsername) {
+    }
+
+    private record WebSocketPush(String username, QueuePositionResponse position) {
+    }
+
+    private final PendingQueueIndex pendingQueueIndex;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, OrderStatisticTree<QueueKey>> queuesBySession = new HashMap<>();
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final Map<String, Integer> lastPushedPositions = new HashMap<>();
+    private final Set<String> dirtySessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the current queue position of a request.
+     */
+    public synchronized QueuePositionResponse getPosition(String requestId, RequestStatus status) {
+        Entry entry = entriesById.get(requestId);
+        if (entry == null) {
+            return QueuePositionResponse.builder()
+                    .requestId(requestId)
+                    .status(status)
+                    .build();
+        }
+
+        OrderStatisticTree<QueueKey> queue = queuesBySession.get(sessionKey(entry.labSessionId()));
+        return QueuePositionResponse.builder()
+                .requestId(requestId)
+                .labSessionId(entry.labSessionId())
+                .status(RequestStatus.PENDING)
+                .position(queue.rank(entry.key()) + 1)
+                .queueLength(queue.size())
+                .build();
+    }
+
+    /**
+     * Number of pending requests in a lab session's queue.
+     */
+    public synchronized int queueLength(String labSessionId) {
+        OrderStatisticTree<QueueKey> queue = queuesBySession.get(sessionKey(labSessionId));
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Load pending requests from the warmed queue index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public synchronized void warmUp() {
+        rebuild();
+        log.info("Queue position service loaded {} pending requests", entriesById.size());
+    }
+
+    /**
+     * Rebuild the position trees from the queue index, after it has been reconciled with the
+     * database. Positions last pushed for requests still queued are kept, so students are only
+     * told about positions that actually moved.
+     */
+    public synchronized void rebuild() {
+        queuesBySession.keySet().forEach(dirtySessions::add);
+        queuesBySession.clear();
+        entriesById.clear();
+        for (RequestResponse request : pendingQueueIndex.list(RequestStatus.PENDING)) {
+            add(request);
+        }
+        lastPushedPositions.keySet().retainAll(entriesById.keySet());
+    }
+
+    /**
+     * Track pending requests as they are created, claimed, re-prioritised or removed.
+     */
+    @EventListener
+    public synchronized void onAppliedChange(AppliedRequestChange change) {
+        RequestLifecycleEvent event = change.event();
+        RequestResponse request = event.request();
+        remove(request.getId());
+        if (!event.isDeleted() && request.getStatus() == RequestStatus.PENDING) {
+            add(request);
+        }
+    }
+
+    /**
+     * Push position updates for sessions whose queue changed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${lms.queue.position-push-interval-ms:1000}")
+    public void pushPositionUpdates() {
+        if (dirtySessions.isEmpty()) {
+            return;
+        }
+
+        List<WebSocketPush> pushes = new ArrayList<>();
+        synchronized (this) {
+            for (String sessionKey : List.copyOf(dirtySessions)) {
+                dirtySessions.remove(sessionKey);
+                collectChangedPositions(sessionKey, pushes);
+            }
+        }
+
+        for (WebSocketPush push : pushes) {
+            try {
+                messagingTemplate.convertAndSendToUser(push.username(), "/queue/position",
+                        WebSocketEvent.of("queue:position", push.position()));
+            } catch (Exception e) {
+                log.error("Error pushing queue position to {}: {}", push.username(), e.getMessage());
+            }
+        }
+        log.debug("Pushed {} queue position updates", pushes.size());
+    }
+
+    private void collectChangedPositions(String sessionKey, List<WebSocketPush> pushes) {
+        OrderStatisticTree<QueueKey> queue = queuesBySession.get(sessionKey);
+        if (queue == null) {
+            return;
+        }
+
+        int queueLength = queue.size();
+        queue.forEachRanked((key, rank) -> {
+            int position = rank + 1;
+            Integer previous = lastPushedPositions.put(key.id(), position);
+            Entry entry = entriesById.get(key.id());
+            if ((previous == null || previous != position) && entry.studentUsername() != null) {
+                pushes.add(new WebSocketPush(entry.studentUsername(), QueuePositionResponse.builder()
+                        .requestId(key.id())
+                        .labSessionId(entry.labSessionId())
+                        .status(RequestStatus.PENDING)
+                        .position(position)
+                        .queueLength(queueLength)
+                        .build()));
+            }
+        });
+    }
+
+    private void add(RequestResponse request) {
+        String sessionKey = sessionKey(request.getLabSessionId());
+        QueueKey key = QueueKey.of(request);
+        queuesBySession.computeIfAbsent(sessionKey, id -> new OrderStatisticTree<>()).add(key);
+        entriesById.put(request.getId(), new Entry(key, request.getLabSessionId(), request.getStudentUsername()));
+        dirtySessions.add(sessionKey);
+    }
+
+    private void remove(String requestId) {
+        Entry entry = entriesById.remove(requestId);
+        if (entry == null) {
+            return;
+        }
+        lastPushedPositions.remove(requestId);
+        String sessionKey = sessionKey(entry.labSessionId());
+        OrderStatisticTree<QueueKey> queue = queuesBySession.get(sessionKey);
+        queue.remove(entry.key());
+        if (queue.isEmpty()) {
+            queuesBySession.remove(sessionKey);
+        }
+        dirtySessions.add(sessionKey);
+    }
+
+    private static String sessionKey(String labSessionId) {
+        return labSessionId != null ? labSessionId : "";
+    }
+}
@@ -0,0 +1,141 @@
+package com.lms.service;
+
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounces drag-and-drop queue reorders per TA.
+ *
+ * Moves are buffered until the TA has been idle for the debounce window (or the maximum
+ * wait has passed), then applied together in one transaction per lab session with a
+ * single broadcast. Repeated moves of the same request collapse into the last one.
+ */
+@Service
+@Slf4j
+public class QueueReorderService {
+
+    private final RequestService requestService;
+    private final PendingQueueIndex pendingQueueIndex;
+    private final RequestMutationPipeline mutationPipeline;
+    private final long debounceMs;
+    private final long maxWaitMs;
+
+    private final Map<String, PendingMoves> pendingByTa = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "queue-reorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public QueueReorderService(RequestService requestService,
+                               PendingQueueIndex pendingQueueIndex,
+                               RequestMutationPipeline mutationPipeline,
+                               @Value("${lms.queue.reorder-debounce-ms:300}") long debounceMs,
+                               @Value("${lms.queue.reorder-max-wait-ms:2000}") long maxWaitMs) {
+        this.requestService = requestService;
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.mutationPipeline = mutationPipeline;
+        this.debounceMs = debounceMs;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Queue a move for a TA. The move is applied asynchronously and announced
+     * with a "queue:reordered" WebSocket event.
+     */
+    public void submit(String taUsername, QueueMove move) {
+        validate(move);
+
+        synchronized (pendingByTa) {
+            PendingMoves pending = pendingByTa.computeIfAbsent(taUsername, k -> new PendingMoves());
+            // Re-insert so the batch is applied in the order of each request's last move
+            pending.moves.remove(move.requestId());
+            pending.moves.put(move.requestId(), move);
+
+            if (pending.flush != null) {
+                pending.flush.cancel(false);
+            }
+            long remaining = pending.firstQueuedAt + maxWaitMs - System.currentTimeMillis();
+            long delay = Math.max(0, Math.min(debounceMs, remaining));
+            pending.flush = scheduler.schedule(() -> flush(taUsername), delay, TimeUnit.MILLISECONDS);
+        }
+        log.debug("Queue move of request {} buffered for TA: {}", move.requestId(), taUsername);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Reject moves that can already be seen to be invalid, so the client gets an error
+     * instead of a silently skipped move.
+     */
+    private void validate(QueueMove move) {
+        if (!pendingQueueIndex.isReady()) {
+            return;
+        }
+        RequestResponse request = pendingQueueIndex.get(move.requestId());
+        RequestResponse target = pendingQueueIndex.get(move.targetId());
+        if (request == null || target == null
+                || request.getStatus() != RequestStatus.PENDING || target.getStatus() != RequestStatus.PENDING) {
+            throw new IllegalStateException("Only pending requests can be reordered");
+        }
+        if (!Objects.equals(request.getLabSessionId(), target.getLabSessionId())) {
+            throw new IllegalArgumentException("Requests belong to different lab sessions");
+        }
+    }
+
+    private void flush(String taUsername) {
+        List<QueueMove> moves;
+        synchronized (pendingByTa) {
+            PendingMoves pending = pendingByTa.remove(taUsername);
+            if (pending == null) {
+                return;
+            }
+            moves = new ArrayList<>(pending.moves.values());
+        }
+
+        // Apply each lab session's moves in its own lane
+        Map<String, List<QueueMove>> bySession = new LinkedHashMap<>();
+        for (QueueMove move : moves) {
+            RequestResponse indexed = pendingQueueIndex.get(move.requestId());
+            String labSessionId = indexed != null ? indexed.getLabSessionId() : null;
+            bySession.computeIfAbsent(labSessionId, k -> new ArrayList<>()).add(move);
+        }
+
+        bySession.forEach((labSessionId, sessionMoves) -> {
+            try {
+                ReadWriteRoutingDataSource.actingAs(taUsername, () ->
+                        mutationPipeline.execute(labSessionId, () -> requestService.applyQueueMoves(sessionMoves)));
+            } catch (Exception e) {
+                log.error("Applying {} queue moves for TA {} failed: {}", sessionMoves.size(), taUsername, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Moves buffered for one TA and the scheduled flush.
+     */
+    private static final class PendingMoves {
+        private final Map<String, QueueMove> moves = new LinkedHashMap<>();
+        private final long firstQueuedAt = System.currentTimeMillis();
+        private ScheduledFuture<?> flush;
+    }
+}
@@ -0,0 +1,350 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.RequestRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Local durable copy of the in-memory queue state: a periodic snapshot of the open requests
+ * (ordering and assignments) and their deadlines, plus an append-only journal of lifecycle
+ * changes since that snapshot. Both are memory-mapped files holding length-prefixed JSON.
+ *
+ * At startup the state is rebuilt from snapshot and journal, and the database is only asked
+ * for the ID and version of open requests; entries whose version differs are re-read by ID.
+ * Journal appends are not fsynced individually, so they survive a process crash but may be
+ * lost on a machine crash; verification against the database covers that case.
+ */
+@Component
+@Slf4j
+public class QueueStateStore {
+
+    private static final String SNAPSHOT_FILE = "queue-snapshot.bin";
+    private static final String JOURNAL_FILE = "queue-journal.bin";
+    private static final int FORMAT = 1;
+    private static final int VERIFY_BATCH_SIZE = 500;
+
+    /**
+     * A deadline of an open request, as armed on the deadline wheel.
+     */
+    public record SavedDeadline(String requestId, String action, String taId, int escalation, long deadlineMs) {
+    }
+
+    private record Snapshot(int format, long takenAt, List<RequestResponse> requests, List<SavedDeadline> deadlines) {
+    }
+
+    private record JournalRecord(String type, RequestResponse request) {
+    }
+
+    private final PendingQueueIndex pendingQueueIndex;
+    private final RequestRepository requestRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final int journalInitialBytes;
+
+    private final Object lock = new Object();
+    private FileChannel journalChannel;
+    private MappedByteBuffer journal;
+    private int journalPosition;
+    private List<SavedDeadline> restoredDeadlines = List.of();
+    private Supplier<List<SavedDeadline>> deadlineSource = List::of;
+
+    public QueueStateStore(PendingQueueIndex pendingQueueIndex,
+                           RequestRepository requestRepository,
+                           ObjectMapper objectMapper,
+                           @Value("${lms.queue.state.enabled:false}") boolean enabled,
+                           @Value("${lms.queue.state.directory:./data/queue-state}") String directory,
+                           @Value("${lms.queue.state.journal-initial-bytes:4194304}") int journalInitialBytes) {
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.requestRepository = requestRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.journalInitialBytes = journalInitialBytes;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            journalChannel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapJournal((int) Math.max(journalInitialBytes, journalChannel.size()));
+            journalPosition = scanJournal(null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open queue state journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Register the supplier of armed deadlines included in snapshots.
+     */
+    public void setDeadlineSource(Supplier<List<SavedDeadline>> deadlineSource) {
+        this.deadlineSource = deadlineSource;
+    }
+
+    /**
+     * Deadlines restored with the last snapshot, for requests that are still open.
+     */
+    public List<SavedDeadline> restoredDeadlines() {
+        return restoredDeadlines;
+    }
+
+    /**
+     * Rebuild the open requests from snapshot and journal, verified against database versions.
+     * Empty if persistence is disabled or no usable snapshot exists.
+     */
+    public Optional<List<RequestResponse>> restore() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshotPath)) {
+            return Optional.empty();
+        }
+
+        long start = System.currentTimeMillis();
+        Snapshot snapshot;
+        Map<String, RequestResponse> restored = new LinkedHashMap<>();
+        try {
+            snapshot = readSnapshot(snapshotPath);
+            if (snapshot.format() != FORMAT) {
+                log.warn("Ignoring queue snapshot with unknown format {}", snapshot.format());
+                return Optional.empty();
+            }
+            snapshot.requests().forEach(request -> restored.put(request.getId(), request));
+            Map<String, RequestResponse> closed = new HashMap<>();
+            synchronized (lock) {
+                scanJournal(record -> replay(restored, closed, record));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot read queue snapshot, loading from database: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        int replaced = verify(restored);
+        restoredDeadlines = snapshot.deadlines().stream()
+                .filter(deadline -> restored.containsKey(deadline.requestId()))
+                .toList();
+
+        log.info("Queue state restored in {} ms: {} open requests, {} re-read from database, {} deadlines",
+                System.currentTimeMillis() - start, restored.size(), replaced, restoredDeadlines.size());
+        return Optional.of(new ArrayList<>(restored.values()));
+    }
+
+    /**
+     * Journal request changes in the order the queue index applied them.
+     */
+    @EventListener
+    @Order(100)
+    public void onAppliedChange(AppliedRequestChange change) {
+        if (!enabled) {
+            return;
+        }
+        RequestLifecycleEvent event = change.event();
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(new JournalRecord(event.type(), event.request()));
+            synchronized (lock) {
+                append(bytes);
+            }
+        } catch (IOException e) {
+            log.error("Cannot journal {} of request {}: {}", event.type(), event.request().getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Write a snapshot of the queue index and deadlines, then reset the journal.
+     * The index is captured under the journal lock: changes journaled before are in the snapshot,
+     * changes journaled after are replayed on top of it (replays are idempotent).
+     */
+    @Scheduled(fixedDelayString = "${lms.queue.state.snapshot-interval-ms:30000}",
+            initialDelayString = "${lms.queue.state.snapshot-interval-ms:30000}")
+    public void snapshot() {
+        if (!enabled || !pendingQueueIndex.isReady()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            synchronized (lock) {
+                Snapshot snapshot = new Snapshot(FORMAT, start, pendingQueueIndex.snapshot(), deadlineSource.get());
+                writeSnapshot(objectMapper.writeValueAsBytes(snapshot));
+                resetJournal();
+                log.debug("Queue snapshot written in {} ms ({} open requests)",
+                        System.currentTimeMillis() - start, snapshot.requests().size());
+            }
+        } catch (IOException e) {
+            log.error("Cannot write queue snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        snapshot();
+        try {
+            journal.force();
+            journalChannel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close queue state journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replace restored entries whose version no longer matches the database and drop closed ones.
+     * Returns the number of entries re-read from the database.
+     */
+    private int verify(Map<String, RequestResponse> restored) {
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (RequestRepository.VersionView row : requestRepository.findVersionsByStatusIn(
+                List.of(RequestStatus.PENDING, RequestStatus.IN_PROGRESS))) {
+            versions.put(row.getId(), row.getVersion());
+        }
+
+        restored.keySet().retainAll(versions.keySet());
+        Set<String> stale = new HashSet<>();
+        versions.forEach((id, version) -> {
+            RequestResponse request = restored.get(id);
+            if (request == null || !Objects.equals(request.getVersion(), version)) {
+                stale.add(id);
+            }
+        });
+
+        List<String> ids = new ArrayList<>(stale);
+        for (int from = 0; from < ids.size(); from += VERIFY_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + VERIFY_BATCH_SIZE));
+            for (RequestResponse request : requestRepository.findResponsesByIdIn(batch)) {
+                if (PendingQueueIndex.isOpen(request.getStatus())) {
+                    restored.put(request.getId(), request);
+                } else {
+                    restored.remove(request.getId());
+                }
+            }
+        }
+        return stale.size();
+    }
+
+    /**
+     * Apply a journal record unless the request already has a newer state; {@code closed} keeps
+     * the last state of requests dropped so far, so an older record cannot reopen them.
+     */
+    private static void replay(Map<String, RequestResponse> restored, Map<String, RequestResponse> closed,
+            JournalRecord record) {
+        RequestResponse request = record.request();
+        boolean deleted = RequestLifecycleEvent.DELETED.equals(record.type());
+        RequestResponse current = restored.getOrDefault(request.getId(), closed.get(request.getId()));
+        if (current != null && (deleted ? PendingQueueIndex.isNewer(current, request)
+                : !PendingQueueIndex.isNewer(request, current))) {
+            return;
+        }
+        if (deleted || !PendingQueueIndex.isOpen(request.getStatus())) {
+            restored.remove(request.getId());
+            closed.put(request.getId(), request);
+        } else {
+            restored.put(request.getId(), request);
+            closed.remove(request.getId());
+        }
+    }
+
+    private Snapshot readSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] bytes = new byte[buffer.getInt(0)];
+            buffer.get(Integer.BYTES, bytes);
+            return objectMapper.readValue(bytes, Snapshot.class);
+        }
+    }
+
+    /**
+     * Write the snapshot next to the current one and atomically swap it in.
+     */
+    private void writeSnapshot(byte[] bytes) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Integer.BYTES + bytes.length);
+            buffer.putInt(0, bytes.length);
+            buffer.put(Integer.BYTES, bytes);
+            buffer.force();
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Append a record: payload and end marker first, then the length that makes it visible.
+     */
+    private void append(byte[] bytes) throws IOException {
+        int needed = journalPosition + 2 * Integer.BYTES + bytes.length;
+        if (needed > journal.capacity()) {
+            mapJournal(Math.max(journal.capacity() * 2, needed));
+        }
+        journal.put(journalPosition + Integer.BYTES, bytes);
+        journal.putInt(journalPosition + Integer.BYTES + bytes.length, 0);
+        journal.putInt(journalPosition, bytes.length);
+        journalPosition += Integer.BYTES + bytes.length;
+    }
+
+    private void resetJournal() {
+        journal.putInt(0, 0);
+        journal.force();
+        journalPosition = 0;
+    }
+
+    /**
+     * Walk the journal records and return the position after the last complete one.
+     * Records are only parsed when a consumer is given.
+     */
+    private int scanJournal(Consumer<JournalRecord> consumer) throws IOException {
+        int position = 0;
+        while (position + Integer.BYTES <= journal.capacity()) {
+            int length = journal.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > journal.capacity()) {
+                break;
+            }
+            if (consumer != null) {
+                byte[] bytes = new byte[length];
+                journal.get(position + Integer.BYTES, bytes);
+                consumer.accept(objectMapper.readValue(bytes, JournalRecord.class));
+            }
+            position += Integer.BYTES + length;
+        }
+        return position;
+    }
+
+    private void mapJournal(int capacity) throws IOException {
+        journal = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+}
@@ -1,13 +1,17 @@
 package com.lms.service;
 
+import com.lms.dto.ClusterReplyResponse;
+import com.lms.dto.CursorPage;
 import com.lms.dto.ReplyDto;
+import com.lms.dto.RequestResponse;
+import com.lms.dto.UserSnapshot;
 import com.lms.entity.Reply;
 import com.lms.entity.Request;
 import com.lms.entity.RequestStatus;
-import com.lms.entity.User;
+import com.lms.repository.ArchivedReplyRepository;
+import com.lms.repository.ArchivedRequestRepository;
 import com.lms.repository.ReplyRepository;
 import com.lms.repository.RequestRepository;
-import com.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -16,7 +20,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +38,12 @@ public class ReplyService {
 
     private final ReplyRepository replyRepository;
     private final RequestRepository requestRepository;
-    private final UserRepository userRepository;
+    private final ArchivedReplyRepository archivedReplyRepository;
+    private final ArchivedRequestRepository archivedRequestRepository;
+    private final UserDirectory userDirectory;
+    private final RequestService requestService;
+    private final RequestClusterIndex requestClusterIndex;
+    private final LargeTextStore largeTextStore;
 
     /**
      * Create a reply to a request (TA only).
@@ -42,7 +56,7 @@ public class ReplyService {
             throw new IllegalArgumentException("Reply message cannot be empty");
         }
 
-        User ta = userRepository.findByUsername(taUsername)
+        UserSnapshot ta = userDirectory.findByUsername(taUsername)
                 .orElseThrow(() -> new IllegalArgumentException("TA not found: " + taUsername));
 
         Request request = requestRepository.findById(requestId)
@@ -58,16 +72,97 @@ public class ReplyService {
             throw new IllegalStateException("You can only reply to requests assigned to you");
         }
 
+        String text = message.trim();
         Reply reply = Reply.builder()
                 .requestId(requestId)
                 .taId(ta.getId())
-                .message(message.trim())
+                .message(LargeTextStore.preview(text))
+                .messageTruncated(LargeTextStore.isLong(text))
                 .build();
 
         reply = replyRepository.save(reply);
+        largeTextStore.saveReplyBodies(Map.of(reply.getId(), text));
+        requestService.recordReply(requestId, reply.getCreatedAt());
         log.info("Reply created for request {} by TA: {}", requestId, taUsername);
 
-        return mapToDto(reply, ta.getUsername());
+        ReplyDto dto = mapToDto(reply, ta.getUsername());
+        dto.setMessage(text);
+        return dto;
+    }
+
+    /**
+     * Reply to every open request of a near-duplicate cluster and resolve them together (TA only).
+     * The replies are written in one batched insert, counted and resolved in one UPDATE each.
+     * Requests claimed by another TA are skipped, like in {@link #createReply}.
+     */
+    @Transactional
+    public ClusterReplyResponse replyToCluster(String clusterId, String message, String taUsername) {
+        if (message == null || message.trim().isEmpty()) {
+            throw new IllegalArgumentException("Reply message cannot be empty");
+        }
+
+        UserSnapshot ta = userDirectory.findByUsername(taUsername)
+                .orElseThrow(() -> new IllegalArgumentException("TA not found: " + taUsername));
+
+        List<String> members = requestClusterIndex.members(clusterId);
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Cluster not found: " + clusterId);
+        }
+
+        // One SELECT for all members, then the same rules as a single reply
+        Map<String, Request> requests = requestRepository.findAllById(members).stream()
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
+        Map<String, RequestStatus> eligible = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+        for (String requestId : members) {
+            Request request = requests.get(requestId);
+            boolean heldByTa = request != null && request.getStatus() == RequestStatus.IN_PROGRESS
+                    && ta.getId().equals(request.getAssignedTo());
+            boolean answerable = request != null && (request.getStatus() == RequestStatus.PENDING || heldByTa);
+            if (answerable) {
+                eligible.put(requestId, request.getStatus());
+            } else {
+                skipped.add(requestId);
+            }
+        }
+        if (eligible.isEmpty()) {
+            throw new IllegalStateException("No request in this cluster can be answered by you");
+        }
+
+        String text = message.trim();
+        List<Reply> rows = new ArrayList<>(eligible.size());
+        for (String requestId : eligible.keySet()) {
+            rows.add(Reply.builder()
+                    .requestId(requestId)
+                    .taId(ta.getId())
+                    .message(LargeTextStore.preview(text))
+                    .messageTruncated(LargeTextStore.isLong(text))
+                    .build());
+        }
+        // New entities with generated ids: persisted without lookups and inserted in JDBC batches
+        List<ReplyDto> replies = new ArrayList<>(eligible.size());
+        Map<String, String> bodies = new LinkedHashMap<>();
+        LocalDateTime repliedAt = null;
+        for (Reply reply : replyRepository.saveAll(rows)) {
+            bodies.put(reply.getId(), text);
+            ReplyDto dto = mapToDto(reply, ta.getUsername());
+            dto.setMessage(text);
+            replies.add(dto);
+            repliedAt = reply.getCreatedAt();
+        }
+        largeTextStore.saveReplyBodies(bodies);
+        requestRepository.recordReplies(eligible.keySet(), repliedAt);
+
+        List<RequestResponse> resolved = requestService.resolveRequests(eligible, ta.getId(), ta.getUsername());
+        log.info("Cluster {} answered by TA {}: {} replies, {} skipped", clusterId, taUsername,
+                replies.size(), skipped.size());
+
+        return ClusterReplyResponse.builder()
+                .clusterId(clusterId)
+                .replies(replies)
+                .resolvedRequestIds(resolved.stream().map(RequestResponse::getId).toList())
+                .skippedRequestIds(skipped)
+                .build();
     }
 
     /**
@@ -76,15 +171,12 @@ public class ReplyService {
      */
     @Transactional(readOnly = true)
     public List<ReplyDto> getRepliesByRequestId(String requestId) {
-        // Verify request exists
-        if (!requestRepository.existsById(requestId)) {
-            throw new IllegalArgumentException("Request not found: " + requestId);
-        }
+        boolean archived = isArchived(requestId);
 
-        List<Reply> replies = replyRepository.findByRequestIdOrderByCreatedAtAsc(requestId);
-        return replies.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        // TA usernames are joined in the projection query
+        return withFullMessages(archived
+                ? archivedReplyRepository.findDtosByRequestId(requestId)
+                : replyRepository.findDtosByRequestId(requestId));
     }
 
     /**
@@ -93,10 +185,7 @@ public class ReplyService {
      */
     @Transactional(readOnly = true)
     public Page<ReplyDto> getRepliesByRequestId(String requestId, int page, int size) {
-        // Verify request exists
-        if (!requestRepository.existsById(requestId)) {
-            throw new IllegalArgumentException("Request not found: " + requestId);
-        }
+        boolean archived = isArchived(requestId);
 
         // Validate pagination parameters
         if (page < 0) {
@@ -107,20 +196,76 @@ public class ReplyService {
         }
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Reply> replies = replyRepository.findByRequestIdOrderByCreatedAtDesc(requestId, pageable);
-        return replies.map(this::mapToDto);
+        Page<ReplyDto> replies = archived
+                ? archivedReplyRepository.findDtosByRequestId(requestId, pageable)
+                : replyRepository.findDtosByRequestId(requestId, pageable);
+        withFullMessages(replies.getContent());
+        return replies;
     }
 
     /**
-     * Map Reply entity to ReplyDto.
-     * Safely handles missing TA information.
+     * Get replies newest first using keyset pagination (no count query).
      */
-    private ReplyDto mapToDto(Reply reply) {
-        String taUsername = userRepository.findById(reply.getTaId())
-                .map(User::getUsername)
-                .orElse("Unknown TA");
+    @Transactional(readOnly = true)
+    public CursorPage<ReplyDto> getRepliesByRequestIdByCursor(String requestId, String cursor, int size) {
+        boolean archived = isArchived(requestId);
+        if (size <= 0 || size > 100) {
+            throw new IllegalArgumentException("Page size must be between 1 and 100");
+        }
 
-        return mapToDto(reply, taUsername);
+        PageCursor before = PageCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ReplyDto> rows;
+        if (archived) {
+            rows = before == null
+                    ? archivedReplyRepository.seekDtosByRequestId(requestId, limit)
+                    : archivedReplyRepository.seekDtosByRequestIdBefore(requestId, before.createdAt(), before.id(), limit);
+        } else {
+            rows = before == null
+                    ? replyRepository.seekDtosByRequestId(requestId, limit)
+                    : replyRepository.seekDtosByRequestIdBefore(requestId, before.createdAt(), before.id(), limit);
+        }
+
+        return PageCursor.toPage(withFullMessages(rows), size, r -> new PageCursor(null, r.getCreatedAt(), r.getId()));
+    }
+
+    /**
+     * Whether a request's replies are read from the archive; fails if the request is in neither table.
+     */
+    private boolean isArchived(String requestId) {
+        if (requestRepository.existsById(requestId)) {
+            return false;
+        }
+        if (archivedRequestRepository.existsById(requestId)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Request not found: " + requestId);
+    }
+
+    /**
+     * Replace truncated message previews with the full text from the side table (live and archived replies alike).
+     * Pages without a truncated reply need no extra query.
+     */
+    private List<ReplyDto> withFullMessages(List<ReplyDto> replies) {
+        List<String> candidates = new ArrayList<>();
+        for (ReplyDto reply : replies) {
+            if (reply.isMessageTruncated()) {
+                candidates.add(reply.getId());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return replies;
+        }
+
+        Map<String, String> bodies = largeTextStore.findReplyBodies(candidates);
+        for (ReplyDto reply : replies) {
+            String body = bodies.get(reply.getId());
+            if (body != null) {
+                reply.setMessage(body);
+                reply.setMessageTruncated(false);
+            }
+        }
+        return replies;
     }
 
     /**
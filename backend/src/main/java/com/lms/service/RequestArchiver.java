@@ -0,0 +1,138 @@
+package com.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scheduled job moving finished requests out of the hot tables.
+ *
+ * RESOLVED and CANCELLED requests created more than min-age-days ago are copied, with their
+ * replies, into requests_archive / replies_archive and deleted from requests / replies. Each
+ * batch is its own short transaction: the batch rows are picked with FOR UPDATE SKIP LOCKED,
+ * so live traffic and other instances are never blocked for longer than one batch.
+ *
+ * Long descriptions and messages stay in request_bodies / reply_bodies: archived rows keep their
+ * ids, so the archive reads in RequestService and ReplyService resolve their full text as before.
+ */
+@Service
+@Slf4j
+public class RequestArchiver {
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id FROM requests WHERE status IN ('RESOLVED', 'CANCELLED') AND created_at < ? "
+                    + "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String ARCHIVE_REPLIES_SQL =
+            "INSERT INTO replies_archive (id, request_id, ta_id, message, message_truncated, created_at, archived_at) "
+                    + "SELECT id, request_id, ta_id, message, message_truncated, created_at, ? "
+                    + "FROM replies WHERE request_id IN (%s)";
+    private static final String ARCHIVE_REQUESTS_SQL =
+            "INSERT INTO requests_archive (id, title, description, description_truncated, student_id, "
+                    + "student_username, lab_session_id, status, priority, assigned_to, assigned_to_username, assigned_at, "
+                    + "created_at, resolved_at, metadata, version, reply_count, last_reply_at, archived_at) "
+                    + "SELECT id, title, description, description_truncated, student_id, "
+                    + "student_username, lab_session_id, status, priority, assigned_to, assigned_to_username, assigned_at, "
+                    + "created_at, resolved_at, metadata, version, reply_count, last_reply_at, ? "
+                    + "FROM requests WHERE id IN (%s)";
+    private static final String DELETE_REPLIES_SQL = "DELETE FROM replies WHERE request_id IN (%s)";
+    private static final String DELETE_REQUESTS_SQL = "DELETE FROM requests WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long minAgeDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMs;
+
+    public RequestArchiver(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${lms.archive.enabled:false}") boolean enabled,
+                           @Value("${lms.archive.min-age-days:180}") long minAgeDays,
+                           @Value("${lms.archive.batch-size:500}") int batchSize,
+                           @Value("${lms.archive.max-batches-per-run:200}") int maxBatchesPerRun,
+                           @Value("${lms.archive.pause-ms:50}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMs = pauseMs;
+    }
+
+    /**
+     * Archive finished requests older than the configured age, one bounded batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${lms.archive.interval-ms:3600000}",
+            initialDelayString = "${lms.archive.initial-delay-ms:300000}")
+    public void archiveFinishedRequests() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved;
+            try {
+                moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            } catch (RuntimeException e) {
+                log.error("Request archival batch failed, {} requests archived so far: {}", archived, e.getMessage());
+                return;
+            }
+            archived += moved;
+            if (moved < batchSize || !pause()) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} requests created before {}", archived, cutoff);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<byte[]> ids = jdbcTemplate.query(SELECT_BATCH_SQL,
+                (rs, rowNum) -> rs.getBytes(1), Timestamp.valueOf(cutoff), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> withTimestamp = new ArrayList<>(ids.size() + 1);
+        withTimestamp.add(now);
+        withTimestamp.addAll(ids);
+        Object[] idArgs = ids.toArray();
+
+        jdbcTemplate.update(ARCHIVE_REPLIES_SQL.formatted(placeholders), withTimestamp.toArray());
+        int copied = jdbcTemplate.update(ARCHIVE_REQUESTS_SQL.formatted(placeholders), withTimestamp.toArray());
+        jdbcTemplate.update(DELETE_REPLIES_SQL.formatted(placeholders), idArgs);
+        int deleted = jdbcTemplate.update(DELETE_REQUESTS_SQL.formatted(placeholders), idArgs);
+        if (copied != deleted || deleted != ids.size()) {
+            throw new IllegalStateException("Archived " + copied + " but deleted " + deleted
+                    + " of " + ids.size() + " requests");
+        }
+        return deleted;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.lms.service;
+
+import com.lms.dto.RequestClusterResponse;
+import com.lms.dto.RequestResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Incremental near-duplicate index over open requests (title and description).
+ *
+ * Text is reduced to character shingles, summarised by a MinHash signature and bucketed with
+ * locality-sensitive hashing (bands of signature rows), so only requests sharing a bucket are
+ * compared. A new request joins the cluster of its most similar open request in the same lab
+ * session when the estimated Jaccard similarity reaches the threshold, otherwise it starts its
+ * own cluster. Clusters keep their ID while they have members.
+ */
+@Component
+@Slf4j
+public class RequestClusterIndex {
+
+    private static final int SHINGLE_LENGTH = 4;
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int SIGNATURE_LENGTH = BANDS * ROWS_PER_BAND;
+    private static final int MAX_TEXT_LENGTH = 2000;
+    private static final long[] SEEDS = new long[SIGNATURE_LENGTH];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_1AB5L);
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            SEEDS[i] = random.nextLong();
+        }
+    }
+
+    private record Entry(String requestId, String labSessionId, String title, long[] signature,
+                         int textHash, String clusterId) {
+    }
+
+    private final PendingQueueIndex pendingQueueIndex;
+    private final double threshold;
+
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final Map<Long, Set<String>> buckets = new HashMap<>();
+    private final Map<String, Set<String>> clusters = new HashMap<>();
+
+    public RequestClusterIndex(PendingQueueIndex pendingQueueIndex,
+                               @Value("${lms.clustering.similarity-threshold:0.6}") double threshold) {
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Index the open requests of the warmed queue index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public synchronized void warmUp() {
+        entriesById.clear();
+        buckets.clear();
+        clusters.clear();
+        for (RequestResponse request : pendingQueueIndex.snapshot()) {
+            add(request);
+        }
+        log.info("Request cluster index built: {} requests in {} clusters", entriesById.size(), clusters.size());
+    }
+
+    /**
+     * Add new requests, re-index edited ones and drop requests that are no longer open.
+     */
+    @EventListener
+    public synchronized void onAppliedChange(AppliedRequestChange change) {
+        RequestLifecycleEvent event = change.event();
+        RequestResponse request = event.request();
+        if (event.isDeleted() || !PendingQueueIndex.isOpen(request.getStatus())) {
+            remove(request.getId());
+            return;
+        }
+
+        Entry existing = entriesById.get(request.getId());
+        if (existing == null || existing.textHash() != textHash(request)) {
+            remove(request.getId());
+            add(request);
+        }
+    }
+
+    /**
+     * Cluster of an open request, or null if it is not indexed.
+     */
+    public synchronized String clusterOf(String requestId) {
+        Entry entry = entriesById.get(requestId);
+        return entry != null ? entry.clusterId() : null;
+    }
+
+    /**
+     * Open requests of a cluster, in arrival order.
+     */
+    public synchronized List<String> members(String clusterId) {
+        Set<String> members = clusters.get(clusterId);
+        return members != null ? List.copyOf(members) : List.of();
+    }
+
+    /**
+     * Clusters with at least {@code minSize} open requests, largest first.
+     */
+    public synchronized List<RequestClusterResponse> clusters(String labSessionId, int minSize) {
+        List<RequestClusterResponse> result = new ArrayList<>();
+        clusters.forEach((clusterId, members) -> {
+            if (members.size() < minSize) {
+                return;
+            }
+            Entry first = entriesById.get(members.iterator().next());
+            if (labSessionId != null && !labSessionId.equals(first.labSessionId())) {
+                return;
+            }
+            result.add(RequestClusterResponse.builder()
+                    .clusterId(clusterId)
+                    .labSessionId(first.labSessionId())
+                    .title(first.title())
+                    .size(members.size())
+                    .requestIds(List.copyOf(members))
+                    .build());
+        });
+        result.sort(Comparator.comparingInt(RequestClusterResponse::getSize).reversed());
+        return result;
+    }
+
+    private void add(RequestResponse request) {
+        long[] signature = signature(normalize(request));
+        Entry best = null;
+        double bestSimilarity = threshold;
+
+        Set<String> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<String> bucket = buckets.get(bandKey(band, signature));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        for (String candidateId : candidates) {
+            Entry candidate = entriesById.get(candidateId);
+            if (!Objects.equals(candidate.labSessionId(), request.getLabSessionId())) {
+                continue;
+            }
+            double similarity = similarity(signature, candidate.signature());
+            if (similarity >= bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+
+        String clusterId = best != null ? best.clusterId() : request.getId();
+        Entry entry = new Entry(request.getId(), request.getLabSessionId(), request.getTitle(),
+                signature, textHash(request), clusterId);
+        entriesById.put(request.getId(), entry);
+        clusters.computeIfAbsent(clusterId, k -> new LinkedHashSet<>()).add(request.getId());
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(band, signature), k -> new HashSet<>()).add(request.getId());
+        }
+    }
+
+    private void remove(String requestId) {
+        Entry entry = entriesById.remove(requestId);
+        if (entry == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(band, entry.signature());
+            Set<String> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(requestId) && bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+        Set<String> members = clusters.get(entry.clusterId());
+        if (members != null && members.remove(requestId) && members.isEmpty()) {
+            clusters.remove(entry.clusterId());
+        }
+    }
+
+    /**
+     * MinHash signature: for each seed, the minimum mixed hash over all shingles.
+     */
+    static long[] signature(String text) {
+        long[] signature = new long[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        if (text.length() < SHINGLE_LENGTH) {
+            text = String.format("%-" + SHINGLE_LENGTH + "s", text);
+        }
+        for (int i = 0; i + SHINGLE_LENGTH <= text.length(); i++) {
+            long shingle = text.substring(i, i + SHINGLE_LENGTH).hashCode();
+            for (int h = 0; h < SIGNATURE_LENGTH; h++) {
+                long value = mix(shingle ^ SEEDS[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity: the fraction of equal signature rows.
+     */
+    static double similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    private static long bandKey(int band, long[] signature) {
+        long hash = band;
+        for (int row = band * ROWS_PER_BAND; row < (band + 1) * ROWS_PER_BAND; row++) {
+            hash = mix(hash * 31 + signature[row]);
+        }
+        return hash;
+    }
+
+    private static String normalize(RequestResponse request) {
+        String text = (request.getTitle() + " " + Objects.requireNonNullElse(request.getDescription(), ""))
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+        return text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+
+    private static int textHash(RequestResponse request) {
+        return Objects.hash(request.getTitle(), request.getDescription());
+    }
+
+    /**
+     * 64-bit finalizer (SplitMix64) used as the hash family.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,275 @@
+package com.lms.service;
+
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory lifecycle deadlines for open requests, kept on a hashed timer wheel.
+ *
+ * A pending request is escalated each time it has waited escalate-after-ms, up to
+ * max-escalations times: it moves ahead of younger requests queued before it, unless a TA
+ * ranked it by hand (see RequestService#escalateRequest). An in-progress request whose TA has no WebSocket session
+ * left after release-after-ms goes back to PENDING. Each request has at most one deadline;
+ * arming and cancelling are O(1) and driven by lifecycle events, so no table is scanned.
+ * The wheel is rebuilt from the warmed queue index at startup.
+ */
+@Service
+@Slf4j
+public class RequestDeadlineScheduler {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private enum Action { ESCALATE, RELEASE }
+
+    private record Deadline(String requestId, Action action, String taId, int escalation) {
+    }
+
+    private final RequestService requestService;
+    private final PendingQueueIndex pendingQueueIndex;
+    private final TaPresenceRegistry presenceRegistry;
+    private final RequestMutationPipeline mutationPipeline;
+    private final QueueStateStore queueStateStore;
+    private final boolean enabled;
+    private final long escalateAfterMs;
+    private final int maxEscalations;
+    private final long releaseAfterMs;
+
+    private final HashedTimerWheel<Deadline> wheel;
+    private final Map<String, HashedTimerWheel.Timeout<Deadline>> armed = new HashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "request-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RequestDeadlineScheduler(RequestService requestService,
+                                    PendingQueueIndex pendingQueueIndex,
+                                    TaPresenceRegistry presenceRegistry,
+                                    RequestMutationPipeline mutationPipeline,
+                                    QueueStateStore queueStateStore,
+                                    @Value("${lms.deadlines.enabled:false}") boolean enabled,
+                                    @Value("${lms.deadlines.tick-ms:1000}") long tickMs,
+                                    @Value("${lms.deadlines.escalate-after-ms:600000}") long escalateAfterMs,
+                                    @Value("${lms.deadlines.max-escalations:3}") int maxEscalations,
+                                    @Value("${lms.deadlines.release-after-ms:300000}") long releaseAfterMs) {
+        this.requestService = requestService;
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.presenceRegistry = presenceRegistry;
+        this.mutationPipeline = mutationPipeline;
+        this.queueStateStore = queueStateStore;
+        this.enabled = enabled;
+        this.escalateAfterMs = escalateAfterMs;
+        this.maxEscalations = maxEscalations;
+        this.releaseAfterMs = releaseAfterMs;
+        this.wheel = new HashedTimerWheel<>(WHEEL_SIZE, tickMs, System.currentTimeMillis());
+        if (enabled) {
+            queueStateStore.setDeadlineSource(this::exportDeadlines);
+            ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rebuild deadlines from the warmed queue index.
+     * Escalations continue from the request's age, or exactly where they were if the queue state
+     * was restored from a snapshot; held requests get a full release grace period so TAs can
+     * reconnect after a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (wheel) {
+            armed.values().forEach(wheel::cancel);
+            armed.clear();
+            for (RequestResponse request : pendingQueueIndex.snapshot()) {
+                if (request.getStatus() == RequestStatus.PENDING) {
+                    long age = Math.max(0, now - toEpochMillis(request.getCreatedAt()));
+                    int escalation = (int) Math.min(Integer.MAX_VALUE, age / escalateAfterMs + 1);
+                    if (escalation <= maxEscalations) {
+                        arm(new Deadline(request.getId(), Action.ESCALATE, null, escalation),
+                                toEpochMillis(request.getCreatedAt()) + escalation * escalateAfterMs);
+                    }
+                } else if (request.getAssignedTo() != null) {
+                    arm(new Deadline(request.getId(), Action.RELEASE, request.getAssignedTo(), 0), now + releaseAfterMs);
+                }
+            }
+
+            for (QueueStateStore.SavedDeadline saved : queueStateStore.restoredDeadlines()) {
+                RequestResponse request = pendingQueueIndex.get(saved.requestId());
+                if (Action.ESCALATE.name().equals(saved.action())
+                        && request != null && request.getStatus() == RequestStatus.PENDING) {
+                    arm(new Deadline(saved.requestId(), Action.ESCALATE, null, saved.escalation()), saved.deadlineMs());
+                }
+            }
+        }
+        log.info("Request deadline wheel rebuilt with {} deadlines", armed.size());
+    }
+
+    /**
+     * Arm, replace or cancel a request's deadline when its state changes.
+     */
+    @EventListener
+    public void onAppliedChange(AppliedRequestChange change) {
+        if (!enabled) {
+            return;
+        }
+        RequestLifecycleEvent event = change.event();
+        RequestResponse request = event.request();
+        long now = System.currentTimeMillis();
+
+        synchronized (wheel) {
+            if (event.isDeleted() || !PendingQueueIndex.isOpen(request.getStatus())) {
+                disarm(request.getId());
+            } else if (request.getStatus() == RequestStatus.PENDING && event.previousStatus() != RequestStatus.PENDING) {
+                // Newly created or released back to the queue
+                arm(new Deadline(request.getId(), Action.ESCALATE, null, 1), now + escalateAfterMs);
+            } else if (request.getStatus() == RequestStatus.IN_PROGRESS
+                    && event.previousStatus() != RequestStatus.IN_PROGRESS) {
+                arm(new Deadline(request.getId(), Action.RELEASE, request.getAssignedTo(), 0), now + releaseAfterMs);
+            }
+        }
+    }
+
+    /**
+     * A TA losing its last session starts the release grace period of the requests it holds.
+     */
+    @EventListener
+    @Order(10)
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + releaseAfterMs;
+        synchronized (wheel) {
+            for (RequestResponse request : pendingQueueIndex.list(RequestStatus.IN_PROGRESS)) {
+                String taId = request.getAssignedTo();
+                if (taId != null && !armed.containsKey(request.getId()) && !presenceRegistry.isOnline(taId)) {
+                    arm(new Deadline(request.getId(), Action.RELEASE, taId, 0), deadline);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of armed deadlines.
+     */
+    public int size() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Armed deadlines, for queue state snapshots.
+     */
+    public List<QueueStateStore.SavedDeadline> exportDeadlines() {
+        synchronized (wheel) {
+            return armed.values().stream()
+                    .map(timeout -> new QueueStateStore.SavedDeadline(timeout.task.requestId(),
+                            timeout.task.action().name(), timeout.task.taId(), timeout.task.escalation(),
+                            timeout.deadline))
+                    .toList();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    /**
+     * Fire every deadline due by {@code nowMs}.
+     */
+    void tick(long nowMs) {
+        List<Deadline> expired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(nowMs, deadline -> {
+                armed.remove(deadline.requestId());
+                expired.add(deadline);
+            });
+        }
+
+        // Fired outside the lock: the resulting lifecycle events re-arm deadlines
+        for (Deadline deadline : expired) {
+            try {
+                fire(deadline);
+            } catch (Exception e) {
+                log.error("Deadline {} of request {} failed: {}", deadline.action(), deadline.requestId(), e.getMessage());
+            }
+        }
+    }
+
+    private void fire(Deadline deadline) {
+        String requestId = deadline.requestId();
+        // On behalf of the student, whose request view changes
+        RequestResponse owned = pendingQueueIndex.get(requestId);
+        String studentUsername = owned != null ? owned.getStudentUsername() : null;
+        switch (deadline.action()) {
+            case ESCALATE -> {
+                ReadWriteRoutingDataSource.actingAs(studentUsername, () -> mutationPipeline.executeForRequest(
+                        requestId, () -> requestService.escalateRequest(requestId)));
+                if (deadline.escalation() < maxEscalations) {
+                    synchronized (wheel) {
+                        // Only re-arm if the request is still waiting and nothing replaced this deadline
+                        RequestResponse indexed = pendingQueueIndex.get(requestId);
+                        if (indexed != null && indexed.getStatus() == RequestStatus.PENDING
+                                && !armed.containsKey(requestId)) {
+                            arm(new Deadline(requestId, Action.ESCALATE, null, deadline.escalation() + 1),
+                                    System.currentTimeMillis() + escalateAfterMs);
+                        }
+                    }
+                }
+            }
+            case RELEASE -> {
+                // Disarmed while the TA is online; a later disconnect re-arms it
+                if (!presenceRegistry.isOnline(deadline.taId())) {
+                    ReadWriteRoutingDataSource.actingAs(studentUsername, () -> mutationPipeline.executeForRequest(
+                            requestId, RequestStatus.PENDING,
+                            () -> requestService.releaseRequest(requestId, deadline.taId())));
+                }
+            }
+        }
+    }
+
+    private void arm(Deadline deadline, long deadlineMs) {
+        disarm(deadline.requestId());
+        armed.put(deadline.requestId(), wheel.schedule(deadline, deadlineMs));
+    }
+
+    private void disarm(String requestId) {
+        HashedTimerWheel.Timeout<Deadline> timeout = armed.remove(requestId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,31 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+
+/**
+ * Application event published by RequestService for every request state change.
+ * In-memory queue structures listen to it after the surrounding transaction commits.
+ *
+ * @param type               event type, same as the WebSocket event type (e.g. "request:assigned")
+ * @param request            request state after the change
+ * @param previousStatus     status before the change, null for newly created requests
+ * @param previousAssignedTo assigned TA before the change, null if none
+ */
+public record RequestLifecycleEvent(
+        String type,
+        RequestResponse request,
+        RequestStatus previousStatus,
+        String previousAssignedTo) {
+
+    public static final String CREATED = "request:created";
+    public static final String ASSIGNED = "request:assigned";
+    public static final String RESOLVED = "request:resolved";
+    public static final String UPDATED = "request:updated";
+    public static final String CANCELLED = "request:cancelled";
+    public static final String DELETED = "request:deleted";
+
+    public boolean isDeleted() {
+        return DELETED.equals(type);
+    }
+}
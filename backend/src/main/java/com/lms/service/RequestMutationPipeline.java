@@ -0,0 +1,387 @@
+package com.lms.service;
+
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.LabSessionStatus;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.RequestRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Optional single-writer pipeline for request lifecycle mutations.
+ *
+ * Each open lab session gets a lane: a bounded ring buffer drained by one writer thread,
+ * so mutations of the same session never race each other on @Version. Lanes are only
+ * created for sessions that exist and are open, and are retired once their session closes;
+ * mutations of unknown or closed sessions run inline and fail their own validation.
+ *
+ * The writer group-commits everything queued (up to max-batch-size) in one transaction.
+ * Status transitions are checked against the queue index first: a transition that is
+ * already invalid fails without touching the batch, and a second mutation of a request
+ * starts a new group so it is checked against committed state. If a group still fails,
+ * its mutations are replayed one per transaction so only the invalid one fails.
+ * Lifecycle and WebSocket events are emitted after commit, in commit order.
+ *
+ * A mutation that times out while still queued is cancelled and never runs, so the caller
+ * can safely retry; one that already started is waited for. Mutations run on behalf of the user
+ * who submitted them, so their writes keep that user's reads on the primary.
+ *
+ * When disabled, mutations run inline on the calling thread.
+ */
+@Service
+@Slf4j
+public class RequestMutationPipeline {
+
+    private static final ThreadLocal<Boolean> IN_WRITER = ThreadLocal.withInitial(() -> false);
+    private static final long RETIRE_POLL_MS = 500;
+
+    private final TransactionTemplate transactionTemplate;
+    private final PendingQueueIndex pendingQueueIndex;
+    private final RequestRepository requestRepository;
+    private final LabSessionRepository labSessionRepository;
+    private final boolean enabled;
+    private final int laneCapacity;
+    private final int maxBatchSize;
+    private final long timeoutMs;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public RequestMutationPipeline(PlatformTransactionManager transactionManager,
+                                   PendingQueueIndex pendingQueueIndex,
+                                   RequestRepository requestRepository,
+                                   LabSessionRepository labSessionRepository,
+                                   @Value("${lms.pipeline.enabled:false}") boolean enabled,
+                                   @Value("${lms.pipeline.lane-capacity:1024}") int laneCapacity,
+                                   @Value("${lms.pipeline.max-batch-size:64}") int maxBatchSize,
+                                   @Value("${lms.pipeline.timeout-ms:10000}") long timeoutMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.requestRepository = requestRepository;
+        this.labSessionRepository = labSessionRepository;
+        this.enabled = enabled;
+        this.laneCapacity = laneCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Run a mutation in the lane of a lab session and wait for its committed result.
+     */
+    public <T> T execute(String labSessionId, Supplier<T> mutation) {
+        return submit(labSessionId, new Mutation<>(null, null, mutation));
+    }
+
+    /**
+     * Run a mutation of an existing request in its lab session's lane.
+     */
+    public <T> T executeForRequest(String requestId, Supplier<T> mutation) {
+        return executeForRequest(requestId, null, mutation);
+    }
+
+    /**
+     * Run a mutation that moves an existing request to the target status in its lab session's lane.
+     * The transition is pre-validated before the mutation joins a group commit.
+     */
+    public <T> T executeForRequest(String requestId, RequestStatus target, Supplier<T> mutation) {
+        if (!enabled || IN_WRITER.get()) {
+            return mutation.get();
+        }
+        return submit(findLabSessionId(requestId), new Mutation<>(requestId, target, mutation));
+    }
+
+    /**
+     * Run a mutation without result of an existing request in its lab session's lane.
+     */
+    public void executeForRequest(String requestId, Runnable mutation) {
+        executeForRequest(requestId, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Retire the lane of a closed lab session: it accepts nothing more and its writer
+     * stops once the mutations already queued are committed.
+     */
+    public void closeLane(String labSessionId) {
+        synchronized (lanes) {
+            Lane lane = lanes.remove(laneKey(labSessionId));
+            if (lane != null) {
+                lane.retire();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.writer.interrupt());
+    }
+
+    private <T> T submit(String labSessionId, Mutation<T> mutation) {
+        if (!enabled || IN_WRITER.get()) {
+            return mutation.work.get();
+        }
+
+        while (true) {
+            Lane lane = laneFor(labSessionId);
+            if (lane == null) {
+                // Unknown or closed session: nothing to serialise, the mutation rejects it itself
+                return mutation.work.get();
+            }
+            if (lane.offer(mutation)) {
+                return mutation.await(timeoutMs, lane);
+            }
+            if (!lane.isRetired()) {
+                throw new IllegalStateException("Request queue is busy, please retry");
+            }
+            // The session closed between lookup and offer; look it up again
+        }
+    }
+
+    /**
+     * The lane of a lab session, created on first use only if the session exists and is open.
+     * Creation and retirement share a lock, so a lane is never created for a session whose
+     * close has already committed.
+     */
+    private Lane laneFor(String labSessionId) {
+        String key = laneKey(labSessionId);
+        Lane lane = lanes.get(key);
+        if (lane != null) {
+            return lane;
+        }
+        synchronized (lanes) {
+            lane = lanes.get(key);
+            if (lane == null && isOpen(labSessionId)) {
+                lane = new Lane(key);
+                lanes.put(key, lane);
+            }
+            return lane;
+        }
+    }
+
+    private boolean isOpen(String labSessionId) {
+        return labSessionId == null || labSessionRepository.findStatusById(labSessionId)
+                .map(status -> status == LabSessionStatus.OPEN)
+                .orElse(false);
+    }
+
+    private String findLabSessionId(String requestId) {
+        RequestResponse indexed = pendingQueueIndex.get(requestId);
+        if (indexed != null) {
+            return indexed.getLabSessionId();
+        }
+        return requestRepository.findLabSessionIdById(requestId).orElse(null);
+    }
+
+    /**
+     * Commit a drained batch as a sequence of groups, in queue order.
+     */
+    private void commit(List<Mutation<?>> batch) {
+        List<Mutation<?>> claimed = batch.stream().filter(Mutation::claim).toList();
+        int from = 0;
+        while (from < claimed.size()) {
+            int to = nextGroupEnd(claimed, from);
+            commitGroup(claimed.subList(from, to).stream().filter(mutation -> !mutation.isDone()).toList());
+            from = to;
+        }
+    }
+
+    /**
+     * Pre-validate status transitions against the queue index and return where the next group ends.
+     * A group holds at most one mutation per request, so every transition in it is checked against
+     * committed state; transitions that are already invalid fail here instead of breaking the group.
+     * After a mutation without a request (create, close, reorder) the index may be stale, so later
+     * mutations of the group are left to the services to validate.
+     */
+    private int nextGroupEnd(List<Mutation<?>> mutations, int from) {
+        Set<String> requestIds = new HashSet<>();
+        boolean checkable = pendingQueueIndex.isReady();
+        int end = from;
+        for (; end < mutations.size(); end++) {
+            Mutation<?> mutation = mutations.get(end);
+            if (mutation.requestId == null) {
+                checkable = false;
+                continue;
+            }
+            if (!requestIds.add(mutation.requestId)) {
+                break;
+            }
+            if (checkable && mutation.target != null) {
+                RequestResponse indexed = pendingQueueIndex.get(mutation.requestId);
+                if (indexed != null && !indexed.getStatus().canTransitionTo(mutation.target)) {
+                    mutation.fail(new IllegalStateException("Cannot move request from "
+                            + indexed.getStatus() + " to " + mutation.target));
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Commit a group in one transaction, falling back to one transaction per mutation on failure.
+     */
+    private void commitGroup(List<Mutation<?>> group) {
+        if (group.size() > 1) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> group.forEach(Mutation::apply));
+                group.forEach(Mutation::complete);
+                return;
+            } catch (RuntimeException e) {
+                log.debug("Group commit of {} mutations failed, replaying individually: {}",
+                        group.size(), e.getMessage());
+            }
+        }
+
+        for (Mutation<?> mutation : group) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> mutation.apply());
+                mutation.complete();
+            } catch (RuntimeException e) {
+                mutation.fail(e);
+            }
+        }
+    }
+
+    private static String laneKey(String labSessionId) {
+        return labSessionId != null ? labSessionId : "";
+    }
+
+    /**
+     * A queued mutation and the future its caller waits on.
+     * The writer claims it before running it; a caller that times out first cancels it instead.
+     */
+    private static final class Mutation<T> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final String requestId;
+        private final RequestStatus target;
+        private final Supplier<T> work;
+        private final String username = ReadWriteRoutingDataSource.currentUsername();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        Mutation(String requestId, RequestStatus target, Supplier<T> work) {
+            this.requestId = requestId;
+            this.target = target;
+            this.work = work;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        boolean isDone() {
+            return result.isDone();
+        }
+
+        void apply() {
+            value = ReadWriteRoutingDataSource.actingAs(username, work);
+        }
+
+        void complete() {
+            result.complete(value);
+        }
+
+        void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+
+        T await(long timeoutMs, Lane lane) {
+            try {
+                try {
+                    return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (state.compareAndSet(QUEUED, CANCELLED)) {
+                        lane.ring.remove(this);
+                        throw new IllegalStateException("Request update timed out, please retry");
+                    }
+                    // Already being committed: wait for the outcome so a retry cannot apply it twice
+                    return result.get();
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Request update failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Request update interrupted");
+            }
+        }
+    }
+
+    /**
+     * Ring buffer plus the single writer thread of one lab session.
+     */
+    private final class Lane implements Runnable {
+        private final ArrayBlockingQueue<Mutation<?>> ring = new ArrayBlockingQueue<>(laneCapacity);
+        private final Thread writer;
+        private boolean retired;
+
+        Lane(String key) {
+            writer = new Thread(this, "request-writer-" + (key.isEmpty() ? "default" : key));
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        synchronized boolean offer(Mutation<?> mutation) {
+            return !retired && ring.offer(mutation);
+        }
+
+        synchronized void retire() {
+            retired = true;
+        }
+
+        synchronized boolean isRetired() {
+            return retired;
+        }
+
+        @Override
+        public void run() {
+            IN_WRITER.set(true);
+            List<Mutation<?>> batch = new ArrayList<>(maxBatchSize);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Mutation<?> next = ring.poll(RETIRE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        // Nothing can be offered once retired, so an empty ring means done
+                        if (isRetired()) {
+                            break;
+                        }
+                        continue;
+                    }
+                    batch.add(next);
+                    ring.drainTo(batch, maxBatchSize - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.debug("Request writer {} stopped", writer.getName());
+        }
+    }
+}
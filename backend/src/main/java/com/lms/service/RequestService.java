@@ -1,28 +1,48 @@
 package com.lms.service;
 
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.dto.BulkRequestOperationDto;
 import com.lms.dto.CreateRequestDto;
+import com.lms.dto.CursorPage;
 import com.lms.dto.RequestResponse;
+import com.lms.dto.StatsResponse;
 import com.lms.dto.UpdateRequestDto;
+import com.lms.dto.UserSnapshot;
 import com.lms.dto.WebSocketEvent;
+import com.lms.entity.LabSession;
 import com.lms.entity.Request;
 import com.lms.entity.RequestStatus;
 import com.lms.entity.Role;
-import com.lms.entity.User;
+import com.lms.repository.ArchivedRequestRepository;
+import com.lms.repository.LabSessionRepository;
 import com.lms.repository.RequestRepository;
-import com.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for managing help requests.
@@ -33,9 +53,26 @@ import java.util.List;
 @Slf4j
 public class RequestService {
 
+    /** Neighbours on each side of a move target considered by the first rebalance attempt. */
+    private static final int REBALANCE_RADIUS = 16;
+    /** Spacing between ranks when the rebalanced range can be stretched. */
+    private static final long RANK_GAP = 1_000L;
+    /** Fair-order candidates tried by claim-next before falling back to the database queue head. */
+    private static final int FAIR_CLAIM_ATTEMPTS = 8;
+
     private final RequestRepository requestRepository;
-    private final UserRepository userRepository;
+    private final ArchivedRequestRepository archivedRequestRepository;
+    private final UserDirectory userDirectory;
+    private final LabSessionRepository labSessionRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PendingQueueIndex pendingQueueIndex;
+    private final WaitTimeEstimator waitTimeEstimator;
+    private final RequestStatusCounters requestStatusCounters;
+    private final QueuePositionService queuePositionService;
+    private final QueueStateStore queueStateStore;
+    private final WeightedFairQueue weightedFairQueue;
+    private final LargeTextStore largeTextStore;
 
     /**
      * Create a new help request for a student.
@@ -43,115 +80,456 @@ public class RequestService {
      */
     @Transactional
     public RequestResponse createRequest(CreateRequestDto dto, String username) {
-        User student = userRepository.findByUsername(username)
+        UserSnapshot student = userDirectory.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+        // Locked read: a concurrent closeSession either waits for this insert and cancels it, or is seen here
+        LabSession session = labSessionRepository.findByIdForShare(dto.getLabSessionId())
+                .orElseThrow(() -> new IllegalArgumentException("Lab session not found"));
+        if (!session.isOpen()) {
+            throw new IllegalStateException("Lab session is closed");
+        }
+
+        String metadata = dto.getCategory() != null
+                ? weightedFairQueue.metadataFor(weightedFairQueue.validateClass(dto.getCategory()))
+                : null;
+
         Request request = Request.builder()
                 .title(dto.getTitle())
-                .description(dto.getDescription())
+                .description(LargeTextStore.preview(dto.getDescription()))
+                .descriptionTruncated(LargeTextStore.isLong(dto.getDescription()))
                 .studentId(student.getId())
+                .studentUsername(student.getUsername())
                 .labSessionId(dto.getLabSessionId())
                 .status(RequestStatus.PENDING)
+                .metadata(metadata)
+                .replyCount(0)
                 .build();
 
         request = requestRepository.save(request);
+        if (request.isDescriptionTruncated()) {
+            largeTextStore.saveRequestBody(request.getId(), dto.getDescription(), false);
+        }
         log.info("Request created: {} by user: {}", request.getId(), username);
 
         RequestResponse response = mapToResponse(request);
 
         // Broadcast WebSocket event
         broadcastEvent("request:created", response);
+        publishLifecycleEvent(RequestLifecycleEvent.CREATED, response, null, null);
 
         return response;
     }
 
     /**
-     * Get all requests with optional filtering and pagination.
+     * Get all requests with optional filtering and pagination, optionally limited to one lab session.
+     * Open statuses (PENDING, IN_PROGRESS) are served from the in-memory queue index.
+     * With sortBy "fair", pending requests are listed in weighted-fair service order.
      */
     @Transactional(readOnly = true)
-    public Page<RequestResponse> getAllRequests(RequestStatus status, int page, int size, String sortBy) {
-        Sort sort = Sort.by(Sort.Direction.ASC, "priority").and(Sort.by(Sort.Direction.ASC, "createdAt"));
-        Pageable pageable = PageRequest.of(page, size, sort);
+    public Page<RequestResponse> getAllRequests(RequestStatus status, String labSessionId,
+            int page, int size, String sortBy) {
+        if ("fair".equalsIgnoreCase(sortBy) && status == RequestStatus.PENDING && weightedFairQueue.isEnabled()) {
+            List<RequestResponse> ordered = weightedFairQueue.fairOrder(labSessionId, (page + 1) * size);
+            List<RequestResponse> content = ordered.subList(Math.min(ordered.size(), page * size), ordered.size());
+            return new PageImpl<>(content, PageRequest.of(page, size), weightedFairQueue.size(labSessionId));
+        }
+        if (PendingQueueIndex.isOpen(status) && pendingQueueIndex.isReady()) {
+            return pendingQueueIndex.page(status, labSessionId, page, size);
+        }
 
-        Page<Request> requests;
+        // Ordering (priority, createdAt) is part of the projection query
+        Pageable pageable = PageRequest.of(page, size);
+
+        if (labSessionId != null) {
+            return status != null
+                    ? requestRepository.findResponsesByLabSessionIdAndStatus(labSessionId, status, pageable)
+                    : requestRepository.findResponsesByLabSessionId(labSessionId, pageable);
+        }
         if (status != null) {
-            requests = requestRepository.findByStatus(status, pageable);
+            return requestRepository.findResponsesByStatus(status, pageable);
+        }
+        return requestRepository.findAllResponses(pageable);
+    }
+
+    /**
+     * Get requests for a specific student. With includeArchived, finished requests moved to
+     * the archive are merged in, still newest first.
+     */
+    @Transactional(readOnly = true)
+    public Page<RequestResponse> getMyRequests(String username, RequestStatus status, int page, int size,
+            boolean includeArchived) {
+        UserSnapshot student = userDirectory.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        // Newest first, ordering is part of the projection query
+        Pageable pageable = PageRequest.of(page, size);
+
+        if (includeArchived && isArchivable(status)) {
+            Pageable head = PageRequest.of(0, (page + 1) * size);
+            List<RequestResponse> merged = mergeNewestFirst(
+                    status != null
+                            ? requestRepository.seekByStudentIdAndStatus(student.getId(), status, head)
+                            : requestRepository.seekByStudentId(student.getId(), head),
+                    status != null
+                            ? archivedRequestRepository.seekByStudentIdAndStatus(student.getId(), status, head)
+                            : archivedRequestRepository.seekByStudentId(student.getId(), head),
+                    head.getPageSize());
+            long total = status != null
+                    ? requestRepository.countByStudentIdAndStatus(student.getId(), status)
+                            + archivedRequestRepository.countByStudentIdAndStatus(student.getId(), status)
+                    : requestRepository.countByStudentId(student.getId())
+                            + archivedRequestRepository.countByStudentId(student.getId());
+            return new PageImpl<>(merged.subList(Math.min(merged.size(), page * size), merged.size()),
+                    pageable, total);
+        }
+
+        if (status != null) {
+            return requestRepository.findResponsesByStudentIdAndStatus(student.getId(), status, pageable);
+        }
+        return requestRepository.findResponsesByStudentId(student.getId(), pageable);
+    }
+
+    /**
+     * Get requests in queue order using keyset pagination (no OFFSET scan, no count query),
+     * optionally limited to one lab session. Open statuses are served from the in-memory queue index.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RequestResponse> getAllRequestsByCursor(RequestStatus status, String labSessionId,
+            String cursor, int size) {
+        validateCursorPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        if (after != null && !after.hasPriority()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        List<RequestResponse> rows;
+        if (PendingQueueIndex.isOpen(status) && pendingQueueIndex.isReady()) {
+            rows = pendingQueueIndex.after(status, labSessionId, after != null ? after.toQueueKey() : null, size + 1);
+        } else if (labSessionId != null) {
+            rows = seekSessionQueue(status, labSessionId, after, PageRequest.of(0, size + 1));
         } else {
-            requests = requestRepository.findAll(pageable);
+            Pageable limit = PageRequest.of(0, size + 1);
+            if (status != null) {
+                rows = after == null
+                        ? requestRepository.seekQueueByStatus(status, limit)
+                        : requestRepository.seekQueueByStatusAfter(
+                                status, after.priority(), after.createdAt(), after.id(), limit);
+            } else {
+                rows = after == null
+                        ? requestRepository.seekQueue(limit)
+                        : requestRepository.seekQueueAfter(after.priority(), after.createdAt(), after.id(), limit);
+            }
         }
 
-        return requests.map(this::mapToResponse);
+        return PageCursor.toPage(rows, size, r -> new PageCursor(r.getPriority(), r.getCreatedAt(), r.getId()));
+    }
+
+    private List<RequestResponse> seekSessionQueue(RequestStatus status, String labSessionId,
+            PageCursor after, Pageable limit) {
+        if (status != null) {
+            return after == null
+                    ? requestRepository.seekQueueBySessionAndStatus(labSessionId, status, limit)
+                    : requestRepository.seekQueueBySessionAndStatusAfter(
+                            labSessionId, status, after.priority(), after.createdAt(), after.id(), limit);
+        }
+        return after == null
+                ? requestRepository.seekQueueBySession(labSessionId, limit)
+                : requestRepository.seekQueueBySessionAfter(
+                        labSessionId, after.priority(), after.createdAt(), after.id(), limit);
     }
 
     /**
-     * Get requests for a specific student.
+     * Get a student's requests, newest first, using keyset pagination. With includeArchived the
+     * same key seeks the archive too and both streams are merged, so cursors stay valid across them.
      */
     @Transactional(readOnly = true)
-    public Page<RequestResponse> getMyRequests(String username, RequestStatus status, int page, int size) {
-        User student = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public CursorPage<RequestResponse> getMyRequestsByCursor(String username, RequestStatus status,
+            String cursor, int size, boolean includeArchived) {
+        validateCursorPageSize(size);
+        PageCursor before = PageCursor.decode(cursor);
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        UserSnapshot student = userDirectory.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        Page<Request> requests;
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<RequestResponse> rows;
         if (status != null) {
-            requests = requestRepository.findByStudentIdAndStatus(student.getId(), status, pageable);
+            rows = before == null
+                    ? requestRepository.seekByStudentIdAndStatus(student.getId(), status, limit)
+                    : requestRepository.seekByStudentIdAndStatusBefore(
+                            student.getId(), status, before.createdAt(), before.id(), limit);
         } else {
-            requests = requestRepository.findByStudentId(student.getId(), pageable);
+            rows = before == null
+                    ? requestRepository.seekByStudentId(student.getId(), limit)
+                    : requestRepository.seekByStudentIdBefore(student.getId(), before.createdAt(), before.id(), limit);
+        }
+
+        if (includeArchived && isArchivable(status)) {
+            List<RequestResponse> archived;
+            if (status != null) {
+                archived = before == null
+                        ? archivedRequestRepository.seekByStudentIdAndStatus(student.getId(), status, limit)
+                        : archivedRequestRepository.seekByStudentIdAndStatusBefore(
+                                student.getId(), status, before.createdAt(), before.id(), limit);
+            } else {
+                archived = before == null
+                        ? archivedRequestRepository.seekByStudentId(student.getId(), limit)
+                        : archivedRequestRepository.seekByStudentIdBefore(
+                                student.getId(), before.createdAt(), before.id(), limit);
+            }
+            rows = mergeNewestFirst(rows, archived, size + 1);
         }
 
-        return requests.map(this::mapToResponse);
+        return PageCursor.toPage(rows, size, r -> new PageCursor(null, r.getCreatedAt(), r.getId()));
+    }
+
+    /**
+     * Only finished requests are ever archived.
+     */
+    private static boolean isArchivable(RequestStatus status) {
+        return status == null || status == RequestStatus.RESOLVED || status == RequestStatus.CANCELLED;
     }
 
     /**
-     * Get a single request by ID.
+     * Merge two newest-first lists into one, keeping at most limit rows.
+     */
+    private static List<RequestResponse> mergeNewestFirst(List<RequestResponse> live,
+            List<RequestResponse> archived, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Comparator<RequestResponse> newestFirst = Comparator
+                .comparing(RequestResponse::getCreatedAt)
+                .thenComparing(RequestResponse::getId)
+                .reversed();
+        List<RequestResponse> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (j >= archived.size()
+                    || (i < live.size() && newestFirst.compare(live.get(i), archived.get(j)) <= 0)) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Get queue statistics. Counts come from the in-memory status counters and averages from the
+     * incremental estimator, so no aggregate query runs once the counters are loaded.
+     */
+    @Transactional(readOnly = true)
+    public StatsResponse getStats(String labSessionId) {
+        Map<RequestStatus, Long> counts = requestStatusCounters.counts(labSessionId)
+                .orElseGet(() -> countByStatus(labSessionId));
+        long pending = counts.get(RequestStatus.PENDING);
+        long inProgress = counts.get(RequestStatus.IN_PROGRESS);
+        long resolved = counts.get(RequestStatus.RESOLVED);
+        long cancelled = counts.get(RequestStatus.CANCELLED);
+
+        int queueDepth = labSessionId != null
+                ? queuePositionService.queueLength(labSessionId)
+                : (int) pending;
+
+        return StatsResponse.builder()
+                .pendingCount(pending)
+                .inProgressCount(inProgress)
+                .resolvedCount(resolved)
+                .cancelledCount(cancelled)
+                .totalRequests(pending + inProgress + resolved + cancelled)
+                .labSessionId(labSessionId)
+                .queueDepth(queueDepth)
+                .averageWaitTimeSeconds(waitTimeEstimator.averageWaitTimeSeconds(labSessionId))
+                .averageServiceTimeSeconds(waitTimeEstimator.averageServiceTimeSeconds(labSessionId))
+                .arrivalRatePerMinute(waitTimeEstimator.arrivalRatePerMinute(labSessionId))
+                .build();
+    }
+
+    private Map<RequestStatus, Long> countByStatus(String labSessionId) {
+        Map<RequestStatus, Long> counts = new EnumMap<>(RequestStatus.class);
+        for (RequestStatus status : RequestStatus.values()) {
+            counts.put(status, labSessionId != null
+                    ? requestRepository.countByLabSessionIdAndStatus(labSessionId, status)
+                    : requestRepository.countByStatus(status));
+        }
+        return counts;
+    }
+
+    /**
+     * Get a single request by ID, falling back to the archive for finished requests moved there.
      */
     @Transactional(readOnly = true)
     public RequestResponse getRequestById(String id) {
-        Request request = requestRepository.findById(id)
+        RequestResponse response = requestRepository.findById(id)
+                .map(this::mapToResponse)
+                .or(() -> archivedRequestRepository.findResponseById(id))
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+
+        // Detail view: the only read that loads the full description of a long request.
+        // Archived requests keep their ids, so their bodies resolve the same way.
+        if (response.isDescriptionTruncated()) {
+            largeTextStore.findRequestBody(id).ifPresent(body -> {
+                response.setDescription(body);
+                response.setDescriptionTruncated(false);
+            });
+        }
+        return response;
+    }
+
+    /**
+     * Get the current status of a request (open requests are answered from the queue index).
+     */
+    @Transactional(readOnly = true)
+    public RequestStatus getRequestStatus(String requestId) {
+        RequestResponse indexed = pendingQueueIndex.get(requestId);
+        if (indexed != null) {
+            return indexed.getStatus();
+        }
+        return requestRepository.findById(requestId)
+                .map(Request::getStatus)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
-        return mapToResponse(request);
     }
 
     /**
      * Assign a request to a TA (claim).
-     * Uses optimistic locking to prevent concurrent claims.
+     * Uses a single conditional UPDATE so that exactly one concurrent claim wins.
      */
     @Transactional
     public RequestResponse assignRequest(String requestId, String taUsername) {
-        User ta = userRepository.findByUsername(taUsername)
+        UserSnapshot ta = userDirectory.findByUsername(taUsername)
                 .orElseThrow(() -> new IllegalArgumentException("TA not found"));
 
-        try {
+        if (requestRepository.claimIfPending(requestId, ta.getId(), ta.getUsername(), LocalDateTime.now()) == 0) {
+            // Lost the race or invalid state: read the row once to report why
             Request request = requestRepository.findById(requestId)
                     .orElseThrow(() -> new IllegalArgumentException("Request not found"));
-
-            // Validate status transition
-            if (!request.canTransitionTo(RequestStatus.IN_PROGRESS)) {
-                throw new IllegalStateException("Cannot assign request in current status: " + request.getStatus());
-            }
-
-            // Check if already assigned
             if (request.getAssignedTo() != null) {
-                throw new IllegalStateException("Request already assigned");
+                throw new IllegalStateException("Request was already claimed by another TA");
             }
+            throw new IllegalStateException("Cannot assign request in current status: " + request.getStatus());
+        }
 
-            request.setStatus(RequestStatus.IN_PROGRESS);
-            request.setAssignedTo(ta.getId());
+        log.info("Request {} assigned to TA: {}", requestId, taUsername);
+        return onClaimed(requestId);
+    }
 
-            request = requestRepository.save(request);
-            log.info("Request {} assigned to TA: {}", requestId, taUsername);
+    /**
+     * Claim the highest-priority pending request of a lab session for a TA ("claim next").
+     * The row is picked with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent TAs
+     * each receive a distinct request without retries. Empty if the queue is empty.
+     * With fair queuing enabled, candidates are taken in weighted-fair order across request
+     * classes and claimed with the conditional UPDATE; losing every race falls back to the above.
+     */
+    @Transactional
+    public Optional<RequestResponse> assignNextRequest(String taUsername, String labSessionId) {
+        UserSnapshot ta = userDirectory.findByUsername(taUsername)
+                .orElseThrow(() -> new IllegalArgumentException("TA not found"));
 
-            RequestResponse response = mapToResponse(request);
+        if (weightedFairQueue.isEnabled() && pendingQueueIndex.isReady()) {
+            for (RequestResponse candidate : weightedFairQueue.fairOrder(labSessionId, FAIR_CLAIM_ATTEMPTS)) {
+                if (requestRepository.claimIfPending(candidate.getId(), ta.getId(), ta.getUsername(),
+                        LocalDateTime.now()) == 1) {
+                    log.info("Next request {} ({}) assigned to TA: {}", candidate.getId(),
+                            weightedFairQueue.classOf(candidate), taUsername);
+                    return Optional.of(onClaimed(candidate.getId()));
+                }
+            }
+        }
 
-            // Broadcast WebSocket event
-            broadcastEvent("request:assigned", response);
+        Optional<String> next = requestRepository.lockNextPendingId(labSessionId);
+        if (next.isEmpty()) {
+            return Optional.empty();
+        }
 
-            return response;
-        } catch (ObjectOptimisticLockingFailureException e) {
-            log.warn("Optimistic locking failure for request {}: {}", requestId, e.getMessage());
+        String requestId = next.get();
+        // The row is locked by this transaction, so the claim cannot be lost
+        if (requestRepository.claimIfPending(requestId, ta.getId(), ta.getUsername(), LocalDateTime.now()) == 0) {
             throw new IllegalStateException("Request was already claimed by another TA");
         }
+
+        log.info("Next request {} assigned to TA: {}", requestId, taUsername);
+        return Optional.of(onClaimed(requestId));
+    }
+
+    /**
+     * Assign a pending request to a specific TA (automatic dispatch).
+     * Uses the same conditional UPDATE as manual claims; empty if the request is no longer claimable.
+     */
+    @Transactional
+    public Optional<RequestResponse> assignRequestTo(String requestId, String taId) {
+        String taUsername = userDirectory.findUsernameById(taId)
+                .orElseThrow(() -> new IllegalArgumentException("TA not found"));
+        if (requestRepository.claimIfPending(requestId, taId, taUsername, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+
+        log.info("Request {} dispatched to TA: {}", requestId, taId);
+        return Optional.of(onClaimed(requestId));
+    }
+
+    /**
+     * Build the response for a request that was just claimed and notify listeners.
+     */
+    private RequestResponse onClaimed(String requestId) {
+        RequestResponse response = requestRepository.findResponseById(requestId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+
+        // Broadcast WebSocket event
+        broadcastEvent("request:assigned", response);
+        publishLifecycleEvent(RequestLifecycleEvent.ASSIGNED, response, RequestStatus.PENDING, null);
+
+        return response;
+    }
+
+    /**
+     * Return a request held by a TA back to the pending queue (TA went offline).
+     * Empty if the request was resolved or released in the meantime.
+     */
+    @Transactional
+    public Optional<RequestResponse> releaseRequest(String requestId, String taId) {
+        if (requestRepository.releaseIfAssignedTo(requestId, taId) == 0) {
+            return Optional.empty();
+        }
+
+        RequestResponse response = requestRepository.findResponseById(requestId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+        log.info("Request {} released back to the queue from TA: {}", requestId, taId);
+
+        // Broadcast WebSocket event
+        broadcastEvent("request:updated", response);
+        publishLifecycleEvent(RequestLifecycleEvent.UPDATED, response, RequestStatus.IN_PROGRESS, taId);
+
+        return Optional.of(response);
+    }
+
+    /**
+     * Move a stale pending request ahead of every younger request queued before it in its lab
+     * session, so newer requests placed ahead of it cannot hold it back indefinitely. Requests
+     * a TA ranked by hand keep their place. Empty if the request did not move.
+     */
+    @Transactional
+    public Optional<RequestResponse> escalateRequest(String requestId) {
+        RequestResponse indexed = pendingQueueIndex.get(requestId);
+        if (indexed == null || indexed.getStatus() != RequestStatus.PENDING) {
+            return Optional.empty();
+        }
+        Long rank = escalationRank(indexed);
+        if (rank == null || requestRepository.escalateIfPending(requestId, rank) == 0) {
+            return Optional.empty();
+        }
+
+        RequestResponse response = requestRepository.findResponseById(requestId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+        log.info("Request {} escalated, priority now: {}", requestId, response.getPriority());
+
+        // Broadcast WebSocket event
+        broadcastEvent("request:updated", response);
+        publishLifecycleEvent(RequestLifecycleEvent.UPDATED, response, RequestStatus.PENDING, null);
+
+        return Optional.of(response);
     }
 
     /**
@@ -167,20 +545,68 @@ public class RequestService {
             throw new IllegalStateException("Cannot resolve request in current status: " + request.getStatus());
         }
 
+        RequestStatus previousStatus = request.getStatus();
         request.setStatus(RequestStatus.RESOLVED);
         request.setResolvedAt(LocalDateTime.now());
 
-        request = requestRepository.save(request);
+        // Flush so the response carries the incremented version
+        request = requestRepository.saveAndFlush(request);
         log.info("Request {} resolved by TA: {}", requestId, taUsername);
 
         RequestResponse response = mapToResponse(request);
 
         // Broadcast WebSocket event
         broadcastEvent("request:resolved", response);
+        publishLifecycleEvent(RequestLifecycleEvent.RESOLVED, response, previousStatus, response.getAssignedTo());
 
         return response;
     }
 
+    /**
+     * Resolve several requests for a TA with one conditional UPDATE (cluster reply).
+     * Pending requests are claimed and resolved at once; in-progress requests only if the TA holds them.
+     * {@code previousStatuses} are the statuses the caller validated. Returns the resolved requests.
+     */
+    @Transactional
+    public List<RequestResponse> resolveRequests(Map<String, RequestStatus> previousStatuses, String taId,
+            String taUsername) {
+        if (previousStatuses.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime resolvedAt = LocalDateTime.now();
+        int resolved = requestRepository.resolveAllForTa(previousStatuses.keySet(), taId, taUsername, resolvedAt);
+        if (resolved != previousStatuses.size()) {
+            // Rows changed after validation: roll back rather than report a partial resolve
+            throw new IllegalStateException("Some requests were claimed or closed meanwhile, please retry");
+        }
+
+        List<RequestResponse> responses = requestRepository.findResponsesByIdIn(previousStatuses.keySet());
+        for (RequestResponse response : responses) {
+            RequestStatus previousStatus = previousStatuses.get(response.getId());
+            broadcastEvent("request:resolved", response);
+            publishLifecycleEvent(RequestLifecycleEvent.RESOLVED, response, previousStatus,
+                    previousStatus == RequestStatus.IN_PROGRESS ? taId : null);
+        }
+
+        log.info("{} requests resolved together by TA: {}", resolved, taId);
+        return responses;
+    }
+
+    /**
+     * Count a reply on the request's read model and push the new reply stats to listeners.
+     */
+    @Transactional
+    public void recordReply(String requestId, LocalDateTime repliedAt) {
+        requestRepository.recordReplies(List.of(requestId), repliedAt);
+
+        RequestResponse response = requestRepository.findResponseById(requestId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+
+        // Broadcast WebSocket event
+        broadcastEvent("request:updated", response);
+        publishLifecycleEvent(RequestLifecycleEvent.UPDATED, response, response.getStatus(), response.getAssignedTo());
+    }
+
     /**
      * Update request priority (TA can re-order requests).
      */
@@ -190,7 +616,8 @@ public class RequestService {
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
 
         request.setPriority(newPriority);
-        request = requestRepository.save(request);
+        request.setHandRanked(true);
+        request = requestRepository.saveAndFlush(request);
 
         log.info("Request {} priority updated to: {}", requestId, newPriority);
 
@@ -198,10 +625,244 @@ public class RequestService {
 
         // Broadcast WebSocket event
         broadcastEvent("request:updated", response);
+        publishLifecycleEvent(RequestLifecycleEvent.UPDATED, response, response.getStatus(), response.getAssignedTo());
 
         return response;
     }
 
+    /**
+     * Apply many resolve / set-priority operations in one transaction (TA bulk update).
+     * Requests are loaded with one SELECT and checked before anything is written. All resolves are
+     * then one set-based UPDATE; priority changes differ per request and are one UPDATE each.
+     * Request uses @DynamicUpdate, which Hibernate never sends as a JDBC batch, so entity flushes
+     * would cost one round trip per request. Any invalid operation rolls back the whole batch.
+     * Listeners get the usual lifecycle event per request, clients one aggregated WebSocket event.
+     * Returns the updated requests in queue order.
+     */
+    @Transactional
+    public List<RequestResponse> applyBulkOperations(List<BulkRequestOperationDto> operations, String taUsername) {
+        Map<String, BulkRequestOperationDto> byId = new LinkedHashMap<>();
+        for (BulkRequestOperationDto operation : operations) {
+            if (byId.put(operation.getRequestId(), operation) != null) {
+                throw new IllegalArgumentException("Request " + operation.getRequestId() + " appears more than once");
+            }
+            if (operation.getAction() == BulkRequestOperationDto.Action.SET_PRIORITY && operation.getPriority() == null) {
+                throw new IllegalArgumentException("Priority is required for request " + operation.getRequestId());
+            }
+        }
+
+        List<Request> requests = requestRepository.findAllById(byId.keySet());
+        if (requests.size() != byId.size()) {
+            throw new IllegalArgumentException("Request not found");
+        }
+
+        Map<String, RequestStatus> previousStatuses = new LinkedHashMap<>();
+        List<String> resolved = new ArrayList<>();
+        List<BulkRequestOperationDto> reprioritised = new ArrayList<>();
+        for (Request request : requests) {
+            previousStatuses.put(request.getId(), request.getStatus());
+            BulkRequestOperationDto operation = byId.get(request.getId());
+            switch (operation.getAction()) {
+                case RESOLVE -> {
+                    if (!request.canTransitionTo(RequestStatus.RESOLVED)) {
+                        throw new IllegalStateException("Cannot resolve request " + request.getId()
+                                + " in current status: " + request.getStatus());
+                    }
+                    resolved.add(request.getId());
+                }
+                case SET_PRIORITY -> reprioritised.add(operation);
+            }
+        }
+
+        if (!resolved.isEmpty()
+                && requestRepository.resolveAllInProgress(resolved, LocalDateTime.now()) != resolved.size()) {
+            // Another TA released or resolved one of them since it was loaded
+            throw new IllegalStateException("Requests changed during the bulk update, please retry");
+        }
+        for (BulkRequestOperationDto operation : reprioritised) {
+            requestRepository.moveByHand(operation.getRequestId(), operation.getPriority());
+        }
+
+        List<RequestResponse> responses = requestRepository.findResponsesByIdIn(byId.keySet());
+        for (RequestResponse response : responses) {
+            boolean isResolve = byId.get(response.getId()).getAction() == BulkRequestOperationDto.Action.RESOLVE;
+            publishLifecycleEvent(isResolve ? RequestLifecycleEvent.RESOLVED : RequestLifecycleEvent.UPDATED,
+                    response, previousStatuses.get(response.getId()), response.getAssignedTo());
+        }
+
+        // One broadcast for the whole batch instead of one per request
+        broadcastBulkEvent("requests:bulk-updated", responses);
+        log.info("Bulk update by TA {}: {} resolved, {} re-prioritised", taUsername, resolved.size(),
+                reprioritised.size());
+        return responses;
+    }
+
+    /**
+     * Apply coalesced queue moves (place a pending request before or after another) in one transaction.
+     * Each request gets a rank halfway between its new neighbours; when there is no gap left,
+     * only the surrounding range is re-spaced with one batched UPDATE. Moves that became invalid
+     * in the meantime (request claimed, target gone) are skipped.
+     * Returns the requests whose priority changed, in queue order.
+     */
+    @Transactional
+    public List<RequestResponse> applyQueueMoves(List<QueueMove> moves) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (QueueMove move : moves) {
+            try {
+                changed.addAll(applyQueueMove(move));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                log.info("Skipping queue move of request {}: {}", move.requestId(), e.getMessage());
+            }
+        }
+        if (changed.isEmpty()) {
+            return List.of();
+        }
+
+        List<RequestResponse> responses = requestRepository.findResponsesByIdIn(changed);
+        for (RequestResponse response : responses) {
+            publishLifecycleEvent(RequestLifecycleEvent.UPDATED, response, response.getStatus(), response.getAssignedTo());
+        }
+
+        // One broadcast for the whole batch instead of one per moved row
+        broadcastQueueEvent("queue:reordered", responses);
+        log.info("Queue reordered: {} moves, {} requests re-ranked", moves.size(), responses.size());
+        return responses;
+    }
+
+    private Set<String> applyQueueMove(QueueMove move) {
+        if (move.requestId().equals(move.targetId())) {
+            return Set.of();
+        }
+
+        Request request = findPendingRequest(move.requestId());
+        Request target = findPendingRequest(move.targetId());
+        if (request.getLabSessionId() == null || !request.getLabSessionId().equals(target.getLabSessionId())) {
+            throw new IllegalArgumentException("Requests must belong to the same lab session");
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        Long rank = rankNextTo(request, target, move.before());
+        if (rank == null) {
+            changed.addAll(rebalanceAround(request, target));
+            target = findPendingRequest(move.targetId());
+            rank = rankNextTo(request, target, move.before());
+            if (rank == null) {
+                throw new IllegalStateException("No rank available after rebalancing");
+            }
+        }
+
+        requestRepository.moveByHand(request.getId(), rank);
+        changed.add(request.getId());
+        return changed;
+    }
+
+    /**
+     * Rank just ahead of the first younger request queued before the given one in its lab session,
+     * or null if only older requests are ahead of it (or there is no room between neighbours).
+     */
+    private Long escalationRank(RequestResponse request) {
+        RequestResponse previous = null;
+        for (RequestResponse ahead : pendingQueueIndex.list(RequestStatus.PENDING)) {
+            if (ahead.getId().equals(request.getId())) {
+                return null;
+            }
+            if (!Objects.equals(ahead.getLabSessionId(), request.getLabSessionId())) {
+                continue;
+            }
+            if (ahead.getCreatedAt().isAfter(request.getCreatedAt())) {
+                long high = ahead.getPriority();
+                long low = previous != null ? previous.getPriority() : high - 2 * RANK_GAP;
+                return high - low >= 2 ? low + (high - low) / 2 : null;
+            }
+            previous = ahead;
+        }
+        return null;
+    }
+
+    private Request findPendingRequest(String requestId) {
+        Request request = requestRepository.findById(requestId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found"));
+        if (request.getStatus() != RequestStatus.PENDING) {
+            throw new IllegalStateException("Only pending requests can be reordered");
+        }
+        return request;
+    }
+
+    /**
+     * Rank halfway between the target and its neighbour in the same lab session on the requested side,
+     * or null if the two are adjacent and there is no room left.
+     */
+    private Long rankNextTo(Request request, Request target, boolean before) {
+        List<Request> neighbour = before
+                ? requestRepository.findPendingBefore(target.getLabSessionId(), target.getPriority(),
+                        target.getCreatedAt(), target.getId(), request.getId(), PageRequest.of(0, 1))
+                : requestRepository.findPendingAfter(target.getLabSessionId(), target.getPriority(),
+                        target.getCreatedAt(), target.getId(), request.getId(), PageRequest.of(0, 1));
+
+        long low;
+        long high;
+        if (before) {
+            high = target.getPriority();
+            low = neighbour.isEmpty() ? high - 2 * RANK_GAP : neighbour.get(0).getPriority();
+        } else {
+            low = target.getPriority();
+            high = neighbour.isEmpty() ? low + 2 * RANK_GAP : neighbour.get(0).getPriority();
+        }
+        return high - low >= 2 ? low + (high - low) / 2 : null;
+    }
+
+    /**
+     * Re-space the pending requests of the target's lab session around it so that every pair of
+     * neighbours has a gap. Other sessions' requests are never read or re-ranked.
+     * New ranks stay within the range's current bounds (stretched only at the head or tail
+     * of the queue), so requests outside the range keep their order and are not touched.
+     * The range is widened until it has enough room.
+     */
+    private List<String> rebalanceAround(Request moved, Request target) {
+        int radius = REBALANCE_RADIUS;
+        while (true) {
+            List<Request> below = requestRepository.findPendingBefore(target.getLabSessionId(), target.getPriority(),
+                    target.getCreatedAt(), target.getId(), moved.getId(), PageRequest.of(0, radius + 1));
+            List<Request> above = requestRepository.findPendingAfter(target.getLabSessionId(), target.getPriority(),
+                    target.getCreatedAt(), target.getId(), moved.getId(), PageRequest.of(0, radius + 1));
+            boolean atHead = below.size() <= radius;
+            boolean atTail = above.size() <= radius;
+
+            List<Request> range = new ArrayList<>(below.subList(0, Math.min(radius, below.size())));
+            Collections.reverse(range);
+            range.add(target);
+            range.addAll(above.subList(0, Math.min(radius, above.size())));
+
+            int n = range.size();
+            long low = range.get(0).getPriority();
+            long high = range.get(n - 1).getPriority();
+            long wanted = (n - 1) * RANK_GAP;
+            if (high - low < wanted) {
+                if (atTail) {
+                    high = low + wanted;
+                } else if (atHead) {
+                    low = high - wanted;
+                }
+            }
+
+            long gap = (high - low) / Math.max(1, n - 1);
+            if (gap >= 2) {
+                List<String> ids = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    long rank = low + i * gap;
+                    Request request = range.get(i);
+                    if (request.getPriority() != rank) {
+                        requestRepository.updatePriority(request.getId(), rank);
+                        ids.add(request.getId());
+                    }
+                }
+                log.info("Rebalanced {} queue ranks around request {}", ids.size(), target.getId());
+                return ids;
+            }
+            radius *= 4;
+        }
+    }
+
     /**
      * Update a request (student can update their own requests).
      */
@@ -210,7 +871,7 @@ public class RequestService {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
 
-        User user = userRepository.findByUsername(username)
+        UserSnapshot user = userDirectory.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Check if user owns the request
@@ -229,16 +890,20 @@ public class RequestService {
             throw new IllegalStateException("Cannot update a " + request.getStatus() + " request");
         }
 
+        boolean hadBody = request.isDescriptionTruncated();
         request.setTitle(dto.getTitle());
-        request.setDescription(dto.getDescription());
+        request.setDescription(LargeTextStore.preview(dto.getDescription()));
+        request.setDescriptionTruncated(LargeTextStore.isLong(dto.getDescription()));
+        largeTextStore.saveRequestBody(requestId, dto.getDescription(), hadBody);
 
-        request = requestRepository.save(request);
+        request = requestRepository.saveAndFlush(request);
         log.info("Request {} updated by user: {}", requestId, username);
 
         RequestResponse response = mapToResponse(request);
 
         // Broadcast WebSocket event
         broadcastEvent("request:updated", response);
+        publishLifecycleEvent(RequestLifecycleEvent.UPDATED, response, response.getStatus(), response.getAssignedTo());
 
         return response;
     }
@@ -251,7 +916,7 @@ public class RequestService {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
 
-        User user = userRepository.findByUsername(username)
+        UserSnapshot user = userDirectory.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Check if user owns the request
@@ -259,7 +924,8 @@ public class RequestService {
             throw new IllegalStateException("You can only delete your own requests");
         }
 
-        // Hard delete
+        // Hard delete; side-table bodies first, while the replies that own theirs still exist
+        largeTextStore.deleteRequestBodies(requestId);
         requestRepository.delete(request);
 
         log.info("Request {} deleted by user: {}", requestId, username);
@@ -267,54 +933,175 @@ public class RequestService {
         // Broadcast deletion event
         RequestResponse response = mapToResponse(request);
         broadcastEvent("request:deleted", response);
+        publishLifecycleEvent(RequestLifecycleEvent.DELETED, response, response.getStatus(), response.getAssignedTo());
     }
 
     /**
-     * Map Request entity to RequestResponse DTO.
+     * Cancel all pending requests of a lab session with one set-based UPDATE.
+     * In-memory listeners get a lifecycle event per request; no per-request WebSocket
+     * event is sent, the caller broadcasts one summary instead.
+     * Returns the cancelled requests.
      */
-    private RequestResponse mapToResponse(Request request) {
-        String studentUsername = userRepository.findById(request.getStudentId())
-                .map(User::getUsername).orElse(null);
+    @Transactional
+    public List<RequestResponse> cancelPendingRequests(String labSessionId) {
+        int cancelled = requestRepository.cancelPendingByLabSessionId(labSessionId);
+        if (cancelled == 0) {
+            return List.of();
+        }
 
-        String assignedToUsername = null;
-        if (request.getAssignedTo() != null) {
-            assignedToUsername = userRepository.findById(request.getAssignedTo())
-                    .map(User::getUsername).orElse(null);
+        // Requests are only ever cancelled by closing their session, so these are exactly the rows just updated
+        List<RequestResponse> responses =
+                requestRepository.listResponsesByLabSessionIdAndStatus(labSessionId, RequestStatus.CANCELLED);
+        for (RequestResponse response : responses) {
+            publishLifecycleEvent(RequestLifecycleEvent.CANCELLED, response, RequestStatus.PENDING, null);
+        }
+
+        log.info("Cancelled {} pending requests of lab session {}", cancelled, labSessionId);
+        return responses;
+    }
+
+    /**
+     * Warm the in-memory queue index at startup, from the local snapshot and journal
+     * when available (verified against database versions), otherwise from the database.
+     * Reads the primary: every other in-memory structure is seeded from this index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    public void warmQueueIndex() {
+        ReadWriteRoutingDataSource.onPrimary(() ->
+                pendingQueueIndex.load(queueStateStore.restore().orElseGet(this::findOpenRequests)));
+    }
+
+    /**
+     * Periodically check the in-memory queue index against the database (the primary,
+     * so replica lag is never mistaken for drift).
+     */
+    @Scheduled(fixedDelayString = "${lms.queue.reconcile-interval-ms:60000}",
+            initialDelayString = "${lms.queue.reconcile-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void reconcileQueueIndex() {
+        if (!pendingQueueIndex.isReady()) {
+            return;
         }
+        long readStamp = pendingQueueIndex.modificationCount();
+        List<RequestResponse> open = ReadWriteRoutingDataSource.onPrimary(this::findOpenRequests);
+        int drift = pendingQueueIndex.reconcile(open, readStamp);
+        if (drift == 0) {
+            log.debug("Pending queue index consistent with database ({} open requests)", pendingQueueIndex.size());
+        }
+        // Repairs are not republished, so positions are rebuilt from the repaired index
+        queuePositionService.rebuild();
+    }
 
+    private List<RequestResponse> findOpenRequests() {
+        return requestRepository.findResponsesByStatusIn(List.of(RequestStatus.PENDING, RequestStatus.IN_PROGRESS));
+    }
+
+    /**
+     * Map Request entity to RequestResponse DTO.
+     */
+    private RequestResponse mapToResponse(Request request) {
         return RequestResponse.builder()
                 .id(request.getId())
                 .title(request.getTitle())
                 .description(request.getDescription())
+                .descriptionTruncated(request.isDescriptionTruncated())
                 .studentId(request.getStudentId())
-                .studentUsername(studentUsername)
+                .studentUsername(request.getStudentUsername())
                 .labSessionId(request.getLabSessionId())
                 .status(request.getStatus())
                 .priority(request.getPriority())
                 .assignedTo(request.getAssignedTo())
-                .assignedToUsername(assignedToUsername)
+                .assignedToUsername(request.getAssignedToUsername())
                 .createdAt(request.getCreatedAt())
                 .resolvedAt(request.getResolvedAt())
                 .metadata(request.getMetadata())
+                .version(request.getVersion())
+                .replyCount(request.getReplyCount())
+                .lastReplyAt(request.getLastReplyAt())
                 .build();
     }
 
+    private void validateCursorPageSize(int size) {
+        if (size <= 0 || size > 500) {
+            throw new IllegalArgumentException("Page size must be between 1 and 500");
+        }
+    }
+
+    /**
+     * Publish a lifecycle event for in-memory listeners.
+     * Transactional listeners receive it once the current transaction commits.
+     */
+    private void publishLifecycleEvent(String eventType, RequestResponse payload,
+            RequestStatus previousStatus, String previousAssignedTo) {
+        eventPublisher.publishEvent(new RequestLifecycleEvent(eventType, payload, previousStatus, previousAssignedTo));
+    }
+
     /**
      * Broadcast WebSocket events to connected clients.
-     * Students receive only their own request updates.
-     * TAs receive all request updates.
+     * Inside a transaction the broadcast is deferred until commit, so clients see
+     * events in commit order and never for changes that were rolled back.
      */
     private void broadcastEvent(String eventType, RequestResponse payload) {
         if (payload == null) {
             log.warn("Attempted to broadcast event {} with null payload", eventType);
             return;
         }
+        AfterCommit.run(() -> sendEvent(eventType, payload));
+    }
+
+    /**
+     * Broadcast a queue-wide WebSocket event to TAs once the current transaction commits.
+     */
+    private void broadcastQueueEvent(String eventType, Object payload) {
+        AfterCommit.run(() -> {
+            try {
+                messagingTemplate.convertAndSend("/topic/requests", WebSocketEvent.of(eventType, payload));
+                log.debug("WebSocket event broadcasted: {}", eventType);
+            } catch (Exception e) {
+                log.error("Error broadcasting WebSocket event {}: {}", eventType, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Broadcast an aggregated event once the current transaction commits: the full list to TAs,
+     * and to each affected student only their own requests.
+     */
+    private void broadcastBulkEvent(String eventType, List<RequestResponse> payload) {
+        AfterCommit.run(() -> {
+            try {
+                messagingTemplate.convertAndSend("/topic/requests", WebSocketEvent.of(eventType, payload));
+                Map<String, List<RequestResponse>> byStudent = new LinkedHashMap<>();
+                for (RequestResponse response : payload) {
+                    if (response.getStudentUsername() != null && !response.getStudentUsername().isEmpty()) {
+                        byStudent.computeIfAbsent(response.getStudentUsername(), k -> new ArrayList<>()).add(response);
+                    }
+                }
+                byStudent.forEach((student, own) ->
+                        messagingTemplate.convertAndSendToUser(student, "/queue/requests", WebSocketEvent.of(eventType, own)));
+                log.debug("WebSocket event broadcasted: {} for {} requests", eventType, payload.size());
+            } catch (Exception e) {
+                log.error("Error broadcasting WebSocket event {}: {}", eventType, e.getMessage(), e);
+            }
+        });
+    }
 
+    /**
+     * Send a WebSocket event.
+     * Students receive only their own request updates.
+     * TAs receive all request updates.
+     */
+    private void sendEvent(String eventType, RequestResponse payload) {
         try {
             WebSocketEvent event = WebSocketEvent.of(eventType, payload);
 
             // Broadcast to all TAs
             messagingTemplate.convertAndSend("/topic/requests", event);
+            if (payload.getLabSessionId() != null) {
+                messagingTemplate.convertAndSend(LabSessionService.requestsTopic(payload.getLabSessionId()), event);
+            }
 
             // Send to specific student if username is available
             if (payload.getStudentUsername() != null && !payload.getStudentUsername().isEmpty()) {
@@ -329,4 +1116,4 @@ public class RequestService {
             log.error("Error broadcasting WebSocket event {}: {}", eventType, e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.lms.service;
+
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.RequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Request counts per status, overall and per lab session, kept in memory for the stats endpoint.
+ *
+ * Loaded with one grouped count at startup and kept current from lifecycle events in O(1), so
+ * reading stats issues no query. Changes made without an event (archival, other instances) are
+ * picked up by a periodic reload on the primary. Until the first load completes, callers fall
+ * back to counting in the database.
+ *
+ * Events that arrive while a reload is reading are journaled and replayed onto the loaded counts,
+ * so a busy queue cannot keep the reload from ever taking effect. An event whose transaction
+ * committed just before the read but whose listener ran after the read started is counted twice
+ * until the next reload.
+ */
+@Service
+@Slf4j
+public class RequestStatusCounters {
+
+    /** Bucket aggregating all lab sessions. */
+    private static final String ALL_SESSIONS = "*";
+
+    private final RequestRepository requestRepository;
+
+    private final Object reloadLock = new Object();
+
+    private Map<String, long[]> countsBySession = new HashMap<>();
+    /** Events applied while a reload is reading; null when no reload is in progress. */
+    private List<RequestLifecycleEvent> journal;
+    private boolean ready;
+
+    public RequestStatusCounters(RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    /**
+     * Counts per status of a lab session (all sessions if null); empty until the first load.
+     */
+    public synchronized Optional<Map<RequestStatus, Long>> counts(String labSessionId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        long[] counts = countsBySession.get(labSessionId != null ? labSessionId : ALL_SESSIONS);
+        Map<RequestStatus, Long> result = new EnumMap<>(RequestStatus.class);
+        for (RequestStatus status : RequestStatus.values()) {
+            result.put(status, counts != null ? counts[status.ordinal()] : 0L);
+        }
+        return Optional.of(result);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Reload from the database, the primary so that replica lag is never taken for drift.
+     */
+    @Scheduled(fixedDelayString = "${lms.queue.reconcile-interval-ms:60000}",
+            initialDelayString = "${lms.queue.reconcile-interval-ms:60000}")
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            try {
+                List<Object[]> rows =
+                        ReadWriteRoutingDataSource.onPrimary(requestRepository::countGroupedByLabSessionAndStatus);
+                Map<String, long[]> loaded = new HashMap<>();
+                for (Object[] row : rows) {
+                    String labSessionId = (String) row[0];
+                    RequestStatus status = (RequestStatus) row[1];
+                    long count = ((Number) row[2]).longValue();
+                    add(loaded, labSessionId, status, count);
+                }
+
+                synchronized (this) {
+                    for (RequestLifecycleEvent event : journal) {
+                        apply(loaded, event);
+                    }
+                    countsBySession = loaded;
+                    ready = true;
+                }
+            } finally {
+                synchronized (this) {
+                    journal = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Move committed status changes between counters.
+     */
+    @EventListener
+    public synchronized void onAppliedChange(AppliedRequestChange change) {
+        RequestLifecycleEvent event = change.event();
+        if (journal != null) {
+            journal.add(event);
+        }
+        if (ready) {
+            apply(countsBySession, event);
+        }
+    }
+
+    /**
+     * Apply one status change to a set of counters. A change without previous status is the
+     * first the queue index applied for the request, so it is counted as new.
+     */
+    private static void apply(Map<String, long[]> counts, RequestLifecycleEvent event) {
+        String labSessionId = event.request().getLabSessionId();
+        RequestStatus status = event.request().getStatus();
+        if (event.isDeleted()) {
+            add(counts, labSessionId, event.previousStatus(), -1);
+        } else if (event.previousStatus() != status) {
+            add(counts, labSessionId, event.previousStatus(), -1);
+            add(counts, labSessionId, status, 1);
+        }
+    }
+
+    /**
+     * Add to the counter of a status in its lab session and in the all-sessions bucket.
+     */
+    private static void add(Map<String, long[]> counts, String labSessionId, RequestStatus status, long delta) {
+        if (status == null) {
+            return;
+        }
+        for (String key : new String[]{labSessionId != null ? labSessionId : "", ALL_SESSIONS}) {
+            counts.computeIfAbsent(key, k -> new long[RequestStatus.values().length])[status.ordinal()] += delta;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.lms.service;
+
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.dto.RequestResponse;
+import com.lms.dto.WebSocketEvent;
+import com.lms.entity.LabSession;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.LabSessionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional automatic dispatcher that pushes pending requests to the least-loaded online TA.
+ *
+ * Load is tracked with in-memory per-TA IN_PROGRESS counters maintained from lifecycle
+ * events, so no COUNT query runs per decision. Assignments go through the same conditional
+ * UPDATE as manual claims and all dispatching runs on a single worker thread, so bursts
+ * are coalesced into one drain per lab session.
+ */
+@Service
+@Slf4j
+public class TaDispatcher {
+
+    private final RequestService requestService;
+    private final PendingQueueIndex pendingQueueIndex;
+    private final TaPresenceRegistry presenceRegistry;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LabSessionRepository labSessionRepository;
+    private final WeightedFairQueue weightedFairQueue;
+    private final boolean enabledByDefault;
+    private final int maxInProgressPerTa;
+
+    private final Map<String, AtomicInteger> inProgressByTa = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> sessionToggles = new ConcurrentHashMap<>();
+    private final Set<String> scheduledDrains = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ta-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TaDispatcher(RequestService requestService,
+                        PendingQueueIndex pendingQueueIndex,
+                        TaPresenceRegistry presenceRegistry,
+                        SimpMessagingTemplate messagingTemplate,
+                        LabSessionRepository labSessionRepository,
+                        WeightedFairQueue weightedFairQueue,
+                        @Value("${lms.dispatch.enabled-by-default:false}") boolean enabledByDefault,
+                        @Value("${lms.dispatch.max-in-progress-per-ta:1}") int maxInProgressPerTa) {
+        this.requestService = requestService;
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.presenceRegistry = presenceRegistry;
+        this.messagingTemplate = messagingTemplate;
+        this.labSessionRepository = labSessionRepository;
+        this.weightedFairQueue = weightedFairQueue;
+        this.enabledByDefault = enabledByDefault;
+        this.maxInProgressPerTa = maxInProgressPerTa;
+    }
+
+    /**
+     * Check if automatic dispatch is enabled for a lab session.
+     */
+    public boolean isEnabled(String labSessionId) {
+        return sessionToggles.getOrDefault(labSessionKey(labSessionId), enabledByDefault);
+    }
+
+    /**
+     * Enable or disable automatic dispatch for a lab session. The setting is stored on the session.
+     * Enabling it immediately dispatches the session's pending backlog.
+     * The in-memory toggle and the drain only take effect once the setting is committed.
+     */
+    @Transactional
+    public void setEnabled(String labSessionId, boolean enabled) {
+        if (labSessionRepository.updateAutoDispatch(labSessionId, enabled) == 0) {
+            throw new IllegalArgumentException("Lab session not found");
+        }
+        AfterCommit.run(() -> {
+            sessionToggles.put(labSessionKey(labSessionId), enabled);
+            log.info("Automatic dispatch {} for lab session {}", enabled ? "enabled" : "disabled", labSessionId);
+            if (enabled) {
+                scheduleDrain(labSessionId);
+            }
+        });
+    }
+
+    /**
+     * Current number of IN_PROGRESS requests for a TA.
+     */
+    public int currentLoad(String taId) {
+        AtomicInteger load = inProgressByTa.get(taId);
+        return load != null ? load.get() : 0;
+    }
+
+    /**
+     * Seed per-session toggles from the lab sessions and load counters from the warmed queue index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void seedLoadCounters() {
+        for (LabSession session : labSessionRepository.findByAutoDispatchIsNotNull()) {
+            sessionToggles.put(session.getId(), session.getAutoDispatch());
+        }
+
+        inProgressByTa.clear();
+        for (RequestResponse request : pendingQueueIndex.list(RequestStatus.IN_PROGRESS)) {
+            if (request.getAssignedTo() != null) {
+                adjustLoad(request.getAssignedTo(), 1);
+            }
+        }
+        log.info("Dispatcher load counters seeded for {} TAs", inProgressByTa.size());
+    }
+
+    /**
+     * Keep load counters in sync and trigger dispatching when work or capacity appears.
+     */
+    @EventListener
+    public void onAppliedChange(AppliedRequestChange change) {
+        RequestLifecycleEvent event = change.event();
+        RequestResponse request = event.request();
+
+        if (event.previousStatus() == RequestStatus.IN_PROGRESS && event.previousAssignedTo() != null) {
+            adjustLoad(event.previousAssignedTo(), -1);
+        }
+        if (!event.isDeleted() && request.getStatus() == RequestStatus.IN_PROGRESS && request.getAssignedTo() != null) {
+            adjustLoad(request.getAssignedTo(), 1);
+        }
+
+        // New work (created or released) or freed capacity (resolved) may allow a dispatch
+        boolean freedCapacity = event.previousStatus() == RequestStatus.IN_PROGRESS
+                && request.getStatus() != RequestStatus.IN_PROGRESS;
+        boolean newWork = request.getStatus() == RequestStatus.PENDING && !event.isDeleted();
+        if ((freedCapacity || newWork) && isEnabled(request.getLabSessionId())) {
+            scheduleDrain(request.getLabSessionId());
+        }
+    }
+
+    /**
+     * A TA coming online adds capacity to every enabled session.
+     */
+    @EventListener
+    @Order(10)
+    public void onSessionConnected(SessionConnectedEvent event) {
+        pendingQueueIndex.list(RequestStatus.PENDING).stream()
+                .map(RequestResponse::getLabSessionId)
+                .distinct()
+                .filter(this::isEnabled)
+                .forEach(this::scheduleDrain);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void scheduleDrain(String labSessionId) {
+        // Coalesce bursts: at most one queued drain per lab session
+        if (scheduledDrains.add(labSessionKey(labSessionId))) {
+            worker.execute(() -> drain(labSessionId));
+        }
+    }
+
+    /**
+     * Assign pending requests of a lab session, in queue order (fair order across request
+     * classes when enabled), while a TA has capacity.
+     */
+    private void drain(String labSessionId) {
+        scheduledDrains.remove(labSessionKey(labSessionId));
+        if (!pendingQueueIndex.isReady() || !isEnabled(labSessionId)) {
+            return;
+        }
+
+        List<RequestResponse> queue = weightedFairQueue.isEnabled()
+                ? weightedFairQueue.fairOrder(labSessionId, Integer.MAX_VALUE)
+                : pendingQueueIndex.list(RequestStatus.PENDING);
+        for (RequestResponse request : queue) {
+            if (!Objects.equals(request.getLabSessionId(), labSessionId)) {
+                continue;
+            }
+
+            Optional<TaPresenceRegistry.OnlineTa> ta = leastLoadedTa();
+            if (ta.isEmpty()) {
+                return;
+            }
+
+            try {
+                // On behalf of the TA, who reads the request right after the notification
+                ReadWriteRoutingDataSource.actingAs(ta.get().username(),
+                                () -> requestService.assignRequestTo(request.getId(), ta.get().id()))
+                        .ifPresent(assigned -> notifyTa(ta.get(), assigned));
+            } catch (Exception e) {
+                log.error("Automatic dispatch of request {} failed: {}", request.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private Optional<TaPresenceRegistry.OnlineTa> leastLoadedTa() {
+        return presenceRegistry.onlineTas().stream()
+                .filter(ta -> currentLoad(ta.id()) < maxInProgressPerTa)
+                .min(Comparator.comparingInt(ta -> currentLoad(ta.id())));
+    }
+
+    private void notifyTa(TaPresenceRegistry.OnlineTa ta, RequestResponse request) {
+        try {
+            messagingTemplate.convertAndSendToUser(ta.username(), "/queue/requests",
+                    WebSocketEvent.of("request:dispatched", request));
+            log.info("Request {} dispatched to TA: {}", request.getId(), ta.username());
+        } catch (Exception e) {
+            log.error("Error notifying TA {} of dispatched request: {}", ta.username(), e.getMessage());
+        }
+    }
+
+    private void adjustLoad(String taId, int delta) {
+        inProgressByTa.computeIfAbsent(taId, id -> new AtomicInteger())
+                .updateAndGet(current -> Math.max(0, current + delta));
+    }
+
+    private static String labSessionKey(String labSessionId) {
+        return labSessionId != null ? labSessionId : "";
+    }
+}
@@ -0,0 +1,94 @@
+package com.lms.service;
+
+import com.lms.dto.UserSnapshot;
+import com.lms.entity.Role;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which TAs are currently online, based on their WebSocket sessions.
+ * A TA stays online while at least one of their sessions is connected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaPresenceRegistry {
+
+    /**
+     * Online TA with the number of open WebSocket sessions.
+     */
+    public record OnlineTa(String id, String username, int sessions) {
+    }
+
+    private final UserDirectory userDirectory;
+
+    private final Map<String, String> usernamesBySession = new ConcurrentHashMap<>();
+    private final Map<String, OnlineTa> onlineByUsername = new ConcurrentHashMap<>();
+
+    @EventListener
+    @Order(0)
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = sessionId(event);
+        if (user == null || sessionId == null) {
+            return;
+        }
+
+        UserSnapshot ta = userDirectory.findByUsername(user.getName())
+                .filter(u -> u.hasRole(Role.TA))
+                .orElse(null);
+        if (ta == null) {
+            return;
+        }
+
+        usernamesBySession.put(sessionId, ta.getUsername());
+        onlineByUsername.merge(ta.getUsername(), new OnlineTa(ta.getId(), ta.getUsername(), 1),
+                (current, added) -> new OnlineTa(current.id(), current.username(), current.sessions() + 1));
+        log.debug("TA online: {}", ta.getUsername());
+    }
+
+    @EventListener
+    @Order(0)
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        String username = usernamesBySession.remove(event.getSessionId());
+        if (username == null) {
+            return;
+        }
+
+        onlineByUsername.computeIfPresent(username, (name, current) -> current.sessions() <= 1
+                ? null
+                : new OnlineTa(current.id(), current.username(), current.sessions() - 1));
+        log.debug("TA session closed: {}", username);
+    }
+
+    /**
+     * TAs with at least one connected WebSocket session.
+     */
+    public Collection<OnlineTa> onlineTas() {
+        return List.copyOf(onlineByUsername.values());
+    }
+
+    /**
+     * Check if a TA (by user ID) is currently online.
+     */
+    public boolean isOnline(String taId) {
+        return onlineByUsername.values().stream().anyMatch(ta -> ta.id().equals(taId));
+    }
+
+    private String sessionId(AbstractSubProtocolEvent event) {
+        return SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+    }
+}
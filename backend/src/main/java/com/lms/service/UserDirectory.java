@@ -0,0 +1,59 @@
+package com.lms.service;
+
+import com.lms.config.CacheConfig;
+import com.lms.dto.UserSnapshot;
+import com.lms.entity.User;
+import com.lms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Cached user lookups for the hot path (JWT filter, authorization checks, service methods).
+ *
+ * Entries are immutable UserSnapshots keyed by username, plus bare usernames keyed by id;
+ * unknown users are not cached. Call {@link #evict(User)} after changing a user's username,
+ * password or roles.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<UserSnapshot> findByUsername(String username) {
+        return userRepository.findGraphByUsername(username).map(UserSnapshot::of);
+    }
+
+    /**
+     * Username of a user id, e.g. for mapping requests and replies to responses.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERNAMES_BY_ID, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<String> findUsernameById(String id) {
+        return userRepository.findUsernameById(id);
+    }
+
+    /**
+     * Login by student/TA id instead of username; rare, so not cached.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserSnapshot> findByStudentId(String studentId) {
+        return userRepository.findByStudentIdWithRoles(studentId).map(UserSnapshot::of);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#user.username"),
+            @CacheEvict(cacheNames = CacheConfig.USERNAMES_BY_ID, key = "#user.id")
+    })
+    public void evict(User user) {
+        // Evictions are applied by the cache interceptor after commit
+    }
+}
@@ -0,0 +1,255 @@
+package com.lms.service;
+
+import com.lms.config.ReadWriteRoutingDataSource;
+import com.lms.dto.QueueEtaResponse;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.RequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incrementally maintained queue statistics used for student ETAs.
+ *
+ * Keeps exponentially weighted averages of service time (claim to resolve) per TA and
+ * per lab session, of queue wait (create to claim) and of inter-arrival time per session.
+ * Every lifecycle event updates them in O(1), so an ETA never needs an aggregate query.
+ * At startup the service and wait averages are seeded from the most recently resolved requests;
+ * after that, samples only cover changes observed by this instance. Until there are samples,
+ * the configured default service time is used.
+ */
+@Service
+@Slf4j
+public class WaitTimeEstimator {
+
+    /** Bucket aggregating all lab sessions. */
+    private static final String ALL_SESSIONS = "*";
+
+    private final QueuePositionService queuePositionService;
+    private final TaPresenceRegistry presenceRegistry;
+    private final RequestRepository requestRepository;
+    private final double alpha;
+    private final long defaultServiceTimeMs;
+    private final int seedSamples;
+
+    private final Map<String, SessionStats> statsBySession = new HashMap<>();
+    private final Map<String, Ewma> serviceTimeByTa = new HashMap<>();
+    private final Map<String, Long> claimedAt = new HashMap<>();
+
+    public WaitTimeEstimator(QueuePositionService queuePositionService,
+                             TaPresenceRegistry presenceRegistry,
+                             RequestRepository requestRepository,
+                             @Value("${lms.estimator.alpha:0.2}") double alpha,
+                             @Value("${lms.estimator.default-service-time-ms:300000}") long defaultServiceTimeMs,
+                             @Value("${lms.estimator.seed-samples:200}") int seedSamples) {
+        this.queuePositionService = queuePositionService;
+        this.presenceRegistry = presenceRegistry;
+        this.requestRepository = requestRepository;
+        this.alpha = alpha;
+        this.defaultServiceTimeMs = defaultServiceTimeMs;
+        this.seedSamples = seedSamples;
+    }
+
+    /**
+     * Seed the service and wait averages from the most recently resolved requests, oldest first,
+     * so a restarted instance does not fall back to the default service time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (seedSamples <= 0) {
+            return;
+        }
+        List<RequestRepository.ServiceTimeView> served = ReadWriteRoutingDataSource.onPrimary(() ->
+                requestRepository.findRecentlyServed(PageRequest.of(0, seedSamples)));
+
+        synchronized (this) {
+            for (RequestRepository.ServiceTimeView request : served.reversed()) {
+                long wait = toEpochMillis(request.getAssignedAt()) - toEpochMillis(request.getCreatedAt());
+                long service = toEpochMillis(request.getResolvedAt()) - toEpochMillis(request.getAssignedAt());
+                for (SessionStats stats : List.of(session(request.getLabSessionId()), allSessions())) {
+                    stats.waitTime.add(wait);
+                    stats.serviceTime.add(service);
+                }
+                if (request.getAssignedTo() != null) {
+                    serviceTimeByTa.computeIfAbsent(request.getAssignedTo(), k -> new Ewma()).add(service);
+                }
+            }
+        }
+        log.info("Wait-time estimator seeded from {} resolved requests", served.size());
+    }
+
+    /**
+     * Estimate how long a request still has to wait before a TA claims it.
+     */
+    public QueueEtaResponse estimate(String requestId, RequestStatus status) {
+        var position = queuePositionService.getPosition(requestId, status);
+        int activeTas = Math.max(1, presenceRegistry.onlineTas().size());
+        double serviceTimeMs = serviceTimeMs(position.getLabSessionId());
+
+        Long waitSeconds = null;
+        if (position.getPosition() != null) {
+            // Requests ahead plus this one, served in parallel by the active TAs
+            waitSeconds = Math.round(position.getPosition() * serviceTimeMs / activeTas / 1000.0);
+        }
+
+        return QueueEtaResponse.builder()
+                .requestId(requestId)
+                .labSessionId(position.getLabSessionId())
+                .status(position.getStatus())
+                .position(position.getPosition())
+                .estimatedWaitSeconds(waitSeconds)
+                .averageServiceTimeSeconds(serviceTimeMs / 1000.0)
+                .activeTas(activeTas)
+                .build();
+    }
+
+    /**
+     * Recent average service time of a lab session (all sessions if null), in seconds.
+     */
+    public synchronized Double averageServiceTimeSeconds(String labSessionId) {
+        SessionStats stats = lookup(labSessionId);
+        return stats != null && stats.serviceTime.isSet() ? stats.serviceTime.value / 1000.0 : null;
+    }
+
+    /**
+     * Recent average wait from creation to claim of a lab session (all sessions if null), in seconds.
+     */
+    public synchronized Double averageWaitTimeSeconds(String labSessionId) {
+        SessionStats stats = lookup(labSessionId);
+        return stats != null && stats.waitTime.isSet() ? stats.waitTime.value / 1000.0 : null;
+    }
+
+    /**
+     * Recent arrival rate of a lab session (all sessions if null), in requests per minute.
+     */
+    public synchronized Double arrivalRatePerMinute(String labSessionId) {
+        SessionStats stats = lookup(labSessionId);
+        if (stats == null || !stats.interArrival.isSet()) {
+            return null;
+        }
+        return 60_000.0 / Math.max(1.0, stats.interArrival.value);
+    }
+
+    /**
+     * Fold committed lifecycle changes into the running averages.
+     */
+    @EventListener
+    public synchronized void onAppliedChange(AppliedRequestChange change) {
+        RequestLifecycleEvent event = change.event();
+        RequestResponse request = event.request();
+        long now = System.currentTimeMillis();
+
+        if (RequestLifecycleEvent.CREATED.equals(event.type())) {
+            recordArrival(session(request.getLabSessionId()), now);
+            recordArrival(allSessions(), now);
+        } else if (event.previousStatus() == RequestStatus.PENDING && request.getStatus() == RequestStatus.IN_PROGRESS) {
+            claimedAt.put(request.getId(), now);
+            if (request.getCreatedAt() != null) {
+                long wait = now - toEpochMillis(request.getCreatedAt());
+                session(request.getLabSessionId()).waitTime.add(wait);
+                allSessions().waitTime.add(wait);
+            }
+        } else if (event.previousStatus() == RequestStatus.IN_PROGRESS && request.getStatus() != RequestStatus.IN_PROGRESS) {
+            Long started = claimedAt.remove(request.getId());
+            // Released requests were not served, only resolutions are service samples
+            if (started != null && request.getStatus() == RequestStatus.RESOLVED && !event.isDeleted()) {
+                long service = now - started;
+                session(request.getLabSessionId()).serviceTime.add(service);
+                allSessions().serviceTime.add(service);
+                if (event.previousAssignedTo() != null) {
+                    serviceTimeByTa.computeIfAbsent(event.previousAssignedTo(), k -> new Ewma()).add(service);
+                }
+            }
+        } else if (event.isDeleted()) {
+            claimedAt.remove(request.getId());
+        }
+    }
+
+    /**
+     * Expected service time for a session: the average of the online TAs' own averages,
+     * falling back to the session average and then the configured default.
+     */
+    private synchronized double serviceTimeMs(String labSessionId) {
+        double sum = 0;
+        int count = 0;
+        for (TaPresenceRegistry.OnlineTa ta : presenceRegistry.onlineTas()) {
+            Ewma taServiceTime = serviceTimeByTa.get(ta.id());
+            if (taServiceTime != null && taServiceTime.isSet()) {
+                sum += taServiceTime.value;
+                count++;
+            }
+        }
+        if (count > 0) {
+            return sum / count;
+        }
+
+        SessionStats stats = lookup(labSessionId);
+        if (stats != null && stats.serviceTime.isSet()) {
+            return stats.serviceTime.value;
+        }
+        return defaultServiceTimeMs;
+    }
+
+    private void recordArrival(SessionStats stats, long now) {
+        if (stats.lastArrivalAt > 0) {
+            stats.interArrival.add(now - stats.lastArrivalAt);
+        }
+        stats.lastArrivalAt = now;
+    }
+
+    /**
+     * Stats of a lab session, or of all sessions if null.
+     */
+    private SessionStats lookup(String labSessionId) {
+        return statsBySession.get(labSessionId != null ? labSessionId : ALL_SESSIONS);
+    }
+
+    private SessionStats allSessions() {
+        return statsBySession.computeIfAbsent(ALL_SESSIONS, k -> new SessionStats());
+    }
+
+    private SessionStats session(String labSessionId) {
+        return statsBySession.computeIfAbsent(labSessionId != null ? labSessionId : "", k -> new SessionStats());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Running averages of one lab session.
+     */
+    private final class SessionStats {
+        private final Ewma serviceTime = new Ewma();
+        private final Ewma waitTime = new Ewma();
+        private final Ewma interArrival = new Ewma();
+        private long lastArrivalAt;
+    }
+
+    /**
+     * Exponentially weighted moving average; the first sample initialises it.
+     */
+    private final class Ewma {
+        private double value;
+        private boolean set;
+
+        void add(double sample) {
+            value = set ? alpha * sample + (1 - alpha) * value : sample;
+            set = true;
+        }
+
+        boolean isSet() {
+            return set;
+        }
+    }
+}
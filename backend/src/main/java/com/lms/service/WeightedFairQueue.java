@@ -0,0 +1,282 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Weighted fair queuing across request classes (e.g. quick questions vs. debugging help).
+ *
+ * Each class has its own in-memory FCFS queue of pending requests. "Next" is decided with
+ * stride scheduling: every class has a pass value that advances by 1/weight each time one of
+ * its requests is claimed, and the backlogged class with the lowest pass goes first. A class
+ * that was idle re-enters at the current virtual time, so it cannot hoard credit.
+ *
+ * The class of a request is the "category" field of its metadata JSON; unknown or missing
+ * categories fall into the default class.
+ */
+@Component
+@Slf4j
+public class WeightedFairQueue {
+
+    private final PendingQueueIndex pendingQueueIndex;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String defaultClass;
+    private final Map<String, Integer> weights;
+
+    private final Map<String, TreeMap<QueueKey, RequestResponse>> queues = new HashMap<>();
+    private final Map<String, String> classById = new HashMap<>();
+    private final Map<String, QueueKey> keysById = new HashMap<>();
+    private final Map<String, Double> passByClass = new HashMap<>();
+    private double virtualTime;
+
+    public WeightedFairQueue(PendingQueueIndex pendingQueueIndex,
+                             ObjectMapper objectMapper,
+                             @Value("${lms.queue.fair.enabled:false}") boolean enabled,
+                             @Value("${lms.queue.fair.weights:quick=3,general=2,debugging=1}") String weights,
+                             @Value("${lms.queue.fair.default-class:general}") String defaultClass) {
+        this.pendingQueueIndex = pendingQueueIndex;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.weights = parseWeights(weights);
+        this.defaultClass = defaultClass.toLowerCase(Locale.ROOT);
+        if (!this.weights.containsKey(this.defaultClass)) {
+            throw new IllegalStateException("Default request class '" + defaultClass + "' has no weight");
+        }
+    }
+
+    /**
+     * Whether claim-next and fair listing use the class scheduler.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Configured request classes.
+     */
+    public Set<String> classes() {
+        return weights.keySet();
+    }
+
+    /**
+     * Normalise a requested category, rejecting unknown ones. Null means the default class.
+     */
+    public String validateClass(String category) {
+        if (category == null || category.isBlank()) {
+            return defaultClass;
+        }
+        String normalized = category.trim().toLowerCase(Locale.ROOT);
+        if (!weights.containsKey(normalized)) {
+            throw new IllegalArgumentException("Unknown request category: " + category + ", expected one of " + classes());
+        }
+        return normalized;
+    }
+
+    /**
+     * Metadata JSON recording a request's class.
+     */
+    public String metadataFor(String cls) {
+        return objectMapper.createObjectNode().put("category", cls).toString();
+    }
+
+    /**
+     * Class of a request, read from its metadata.
+     */
+    public String classOf(RequestResponse request) {
+        String metadata = request.getMetadata();
+        if (metadata == null || metadata.isBlank()) {
+            return defaultClass;
+        }
+        try {
+            JsonNode category = objectMapper.readTree(metadata).get("category");
+            if (category != null && weights.containsKey(category.asText().toLowerCase(Locale.ROOT))) {
+                return category.asText().toLowerCase(Locale.ROOT);
+            }
+        } catch (IOException e) {
+            log.debug("Unreadable metadata on request {}: {}", request.getId(), e.getMessage());
+        }
+        return defaultClass;
+    }
+
+    /**
+     * The next {@code limit} pending requests in fair service order, optionally for one lab session.
+     * Simulates the scheduler on a copy of the pass values; nothing is charged.
+     */
+    public synchronized List<RequestResponse> fairOrder(String labSessionId, int limit) {
+        Map<String, Double> pass = new HashMap<>();
+        Map<String, Iterator<RequestResponse>> cursors = new HashMap<>();
+        Map<String, RequestResponse> heads = new HashMap<>();
+        queues.forEach((cls, queue) -> {
+            Iterator<RequestResponse> cursor = queue.values().iterator();
+            RequestResponse head = nextInSession(cursor, labSessionId);
+            if (head != null) {
+                cursors.put(cls, cursor);
+                heads.put(cls, head);
+                pass.put(cls, Math.max(passByClass.getOrDefault(cls, 0.0), virtualTime));
+            }
+        });
+
+        List<RequestResponse> result = new ArrayList<>(Math.min(limit, 100));
+        while (result.size() < limit && !heads.isEmpty()) {
+            String next = null;
+            for (String cls : heads.keySet()) {
+                if (next == null || comesBefore(cls, next, pass, heads)) {
+                    next = cls;
+                }
+            }
+            result.add(heads.get(next));
+            pass.merge(next, 1.0 / weights.get(next), Double::sum);
+
+            RequestResponse head = nextInSession(cursors.get(next), labSessionId);
+            if (head != null) {
+                heads.put(next, head);
+            } else {
+                heads.remove(next);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of pending requests, optionally for one lab session.
+     */
+    public synchronized int size(String labSessionId) {
+        if (labSessionId == null) {
+            return classById.size();
+        }
+        int count = 0;
+        for (TreeMap<QueueKey, RequestResponse> queue : queues.values()) {
+            for (RequestResponse request : queue.values()) {
+                if (labSessionId.equals(request.getLabSessionId())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Load pending requests from the warmed queue index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public synchronized void warmUp() {
+        queues.clear();
+        classById.clear();
+        keysById.clear();
+        for (RequestResponse request : pendingQueueIndex.list(RequestStatus.PENDING)) {
+            add(request);
+        }
+        log.info("Fair queue loaded {} pending requests in {} classes", classById.size(), queues.size());
+    }
+
+    /**
+     * Track pending requests and charge a class whenever one of its requests is claimed.
+     */
+    @EventListener
+    public synchronized void onAppliedChange(AppliedRequestChange change) {
+        RequestLifecycleEvent event = change.event();
+        RequestResponse request = event.request();
+        String claimedClass = classById.get(request.getId());
+        remove(request.getId());
+
+        if (!event.isDeleted() && request.getStatus() == RequestStatus.PENDING) {
+            add(request);
+        } else if (event.previousStatus() == RequestStatus.PENDING && request.getStatus() == RequestStatus.IN_PROGRESS
+                && claimedClass != null) {
+            charge(claimedClass);
+        }
+    }
+
+    private void charge(String cls) {
+        double pass = Math.max(passByClass.getOrDefault(cls, 0.0), virtualTime);
+        virtualTime = pass;
+        passByClass.put(cls, pass + 1.0 / weights.get(cls));
+    }
+
+    private void add(RequestResponse request) {
+        String cls = classOf(request);
+        TreeMap<QueueKey, RequestResponse> queue = queues.computeIfAbsent(cls, k -> new TreeMap<>());
+        if (queue.isEmpty()) {
+            // Re-entering after idling: no credit for the time without backlog
+            passByClass.put(cls, Math.max(passByClass.getOrDefault(cls, 0.0), virtualTime));
+        }
+        QueueKey key = QueueKey.of(request);
+        queue.put(key, request);
+        classById.put(request.getId(), cls);
+        keysById.put(request.getId(), key);
+    }
+
+    private void remove(String requestId) {
+        String cls = classById.remove(requestId);
+        QueueKey key = keysById.remove(requestId);
+        if (cls != null && key != null) {
+            queues.get(cls).remove(key);
+        }
+    }
+
+    /**
+     * Lower pass first; ties go to the heavier class, then to the older request.
+     */
+    private boolean comesBefore(String cls, String other, Map<String, Double> pass,
+                                Map<String, RequestResponse> heads) {
+        int byPass = Double.compare(pass.get(cls), pass.get(other));
+        if (byPass != 0) {
+            return byPass < 0;
+        }
+        int byWeight = Integer.compare(weights.get(other), weights.get(cls));
+        if (byWeight != 0) {
+            return byWeight < 0;
+        }
+        return QueueKey.of(heads.get(cls)).compareTo(QueueKey.of(heads.get(other))) < 0;
+    }
+
+    private static RequestResponse nextInSession(Iterator<RequestResponse> cursor, String labSessionId) {
+        while (cursor.hasNext()) {
+            RequestResponse request = cursor.next();
+            if (labSessionId == null || labSessionId.equals(request.getLabSessionId())) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse a weight spec such as "quick=3,general=2,debugging=1", keeping its order.
+     */
+    public static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalStateException("Invalid request class weight: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight <= 0) {
+                throw new IllegalStateException("Request class weight must be positive: " + part);
+            }
+            parsed.put(pair[0].trim().toLowerCase(Locale.ROOT), weight);
+        }
+        return parsed;
+    }
+}
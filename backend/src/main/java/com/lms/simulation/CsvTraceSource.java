@@ -0,0 +1,122 @@
+package com.lms.simulation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes exported traces as CSV, so the simulator can run without database access.
+ *
+ * Columns: created_at,resolved_at,assigned_to,lab_session_id,status,category,assigned_at.
+ * Timestamps are epoch millis or ISO local date-times ("2025-02-03T10:15:00" or
+ * "2025-02-03 10:15:00"); empty fields mean null. Traces exported before assigned_at was
+ * recorded have only the first six columns. Rows must be ordered by created_at.
+ */
+public class CsvTraceSource implements TraceSource {
+
+    static final String HEADER = "created_at,resolved_at,assigned_to,lab_session_id,status,category,assigned_at";
+
+    private final Path path;
+
+    public CsvTraceSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void stream(Consumer<TraceRecord> sink) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.startsWith("created_at"))) {
+                    continue;
+                }
+                sink.accept(parse(line, lineNumber));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trace " + path, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return path.toString();
+    }
+
+    /**
+     * Export a trace (typically a database source) to CSV.
+     */
+    public static int export(TraceSource source, Path target) {
+        int[] count = {0};
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            source.stream(record -> {
+                try {
+                    writer.write(record.createdAt() + ","
+                            + (record.resolvedAt() != null ? record.resolvedAt() : "") + ","
+                            + field(record.assignedTo()) + ","
+                            + field(record.labSessionId()) + ","
+                            + field(record.status()) + ","
+                            + field(record.category()) + ","
+                            + (record.assignedAt() != null ? record.assignedAt() : ""));
+                    writer.newLine();
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write trace " + target, e);
+        }
+        return count[0];
+    }
+
+    private static TraceRecord parse(String line, int lineNumber) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 6 && fields.length != 7) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected 6 or 7 fields, got " + fields.length);
+        }
+        Long createdAt = timestamp(fields[0], lineNumber);
+        if (createdAt == null) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": created_at is required");
+        }
+        Long assignedAt = fields.length == 7 ? timestamp(fields[6], lineNumber) : null;
+        return new TraceRecord(createdAt, assignedAt, timestamp(fields[1], lineNumber),
+                blankToNull(fields[2]), blankToNull(fields[3]), blankToNull(fields[4]), blankToNull(fields[5]));
+    }
+
+    private static Long timestamp(String value, int lineNumber) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            if (trimmed.chars().allMatch(Character::isDigit)) {
+                return Long.parseLong(trimmed);
+            }
+            return LocalDateTime.parse(trimmed.replace(' ', 'T'), DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                    .toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid timestamp '" + value + "'");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String field(String value) {
+        return value != null ? value.replace(",", " ") : "";
+    }
+}
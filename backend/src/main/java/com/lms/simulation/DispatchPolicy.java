@@ -0,0 +1,134 @@
+package com.lms.simulation;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Order in which waiting requests are handed to free TAs during a simulation.
+ */
+public enum DispatchPolicy {
+
+    /** First come, first served, as claim-next does without fair queuing. */
+    FIFO,
+
+    /** Weighted fair queuing across request classes (stride scheduling, as in the live queue). */
+    FAIR,
+
+    /** Class with the shortest mean service time first; an upper bound on what triage could achieve. */
+    SHORTEST_CLASS_FIRST;
+
+    /**
+     * Waiting line of requests under this policy.
+     */
+    interface WaitingLine {
+        void add(Workload.Job job);
+
+        Workload.Job poll();
+
+        boolean isEmpty();
+    }
+
+    WaitingLine newLine(Workload workload, Map<String, Integer> weights) {
+        return switch (this) {
+            case FIFO -> new FifoLine();
+            case FAIR -> new FairLine(weights);
+            case SHORTEST_CLASS_FIRST -> new ShortestClassLine(workload);
+        };
+    }
+
+    private static final class FifoLine implements WaitingLine {
+        private final ArrayDeque<Workload.Job> queue = new ArrayDeque<>();
+
+        @Override
+        public void add(Workload.Job job) {
+            queue.addLast(job);
+        }
+
+        @Override
+        public Workload.Job poll() {
+            return queue.pollFirst();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+
+    private static final class ShortestClassLine implements WaitingLine {
+        private final PriorityQueue<Workload.Job> queue;
+
+        ShortestClassLine(Workload workload) {
+            Map<String, Double> means = new HashMap<>();
+            queue = new PriorityQueue<>(Comparator
+                    .comparingDouble((Workload.Job job) -> means.computeIfAbsent(job.category(), workload::meanService))
+                    .thenComparingLong(Workload.Job::arrival));
+        }
+
+        @Override
+        public void add(Workload.Job job) {
+            queue.add(job);
+        }
+
+        @Override
+        public Workload.Job poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+
+    private static final class FairLine implements WaitingLine {
+        private final Map<String, Integer> weights;
+        private final Map<String, ArrayDeque<Workload.Job>> queues = new LinkedHashMap<>();
+        private final Map<String, Double> passByClass = new HashMap<>();
+        private double virtualTime;
+        private int size;
+
+        FairLine(Map<String, Integer> weights) {
+            this.weights = weights;
+        }
+
+        @Override
+        public void add(Workload.Job job) {
+            ArrayDeque<Workload.Job> queue = queues.computeIfAbsent(job.category(), key -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                passByClass.merge(job.category(), virtualTime, Math::max);
+            }
+            queue.addLast(job);
+            size++;
+        }
+
+        @Override
+        public Workload.Job poll() {
+            String next = null;
+            double lowest = Double.MAX_VALUE;
+            for (Map.Entry<String, ArrayDeque<Workload.Job>> entry : queues.entrySet()) {
+                double pass = passByClass.get(entry.getKey());
+                if (!entry.getValue().isEmpty() && pass < lowest) {
+                    next = entry.getKey();
+                    lowest = pass;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            virtualTime = lowest;
+            passByClass.put(next, lowest + 1.0 / weights.getOrDefault(next, 1));
+            size--;
+            return queues.get(next).pollFirst();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
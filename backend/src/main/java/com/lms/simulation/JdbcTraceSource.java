@@ -0,0 +1,144 @@
+package com.lms.simulation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+/**
+ * Streams the requests table over plain JDBC, without starting the application context.
+ * Archived requests are read too, so history older than the archive cut-off is not lost.
+ *
+ * Works against MySQL or an H2 copy of the schema, whichever driver is on the classpath.
+ * Rows are read forward-only with a fetch size, so a term's worth of history is never
+ * materialised as a whole result set (for MySQL, add useCursorFetch=true to the URL).
+ */
+public class JdbcTraceSource implements TraceSource {
+
+    private static final String TRACE_COLUMNS =
+            "created_at, %s, resolved_at, assigned_to, lab_session_id, status, metadata";
+    private static final String TRACE_SQL = """
+            SELECT %1$s FROM requests WHERE created_at IS NOT NULL
+            ORDER BY created_at
+            """;
+    private static final String TRACE_WITH_ARCHIVE_SQL = """
+            SELECT %1$s FROM requests WHERE created_at IS NOT NULL
+            UNION ALL
+            SELECT %1$s FROM requests_archive WHERE created_at IS NOT NULL
+            ORDER BY created_at
+            """;
+    private static final String REQUESTS_TABLE = "requests";
+    private static final String ARCHIVE_TABLE = "requests_archive";
+    private static final String ASSIGNED_AT_COLUMN = "assigned_at";
+    private static final int FETCH_SIZE = 1000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public JdbcTraceSource(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public void stream(Consumer<TraceRecord> sink) {
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setReadOnly(true);
+            String columns = TRACE_COLUMNS.formatted(hasColumn(connection, REQUESTS_TABLE, ASSIGNED_AT_COLUMN)
+                    ? ASSIGNED_AT_COLUMN : "NULL AS " + ASSIGNED_AT_COLUMN);
+            String sql = (hasTable(connection, ARCHIVE_TABLE) ? TRACE_WITH_ARCHIVE_SQL : TRACE_SQL).formatted(columns);
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        sink.accept(new TraceRecord(
+                                rs.getTimestamp("created_at").getTime(),
+                                millis(rs.getTimestamp("assigned_at")),
+                                millis(rs.getTimestamp("resolved_at")),
+                                taOf(rs.getObject("assigned_to")),
+                                rs.getString("lab_session_id"),
+                                rs.getString("status"),
+                                categoryOf(rs.getString("metadata"))));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read request history from " + url, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return url;
+    }
+
+    /**
+     * Whether the schema has a table; exports taken before the archive existed do not.
+     */
+    private static boolean hasTable(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a table has a column; exports taken before assigned_at was added do not.
+     * The archive table gained its columns in the same migrations as the requests table.
+     */
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String[] name : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, name[0], name[1])) {
+                if (columns.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Long millis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : null;
+    }
+
+    /**
+     * TA id as text; assigned_to is BINARY(16) in the live schema and VARCHAR in older exports.
+     */
+    private static String taOf(Object assignedTo) {
+        if (assignedTo instanceof byte[] bytes) {
+            return HexFormat.of().formatHex(bytes);
+        }
+        return assignedTo != null ? assignedTo.toString() : null;
+    }
+
+    private String categoryOf(String metadata) {
+        if (metadata == null || metadata.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode category = objectMapper.readTree(metadata).get("category");
+            return category != null ? category.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
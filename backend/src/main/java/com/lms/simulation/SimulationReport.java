@@ -0,0 +1,20 @@
+package com.lms.simulation;
+
+import java.util.Locale;
+
+/**
+ * Outcome of one simulated configuration. Times are in seconds.
+ */
+public record SimulationReport(DispatchPolicy policy, int tas, int requests, double meanWait,
+                               double p50Wait, double p95Wait, double maxWait, double utilization) {
+
+    static String header() {
+        return String.format(Locale.ROOT, "%-22s %4s %9s %10s %10s %10s %10s %6s",
+                "policy", "tas", "requests", "mean(s)", "p50(s)", "p95(s)", "max(s)", "util");
+    }
+
+    String row() {
+        return String.format(Locale.ROOT, "%-22s %4d %9d %10.1f %10.1f %10.1f %10.1f %5.0f%%",
+                policy, tas, requests, meanWait, p50Wait, p95Wait, maxWait, utilization * 100);
+    }
+}
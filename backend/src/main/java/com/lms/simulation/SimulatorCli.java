@@ -0,0 +1,106 @@
+package com.lms.simulation;
+
+import com.lms.service.WeightedFairQueue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line entry point of the staffing simulator. Runs offline: no application context,
+ * no Flyway, no writes; it only reads the requests table (or an exported CSV trace).
+ *
+ * <pre>
+ * java -cp lab-management-system.jar -Dloader.main=com.lms.simulation.SimulatorCli \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --jdbc-url=jdbc:mysql://localhost:3306/lms_db --user=... --password=... \
+ *      --tas=1,2,3,4 --policies=fifo,fair
+ *
+ * Options:
+ *   --jdbc-url=URL      read history from a database (MySQL, or H2 with its driver on the classpath)
+ *   --user=, --password=  database credentials
+ *   --csv=FILE          read history from an exported trace instead
+ *   --export=FILE       write the database history to a CSV trace and exit
+ *   --session=ID        replay one lab session only
+ *   --tas=1,2,3         TA counts to simulate (default 1,2,3,4)
+ *   --policies=fifo,fair,shortest_class_first  (default: all)
+ *   --weights=quick=3,general=2,debugging=1    class weights for the fair policy
+ *   --seed=N            seed for sampling missing service times (default 42)
+ * </pre>
+ */
+public final class SimulatorCli {
+
+    private SimulatorCli() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+
+        TraceSource source;
+        if (options.containsKey("csv")) {
+            source = new CsvTraceSource(Path.of(options.get("csv")));
+        } else if (options.containsKey("jdbc-url")) {
+            source = new JdbcTraceSource(options.get("jdbc-url"), options.get("user"), options.get("password"));
+        } else {
+            System.err.println("Either --jdbc-url or --csv is required");
+            System.exit(2);
+            return;
+        }
+
+        if (options.containsKey("export")) {
+            int exported = CsvTraceSource.export(source, Path.of(options.get("export")));
+            System.out.printf("Exported %d requests to %s%n", exported, options.get("export"));
+            return;
+        }
+
+        long started = System.nanoTime();
+        Workload workload = Workload.from(source, options.get("session"),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+        LabSimulator simulator = new LabSimulator(workload,
+                WeightedFairQueue.parseWeights(options.getOrDefault("weights", "quick=3,general=2,debugging=1")));
+
+        System.out.printf("Replaying %d requests in %d lab sessions from %s%n",
+                workload.size(), workload.jobsBySession().size(), source.describe());
+        System.out.println(SimulationReport.header());
+        for (DispatchPolicy policy : policies(options.get("policies"))) {
+            for (int tas : tas(options.getOrDefault("tas", "1,2,3,4"))) {
+                System.out.println(simulator.run(tas, policy).row());
+            }
+        }
+        System.out.printf("Done in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+
+    private static List<DispatchPolicy> policies(String spec) {
+        if (spec == null) {
+            return List.of(DispatchPolicy.values());
+        }
+        List<DispatchPolicy> policies = new ArrayList<>();
+        for (String name : spec.split(",")) {
+            policies.add(DispatchPolicy.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return policies;
+    }
+
+    private static List<Integer> tas(String spec) {
+        List<Integer> counts = new ArrayList<>();
+        for (String count : spec.split(",")) {
+            counts.add(Integer.parseInt(count.trim()));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lms.simulation;
+
+/**
+ * One historical help request, as read from the requests table or an exported trace.
+ *
+ * @param createdAt     arrival time, epoch millis
+ * @param assignedAt    when the handling TA claimed it, epoch millis, or null if unknown
+ * @param resolvedAt    resolution time, epoch millis, or null if never resolved
+ * @param assignedTo    TA who handled the request, or null
+ * @param labSessionId  lab session the request was raised in, or null
+ * @param status        final status (PENDING, IN_PROGRESS, RESOLVED, CANCELLED)
+ * @param category      request class from metadata, or null
+ */
+public record TraceRecord(long createdAt, Long assignedAt, Long resolvedAt, String assignedTo, String labSessionId,
+                          String status, String category) {
+
+    public boolean isCancelled() {
+        return "CANCELLED".equals(status);
+    }
+}
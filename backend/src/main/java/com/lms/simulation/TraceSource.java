@@ -0,0 +1,19 @@
+package com.lms.simulation;
+
+import java.util.function.Consumer;
+
+/**
+ * Streams historical requests into the simulator, ordered by creation time.
+ */
+public interface TraceSource {
+
+    /**
+     * Feed every record to the sink, oldest first.
+     */
+    void stream(Consumer<TraceRecord> sink);
+
+    /**
+     * Human-readable description of where the trace comes from.
+     */
+    String describe();
+}
@@ -0,0 +1,157 @@
+package com.lms.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Arrivals and service times reconstructed from a request trace, grouped by lab session.
+ *
+ * Service starts when the TA claimed the request (assigned_at). History recorded before claims
+ * were timestamped has only arrival and departure, so there service time is inferred per TA: a
+ * request's service started at the later of its arrival and that TA's previous resolution.
+ * Requests without a usable service time (still open, unassigned, or resolved without a claim)
+ * draw one from the empirical distribution of their class, falling back to all classes.
+ * Cancelled requests never needed a TA and are left out.
+ */
+public final class Workload {
+
+    /**
+     * One request to replay: arrival time, service time (millis) and request class.
+     */
+    public record Job(long arrival, long service, String category) {
+    }
+
+    static final String DEFAULT_CATEGORY = "general";
+
+    private final Map<String, List<Job>> jobsBySession;
+    private final Map<String, Double> meanServiceByCategory;
+    private final int size;
+
+    private Workload(Map<String, List<Job>> jobsBySession, Map<String, Double> meanServiceByCategory) {
+        this.jobsBySession = jobsBySession;
+        this.meanServiceByCategory = meanServiceByCategory;
+        this.size = jobsBySession.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Build a workload from a trace, optionally restricted to one lab session.
+     */
+    public static Workload from(TraceSource source, String labSessionId, long seed) {
+        List<TraceRecord> records = new ArrayList<>();
+        source.stream(record -> {
+            if (!record.isCancelled() && (labSessionId == null || labSessionId.equals(record.labSessionId()))) {
+                records.add(record);
+            }
+        });
+
+        long[] service = inferServiceTimes(records);
+        Map<String, long[]> samples = serviceSamples(records, service);
+        long[] allSamples = samples.get(null);
+        if (allSamples == null || allSamples.length == 0) {
+            throw new IllegalArgumentException("Trace has no resolved requests to derive service times from");
+        }
+
+        Random random = new Random(seed);
+        Map<String, List<Job>> jobsBySession = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            TraceRecord record = records.get(i);
+            String category = categoryOf(record);
+            long jobService = service[i];
+            if (jobService <= 0) {
+                long[] pool = samples.getOrDefault(category, allSamples);
+                jobService = pool[random.nextInt(pool.length)];
+            }
+            jobsBySession.computeIfAbsent(sessionKey(record.labSessionId()), key -> new ArrayList<>())
+                    .add(new Job(record.createdAt(), jobService, category));
+        }
+        jobsBySession.values().forEach(jobs -> jobs.sort(Comparator.comparingLong(Job::arrival)));
+
+        Map<String, Double> means = new HashMap<>();
+        samples.forEach((category, values) -> {
+            if (category != null) {
+                means.put(category, Arrays.stream(values).average().orElse(0));
+            }
+        });
+        return new Workload(jobsBySession, means);
+    }
+
+    /**
+     * Jobs per lab session, each list ordered by arrival.
+     */
+    public Map<String, List<Job>> jobsBySession() {
+        return jobsBySession;
+    }
+
+    /**
+     * Mean inferred service time of a request class, or the overall mean if unknown.
+     */
+    public double meanService(String category) {
+        Double mean = meanServiceByCategory.get(category);
+        if (mean != null) {
+            return mean;
+        }
+        return meanServiceByCategory.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Service time per record, in millis; zero or less where there is none to observe.
+     */
+    static long[] inferServiceTimes(List<TraceRecord> records) {
+        long[] service = new long[records.size()];
+        Map<String, List<Integer>> byTa = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            TraceRecord record = records.get(i);
+            if (record.assignedTo() != null && record.resolvedAt() != null) {
+                byTa.computeIfAbsent(record.assignedTo(), ta -> new ArrayList<>()).add(i);
+            }
+        }
+        for (List<Integer> handled : byTa.values()) {
+            handled.sort(Comparator.comparingLong(i -> records.get(i).resolvedAt()));
+            long previousResolution = Long.MIN_VALUE;
+            for (int i : handled) {
+                TraceRecord record = records.get(i);
+                long start = record.assignedAt() != null
+                        ? record.assignedAt()
+                        : Math.max(record.createdAt(), previousResolution);
+                service[i] = record.resolvedAt() - start;
+                previousResolution = record.resolvedAt();
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Observed service times per class; the null key holds all of them.
+     */
+    private static Map<String, long[]> serviceSamples(List<TraceRecord> records, long[] service) {
+        Map<String, List<Long>> grouped = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (service[i] > 0) {
+                grouped.computeIfAbsent(categoryOf(records.get(i)), key -> new ArrayList<>()).add(service[i]);
+                grouped.computeIfAbsent(null, key -> new ArrayList<>()).add(service[i]);
+            }
+        }
+        Map<String, long[]> samples = new HashMap<>();
+        grouped.forEach((category, values) ->
+                samples.put(category, values.stream().mapToLong(Long::longValue).toArray()));
+        return samples;
+    }
+
+    private static String categoryOf(TraceRecord record) {
+        return record.category() != null ? record.category().toLowerCase(Locale.ROOT) : DEFAULT_CATEGORY;
+    }
+
+    private static String sessionKey(String labSessionId) {
+        return labSessionId != null ? labSessionId : "";
+    }
+}
@@ -0,0 +1,13 @@
+-- V10__Add_lab_session_lifecycle.sql
+-- Lab session lifecycle (open/closed), persisted automatic dispatch toggle,
+-- and an index for session-scoped queue reads and bulk close.
+
+ALTER TABLE lab_sessions
+    ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    ADD COLUMN auto_dispatch BOOLEAN NULL,
+    ADD COLUMN closed_at TIMESTAMP NULL;
+
+CREATE INDEX idx_lab_sessions_status_start ON lab_sessions(status, start_time);
+
+-- Session queue: WHERE lab_session_id = ? AND status = ? ORDER BY priority, created_at, id
+CREATE INDEX idx_requests_session_status ON requests(lab_session_id, status, priority, created_at);
@@ -0,0 +1,72 @@
+-- V11__Use_binary_time_ordered_ids.sql
+-- Store user, request and reply ids (and the columns referencing them) as BINARY(16)
+-- instead of VARCHAR(36). Existing ids are converted with UUID_TO_BIN (no byte swap), which
+-- keeps byte order equal to the canonical string order; new ids are UUIDv7, so inserts are
+-- append-mostly on the primary key. Lab session ids stay VARCHAR ('DEFAULT' is not a UUID).
+--
+-- Each column goes VARCHAR -> VARBINARY(36) (same bytes) -> UUID_TO_BIN -> BINARY(16), which
+-- keeps every index that contains it. Foreign keys are dropped first and recreated at the end.
+
+ALTER TABLE user_roles DROP FOREIGN KEY user_roles_ibfk_1;
+ALTER TABLE refresh_tokens DROP FOREIGN KEY refresh_tokens_ibfk_1;
+ALTER TABLE audit_logs DROP FOREIGN KEY audit_logs_ibfk_1;
+ALTER TABLE requests DROP FOREIGN KEY requests_ibfk_1, DROP FOREIGN KEY requests_ibfk_3;
+ALTER TABLE replies DROP FOREIGN KEY replies_ibfk_1, DROP FOREIGN KEY replies_ibfk_2;
+
+-- users
+ALTER TABLE users MODIFY id VARBINARY(36) NOT NULL;
+UPDATE users SET id = UUID_TO_BIN(CONVERT(id USING ascii));
+ALTER TABLE users MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE user_roles MODIFY user_id VARBINARY(36) NOT NULL;
+UPDATE user_roles SET user_id = UUID_TO_BIN(CONVERT(user_id USING ascii));
+ALTER TABLE user_roles MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE refresh_tokens MODIFY user_id VARBINARY(36) NOT NULL;
+UPDATE refresh_tokens SET user_id = UUID_TO_BIN(CONVERT(user_id USING ascii));
+ALTER TABLE refresh_tokens MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE audit_logs MODIFY performed_by VARBINARY(36) NULL;
+UPDATE audit_logs SET performed_by = UUID_TO_BIN(CONVERT(performed_by USING ascii)) WHERE performed_by IS NOT NULL;
+ALTER TABLE audit_logs MODIFY performed_by BINARY(16) NULL;
+
+-- requests
+ALTER TABLE requests
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY student_id VARBINARY(36) NOT NULL,
+    MODIFY assigned_to VARBINARY(36) NULL;
+UPDATE requests SET
+    id = UUID_TO_BIN(CONVERT(id USING ascii)),
+    student_id = UUID_TO_BIN(CONVERT(student_id USING ascii)),
+    assigned_to = UUID_TO_BIN(CONVERT(assigned_to USING ascii));
+ALTER TABLE requests
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY student_id BINARY(16) NOT NULL,
+    MODIFY assigned_to BINARY(16) NULL;
+
+-- replies
+ALTER TABLE replies
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY request_id VARBINARY(36) NOT NULL,
+    MODIFY ta_id VARBINARY(36) NOT NULL;
+UPDATE replies SET
+    id = UUID_TO_BIN(CONVERT(id USING ascii)),
+    request_id = UUID_TO_BIN(CONVERT(request_id USING ascii)),
+    ta_id = UUID_TO_BIN(CONVERT(ta_id USING ascii));
+ALTER TABLE replies
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY request_id BINARY(16) NOT NULL,
+    MODIFY ta_id BINARY(16) NOT NULL;
+
+ALTER TABLE user_roles
+    ADD CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE refresh_tokens
+    ADD CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE audit_logs
+    ADD CONSTRAINT fk_audit_logs_user FOREIGN KEY (performed_by) REFERENCES users(id) ON DELETE SET NULL;
+ALTER TABLE requests
+    ADD CONSTRAINT fk_requests_student FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_requests_assigned_to FOREIGN KEY (assigned_to) REFERENCES users(id) ON DELETE SET NULL;
+ALTER TABLE replies
+    ADD CONSTRAINT fk_replies_request FOREIGN KEY (request_id) REFERENCES requests(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_replies_ta FOREIGN KEY (ta_id) REFERENCES users(id) ON DELETE CASCADE;
@@ -0,0 +1,33 @@
+-- V12__Create_archive_tables.sql
+-- Cold storage for finished requests. The archival job moves RESOLVED/CANCELLED requests
+-- older than lms.archive.min-age-days, with their replies, out of the hot tables in small
+-- batches. No foreign keys: archived rows must never block or cascade from live changes.
+
+CREATE TABLE requests_archive (
+    id BINARY(16) PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    description TEXT NOT NULL,
+    student_id BINARY(16) NOT NULL,
+    lab_session_id VARCHAR(36),
+    status VARCHAR(20) NOT NULL,
+    priority BIGINT NOT NULL,
+    assigned_to BINARY(16),
+    created_at TIMESTAMP NOT NULL,
+    resolved_at TIMESTAMP NULL,
+    metadata JSON,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- History: WHERE student_id = ? [AND status = ?] ORDER BY created_at DESC, id DESC
+    INDEX idx_requests_archive_student_created (student_id, created_at),
+    INDEX idx_requests_archive_student_status (student_id, status, created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE replies_archive (
+    id BINARY(16) PRIMARY KEY,
+    request_id BINARY(16) NOT NULL,
+    ta_id BINARY(16) NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_replies_archive_request_created (request_id, created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
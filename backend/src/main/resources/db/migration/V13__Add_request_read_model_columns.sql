@@ -0,0 +1,42 @@
+-- V13__Add_request_read_model_columns.sql
+-- Denormalised read model on the request row itself: usernames are copied in when a request is
+-- created or claimed, and replies maintain a counter and last-reply timestamp. List endpoints
+-- read everything from one index scan of requests instead of joining users and replies per row.
+-- Usernames are immutable in this application, so the copies never go stale.
+
+ALTER TABLE requests
+    ADD COLUMN student_username VARCHAR(50) NULL AFTER student_id,
+    ADD COLUMN assigned_to_username VARCHAR(50) NULL AFTER assigned_to,
+    ADD COLUMN reply_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_reply_at TIMESTAMP NULL;
+
+ALTER TABLE requests_archive
+    ADD COLUMN student_username VARCHAR(50) NULL AFTER student_id,
+    ADD COLUMN assigned_to_username VARCHAR(50) NULL AFTER assigned_to,
+    ADD COLUMN reply_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_reply_at TIMESTAMP NULL;
+
+-- Backfill from the normalised tables
+UPDATE requests r
+    JOIN users s ON s.id = r.student_id
+    LEFT JOIN users a ON a.id = r.assigned_to
+SET r.student_username = s.username,
+    r.assigned_to_username = a.username;
+
+UPDATE requests r
+    JOIN (SELECT request_id, COUNT(*) AS reply_count, MAX(created_at) AS last_reply_at
+          FROM replies GROUP BY request_id) rp ON rp.request_id = r.id
+SET r.reply_count = rp.reply_count,
+    r.last_reply_at = rp.last_reply_at;
+
+UPDATE requests_archive r
+    JOIN users s ON s.id = r.student_id
+    LEFT JOIN users a ON a.id = r.assigned_to
+SET r.student_username = s.username,
+    r.assigned_to_username = a.username;
+
+UPDATE requests_archive r
+    JOIN (SELECT request_id, COUNT(*) AS reply_count, MAX(created_at) AS last_reply_at
+          FROM replies_archive GROUP BY request_id) rp ON rp.request_id = r.id
+SET r.reply_count = rp.reply_count,
+    r.last_reply_at = rp.last_reply_at;
@@ -0,0 +1,56 @@
+-- V14__Move_large_bodies_to_side_tables.sql
+-- Request descriptions and reply messages keep only a 1000-character preview in the hot row.
+-- Longer bodies live in request_bodies / reply_bodies, zlib-compressed when large, and are read
+-- only by the request detail and reply thread endpoints. Like the archive tables the side tables
+-- have no foreign keys: bodies stay in place when their request is moved to the archive.
+--
+-- content is a zlib stream when compressed, otherwise plain UTF-8. MySQL COMPRESS() writes a
+-- 4-byte length header followed by a zlib stream, so existing rows are migrated by stripping it.
+
+CREATE TABLE request_bodies (
+    request_id BINARY(16) PRIMARY KEY,
+    compressed BOOLEAN NOT NULL,
+    original_bytes INT NOT NULL,
+    content MEDIUMBLOB NOT NULL
+) ENGINE=InnoDB;
+
+CREATE TABLE reply_bodies (
+    reply_id BINARY(16) PRIMARY KEY,
+    compressed BOOLEAN NOT NULL,
+    original_bytes INT NOT NULL,
+    content MEDIUMBLOB NOT NULL
+) ENGINE=InnoDB;
+
+ALTER TABLE requests ADD COLUMN description_truncated BOOLEAN NOT NULL DEFAULT FALSE AFTER description;
+ALTER TABLE requests_archive ADD COLUMN description_truncated BOOLEAN NOT NULL DEFAULT FALSE AFTER description;
+
+-- Hot tables
+INSERT INTO request_bodies (request_id, compressed, original_bytes, content)
+SELECT id, TRUE, LENGTH(description), SUBSTRING(COMPRESS(description), 5)
+FROM requests WHERE CHAR_LENGTH(description) > 1000;
+
+UPDATE requests SET description = LEFT(description, 1000), description_truncated = TRUE
+WHERE CHAR_LENGTH(description) > 1000;
+
+INSERT INTO reply_bodies (reply_id, compressed, original_bytes, content)
+SELECT id, TRUE, LENGTH(message), SUBSTRING(COMPRESS(message), 5)
+FROM replies WHERE CHAR_LENGTH(message) > 1000;
+
+UPDATE replies SET message = LEFT(message, 1000) WHERE CHAR_LENGTH(message) > 1000;
+
+ALTER TABLE requests MODIFY description VARCHAR(1000) NOT NULL;
+ALTER TABLE replies MODIFY message VARCHAR(1000) NOT NULL;
+
+-- Archive tables keep their TEXT columns but hold previews too, so archived rows stay small
+INSERT INTO request_bodies (request_id, compressed, original_bytes, content)
+SELECT id, TRUE, LENGTH(description), SUBSTRING(COMPRESS(description), 5)
+FROM requests_archive WHERE CHAR_LENGTH(description) > 1000;
+
+UPDATE requests_archive SET description = LEFT(description, 1000), description_truncated = TRUE
+WHERE CHAR_LENGTH(description) > 1000;
+
+INSERT INTO reply_bodies (reply_id, compressed, original_bytes, content)
+SELECT id, TRUE, LENGTH(message), SUBSTRING(COMPRESS(message), 5)
+FROM replies_archive WHERE CHAR_LENGTH(message) > 1000;
+
+UPDATE replies_archive SET message = LEFT(message, 1000) WHERE CHAR_LENGTH(message) > 1000;
@@ -0,0 +1,5 @@
+-- Requests a TA placed by hand (drag-and-drop move or explicit priority) keep that place:
+-- deadline escalation skips them instead of undoing the TA's decision.
+
+ALTER TABLE requests
+    ADD COLUMN hand_ranked BOOLEAN NOT NULL DEFAULT FALSE AFTER priority;
@@ -0,0 +1,23 @@
+-- Replies get the flag requests got in V14: message_truncated marks a reply whose full message
+-- lives in reply_bodies, so reading a thread only looks up the bodies that exist.
+
+ALTER TABLE replies ADD COLUMN message_truncated BOOLEAN NOT NULL DEFAULT FALSE AFTER message;
+ALTER TABLE replies_archive ADD COLUMN message_truncated BOOLEAN NOT NULL DEFAULT FALSE AFTER message;
+
+UPDATE replies r JOIN reply_bodies b ON b.reply_id = r.id SET r.message_truncated = TRUE;
+UPDATE replies_archive r JOIN reply_bodies b ON b.reply_id = r.id SET r.message_truncated = TRUE;
+
+-- The side tables have no foreign keys, and InnoDB cascades do not fire triggers on the child
+-- tables. Deleting a user cascades to their requests and to the replies on them or written by
+-- them, so their bodies are dropped here, while the rows they belong to still exist.
+DELIMITER //
+CREATE TRIGGER trg_users_delete_bodies BEFORE DELETE ON users FOR EACH ROW
+BEGIN
+    DELETE b FROM reply_bodies b JOIN replies r ON r.id = b.reply_id
+    WHERE r.ta_id = OLD.id;
+    DELETE b FROM reply_bodies b JOIN replies r ON r.id = b.reply_id JOIN requests q ON q.id = r.request_id
+    WHERE q.student_id = OLD.id;
+    DELETE b FROM request_bodies b JOIN requests q ON q.id = b.request_id
+    WHERE q.student_id = OLD.id;
+END //
+DELIMITER ;
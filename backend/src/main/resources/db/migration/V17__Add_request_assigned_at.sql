@@ -0,0 +1,10 @@
+-- When a TA claimed a request. Together with resolved_at it gives the claim-to-resolve service
+-- time, so the wait-time estimator can start from recent history after a restart instead of
+-- the configured default. Rows claimed before this migration stay NULL and are not sampled.
+
+ALTER TABLE requests
+    ADD COLUMN assigned_at TIMESTAMP NULL AFTER assigned_to_username,
+    ADD INDEX idx_requests_status_resolved (status, resolved_at);
+
+ALTER TABLE requests_archive
+    ADD COLUMN assigned_at TIMESTAMP NULL AFTER assigned_to_username;
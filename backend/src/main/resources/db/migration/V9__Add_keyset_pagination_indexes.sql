@@ -0,0 +1,9 @@
+-- V9__Add_keyset_pagination_indexes.sql
+-- Composite indexes backing keyset (cursor) pagination.
+-- Queue order (status, priority, created_at, id) is already covered by idx_status_priority.
+
+-- Student history: WHERE student_id = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_requests_student_created ON requests(student_id, created_at);
+
+-- Reply pages: WHERE request_id = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_replies_request_created ON replies(request_id, created_at);
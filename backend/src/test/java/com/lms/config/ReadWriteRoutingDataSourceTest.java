@@ -0,0 +1,211 @@
+package com.lms.config;
+
+import com.lms.service.PendingQueueIndex;
+import com.lms.service.RequestMutationPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two H2 databases standing in for primary and replica; each one answers
+ * "which database am I" from its own marker row.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String WHO_AM_I = "SELECT name FROM marker";
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = database("primary");
+        replica = database("replica");
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(new ReadYourWritesTracker(60_000));
+        routing.setTargetDataSources(Map.<Object, Object>of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        // The proxy probes one connection for its defaults on first use; do that anonymously,
+        // as application startup does, so it is not taken for a user's write
+        dataSource.getConnection().close();
+
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO items (name) VALUES ('written')"));
+
+        assertThat(count(primary)).isEqualTo(1);
+        assertThat(count(replica)).isZero();
+    }
+
+    @Test
+    void readOnlyCallsGoToReplica() {
+        assertThat(routeOf(readOnly)).isEqualTo("replica");
+        assertThat(routeOf(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsAfterOwnWriteStayOnPrimary() {
+        loginAs("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO items (name) VALUES ('alice')"));
+        assertThat(routeOf(readOnly)).isEqualTo("primary");
+
+        loginAs("bob");
+        assertThat(routeOf(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotMakeUserSticky() {
+        loginAs("carol");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO items (name) VALUES ('carol')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(routeOf(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void writesCommittedByThePipelineKeepTheSubmitterOnPrimary() throws InterruptedException {
+        RequestMutationPipeline pipeline = pipeline();
+        try {
+            loginAs("dave");
+            pipeline.execute(null, () -> jdbcTemplate.update("INSERT INTO items (name) VALUES ('dave')"));
+
+            assertThat(routeOf(readOnly)).isEqualTo("primary");
+            loginAs("erin");
+            assertThat(routeOf(readOnly)).isEqualTo("replica");
+
+            // Hold the writer so that both users' writes are committed in one group
+            CountDownLatch release = new CountDownLatch(1);
+            Thread holder = submitAs("holder", pipeline, () -> await(release));
+            awaitWaiting(holder);
+            Thread frank = submitAs("frank", pipeline,
+                    () -> jdbcTemplate.update("INSERT INTO items (name) VALUES ('frank')"));
+            Thread grace = submitAs("grace", pipeline,
+                    () -> jdbcTemplate.update("INSERT INTO items (name) VALUES ('grace')"));
+            awaitWaiting(frank);
+            awaitWaiting(grace);
+            release.countDown();
+            for (Thread thread : new Thread[]{holder, frank, grace}) {
+                thread.join();
+            }
+
+            for (String username : new String[]{"frank", "grace"}) {
+                loginAs(username);
+                assertThat(routeOf(readOnly)).isEqualTo("primary");
+            }
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void writesMadeOnBehalfOfAUserKeepThemOnPrimary() {
+        ReadWriteRoutingDataSource.actingAs("heidi", () -> readWrite.execute(status ->
+                jdbcTemplate.update("INSERT INTO items (name) VALUES ('heidi')")));
+
+        assertThat(routeOf(readOnly)).isEqualTo("replica");
+        loginAs("heidi");
+        assertThat(routeOf(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void stateRebuildingReadsGoToPrimary() {
+        String route = readOnly.execute(status -> ReadWriteRoutingDataSource.<String>onPrimary(this::whoAmI));
+
+        assertThat(route).isEqualTo("primary");
+        assertThat(routeOf(readOnly)).isEqualTo("replica");
+    }
+
+    private RequestMutationPipeline pipeline() {
+        return new RequestMutationPipeline(transactionManager, new PendingQueueIndex(event -> {
+        }), null, null, true, 16, 16, 10_000);
+    }
+
+    private static Thread submitAs(String username, RequestMutationPipeline pipeline, Runnable mutation) {
+        Thread thread = new Thread(() -> {
+            loginAs(username);
+            pipeline.execute(null, () -> {
+                mutation.run();
+                return null;
+            });
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String routeOf(TransactionTemplate transaction) {
+        return transaction.execute(status -> whoAmI());
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject(WHO_AM_I, String.class);
+    }
+
+    private static int count(DataSource database) {
+        return new JdbcTemplate(database).queryForObject("SELECT COUNT(*) FROM items", Integer.class);
+    }
+
+    private static void loginAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_TA"));
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.execute("CREATE TABLE items (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,137 @@
+package com.lms.diagnostics;
+
+import com.lms.entity.TimeOrderedUuid;
+import com.lms.entity.UuidBinaryConverter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert-throughput benchmark of the request id layouts: random UUIDv4 in VARCHAR(36) (the
+ * layout before V11) against UUIDv7 in BINARY(16) (after V11).
+ *
+ * Each run creates a scratch table shaped like requests (primary key, indexed student id,
+ * payload), inserts the same number of rows in JDBC batches, reports rows per second and the
+ * InnoDB data and index sizes, then drops the table. Nothing else in the schema is touched.
+ *
+ * Lives with the tests so it stays out of the application jar; run it from the test classpath:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.lms.diagnostics.IdInsertBenchmark \
+ *     -Dexec.args="--jdbc-url=jdbc:mysql://localhost:3306/scratch?rewriteBatchedStatements=true \
+ *                  --user=... --password=... --rows=500000 --batch=1000"
+ * </pre>
+ */
+public final class IdInsertBenchmark {
+
+    private static final int STUDENTS = 2000;
+
+    private record Layout(String name, String table, String columnType, Supplier<String> ids, boolean binary) {
+    }
+
+    private IdInsertBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        if (!options.containsKey("jdbc-url")) {
+            System.err.println("--jdbc-url is required");
+            System.exit(2);
+            return;
+        }
+        int rows = Integer.parseInt(options.getOrDefault("rows", "200000"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "1000"));
+
+        Layout[] layouts = {
+                new Layout("uuid4 VARCHAR(36)", "bench_ids_varchar", "VARCHAR(36)",
+                        () -> UUID.randomUUID().toString(), false),
+                new Layout("uuid7 BINARY(16)", "bench_ids_binary", "BINARY(16)",
+                        TimeOrderedUuid::next, true)
+        };
+
+        try (Connection connection = DriverManager.getConnection(options.get("jdbc-url"),
+                options.get("user"), options.get("password"))) {
+            System.out.printf("%-20s %10s %12s %12s %12s%n", "layout", "rows", "rows/s", "data(KiB)", "index(KiB)");
+            for (Layout layout : layouts) {
+                run(connection, layout, rows, batch);
+            }
+        }
+    }
+
+    private static void run(Connection connection, Layout layout, int rows, int batch) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + layout.table());
+            statement.execute("CREATE TABLE " + layout.table() + " ("
+                    + "id " + layout.columnType() + " PRIMARY KEY, "
+                    + "student_id " + layout.columnType() + " NOT NULL, "
+                    + "title VARCHAR(200) NOT NULL, "
+                    + "INDEX idx_student_id (student_id)"
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+        }
+
+        UuidBinaryConverter converter = new UuidBinaryConverter();
+        String[] students = new String[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++) {
+            students[i] = UUID.randomUUID().toString();
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + layout.table() + " (id, student_id, title) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                String id = layout.ids().get();
+                String student = students[i % STUDENTS];
+                if (layout.binary()) {
+                    insert.setBytes(1, converter.convertToDatabaseColumn(id));
+                    insert.setBytes(2, converter.convertToDatabaseColumn(student));
+                } else {
+                    insert.setString(1, id);
+                    insert.setString(2, student);
+                }
+                insert.setString(3, "Benchmark request " + i);
+                insert.addBatch();
+                if ((i + 1) % batch == 0 || i == rows - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long dataBytes = 0;
+        long indexBytes = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + layout.table());
+            try (ResultSet rs = statement.executeQuery("SELECT data_length, index_length FROM information_schema.tables "
+                    + "WHERE table_schema = DATABASE() AND table_name = '" + layout.table() + "'")) {
+                if (rs.next()) {
+                    dataBytes = rs.getLong(1);
+                    indexBytes = rs.getLong(2);
+                }
+            }
+            statement.execute("DROP TABLE " + layout.table());
+        }
+
+        System.out.printf("%-20s %10d %12.0f %12d %12d%n", layout.name(), rows, rows / seconds,
+                dataBytes / 1024, indexBytes / 1024);
+    }
+}
@@ -0,0 +1,495 @@
+package com.lms.diagnostics;
+
+import com.lms.entity.LabSessionStatus;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.TimeOrderedUuid;
+import com.lms.repository.ArchivedReplyRepository;
+import com.lms.repository.ArchivedRequestRepository;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.RefreshTokenRepository;
+import com.lms.repository.ReplyRepository;
+import com.lms.repository.RequestRepository;
+import com.lms.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-plan regression check for every query method declared on the repositories.
+ *
+ * A MySQL 8 container is migrated by Flyway and seeded with a fixed dataset sized so that a
+ * full scan or filesort of a big table clearly exceeds {@link #MAX_ROWS}. Each repository method
+ * is then called with sample arguments inside a rolled-back transaction, the SQL it executes is
+ * captured by {@link StatementRecorder}, and every SELECT/UPDATE/DELETE is run through EXPLAIN
+ * with the same parameters. A plan step that scans a whole table or index, or sorts with a
+ * filesort, over more than MAX_ROWS estimated rows fails that method's test. Indexes whose
+ * columns are a left prefix of another index on the same table fail a separate test: they cost
+ * every insert and never serve a query the longer index cannot.
+ *
+ * Every plan is written to target/query-plan-audit.txt under the server version, so the EXPLAIN
+ * output a schema change was judged on can be kept with it. Plans differ between MySQL 8 and
+ * MariaDB; only a MySQL 8 report counts for the production schema.
+ *
+ * Skipped without Docker. To use an existing, empty MySQL database instead, pass
+ * -Dplan-audit.url=jdbc:mysql://host:3306/scratch -Dplan-audit.username=... -Dplan-audit.password=...
+ */
+@SpringBootTest
+@EnabledIf("databaseAvailable")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanAuditTest {
+
+    /** Estimated rows above which a full scan or filesort is a violation. */
+    private static final long MAX_ROWS = 1000;
+
+    /**
+     * Background reloads that read a whole covering index on purpose, once per reconcile interval,
+     * so that no request path has to.
+     */
+    private static final Set<String> INTENDED_FULL_SCANS = Set.of(
+            "RequestRepository.countGroupedByLabSessionAndStatus/0");
+
+    private static final int TAS = 20;
+    private static final int STUDENTS = 2_000;
+    private static final int LAB_SESSIONS = 40;
+    private static final int REQUESTS = 20_000;
+    private static final int ARCHIVED_REQUESTS = 20_000;
+    private static final long SEED = 42;
+
+    private static final String NIL_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String URL_PROPERTY = "plan-audit.url";
+    private static final Path REPORT = Path.of("target", "query-plan-audit.txt");
+
+    private static final String REDUNDANT_INDEX_SQL =
+            "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME FROM information_schema.STATISTICS "
+            + "WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+
+    private static MySQLContainer<?> mysql;
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    private record Index(String table, String name, boolean unique, List<String> columns) {
+    }
+
+    /**
+     * Argument values taken from the database: an id per repository entity and the other keys queries filter on.
+     */
+    private record Samples(Map<Class<?>, String> entityIds, String studentId, String taId, String labSessionId,
+                           String username, String email, String token) {
+    }
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private StatementRecorder recorder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private Samples samples;
+    private final List<String> report = new ArrayList<>();
+
+    static boolean databaseAvailable() {
+        return System.getProperty(URL_PROPERTY) != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (System.getProperty(URL_PROPERTY) != null) {
+            registry.add("spring.datasource.url", () -> System.getProperty(URL_PROPERTY));
+            registry.add("spring.datasource.username", () -> System.getProperty("plan-audit.username", "root"));
+            registry.add("spring.datasource.password", () -> System.getProperty("plan-audit.password", ""));
+            return;
+        }
+        if (mysql == null) {
+            mysql = new MySQLContainer<>("mysql:8.0");
+            mysql.start();
+        }
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @BeforeAll
+    void seedAndAnalyze() {
+        seed();
+        // Fresh statistics, otherwise row estimates reflect an empty schema
+        for (String table : jdbcTemplate.queryForList("SELECT TABLE_NAME FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_TYPE = 'BASE TABLE'", String.class)) {
+            jdbcTemplate.queryForList("ANALYZE TABLE `" + table + "`");
+        }
+        samples = samples();
+        report.add("-- " + jdbcTemplate.queryForObject("SELECT VERSION()", String.class));
+    }
+
+    @AfterAll
+    void writeReport() throws IOException {
+        report.add("");
+        report.add("-- redundant indexes");
+        report.addAll(redundantIndexes());
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, report);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseIndexes() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Class<?> repository : List.of(RequestRepository.class, ReplyRepository.class, UserRepository.class,
+                ArchivedRequestRepository.class, ArchivedReplyRepository.class, LabSessionRepository.class,
+                RefreshTokenRepository.class)) {
+            Object bean = context.getBean(repository);
+            List<Method> declared = new ArrayList<>(List.of(repository.getDeclaredMethods()));
+            declared.sort(Comparator.comparing(Method::getName).thenComparing(Method::getParameterCount));
+            for (Method method : declared) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String name = repository.getSimpleName() + "." + method.getName()
+                        + "/" + method.getParameterCount();
+                if (INTENDED_FULL_SCANS.contains(name)) {
+                    continue;
+                }
+                tests.add(DynamicTest.dynamicTest(name, () ->
+                        assertThat(audit(name, repository, bean, method)).as(name).isEmpty()));
+            }
+        }
+        return tests.stream();
+    }
+
+    @Test
+    void noRedundantIndexes() {
+        assertThat(redundantIndexes()).isEmpty();
+    }
+
+    /**
+     * Invoke one repository method in a rolled-back transaction and explain what it executed.
+     * Returns the plan problems found.
+     */
+    private List<String> audit(String name, Class<?> repository, Object bean, Method method) {
+        Object[] args = sampleArguments(method, samples.entityIds().getOrDefault(repository, NIL_ID));
+        List<String> problems = new ArrayList<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            recorder.start();
+            List<StatementRecorder.RecordedStatement> executed;
+            try {
+                method.invoke(bean, args);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                problems.add("failed: " + cause.getMessage());
+            } finally {
+                executed = recorder.stop();
+            }
+
+            for (StatementRecorder.RecordedStatement statement : executed) {
+                // Hibernate prefixes statements with a /* query */ comment when use_sql_comments is on
+                String sql = statement.sql().replaceFirst("(?s)^\\s*/\\*.*?\\*/", "").stripLeading();
+                String verb = sql.split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+                if (List.of("select", "update", "delete").contains(verb)) {
+                    problems.addAll(explain(name, statement));
+                }
+            }
+        });
+        return problems;
+    }
+
+    private List<String> explain(String name, StatementRecorder.RecordedStatement statement) {
+        List<String> problems = new ArrayList<>();
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(),
+                statement.parameters().toArray());
+        report.add("");
+        report.add("-- " + name);
+        report.add(statement.sql());
+        for (Map<String, Object> step : plan) {
+            report.add(step.toString());
+            String table = String.valueOf(step.get("table"));
+            String type = String.valueOf(step.get("type"));
+            String extra = String.valueOf(step.get("Extra"));
+            long rows = step.get("rows") instanceof Number n ? n.longValue() : 0;
+            if (rows <= MAX_ROWS) {
+                continue;
+            }
+            if ("ALL".equals(type)) {
+                problems.add(table + ": full table scan of ~" + rows + " rows");
+            } else if ("index".equals(type)) {
+                problems.add(table + ": full index scan of " + step.get("key") + ", ~" + rows + " rows");
+            }
+            if (extra.contains("Using filesort")) {
+                problems.add(table + ": filesort over ~" + rows + " rows");
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Non-primary indexes whose columns are a left prefix of another index on the same table.
+     */
+    private List<String> redundantIndexes() {
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        jdbcTemplate.query(REDUNDANT_INDEX_SQL, rs -> {
+            String table = rs.getString(1);
+            String name = rs.getString(2);
+            boolean unique = rs.getInt(3) == 0;
+            indexes.computeIfAbsent(table + "." + name, k -> new Index(table, name, unique, new ArrayList<>()))
+                    .columns().add(rs.getString(4).toLowerCase(Locale.ROOT));
+        });
+
+        List<String> redundant = new ArrayList<>();
+        for (Index index : indexes.values()) {
+            if ("PRIMARY".equals(index.name()) || index.unique()) {
+                continue;
+            }
+            for (Index other : indexes.values()) {
+                boolean longerOrEarlierTwin = other.columns().size() > index.columns().size()
+                        || (other.columns().equals(index.columns()) && (other.unique() || "PRIMARY".equals(other.name())
+                                || other.name().compareTo(index.name()) < 0));
+                if (other != index && other.table().equals(index.table()) && longerOrEarlierTwin
+                        && other.columns().subList(0, index.columns().size()).equals(index.columns())) {
+                    redundant.add(index.table() + "." + index.name() + " " + index.columns()
+                            + " is covered by " + other.name() + " " + other.columns());
+                    break;
+                }
+            }
+        }
+        return redundant;
+    }
+
+    /**
+     * Fixed dataset: TAs and students, lab sessions, live requests in every status with replies,
+     * and archived history. The random generator is seeded, so every run sees the same data.
+     */
+    private void seed() {
+        Random random = new Random(SEED);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+        List<String> tas = new ArrayList<>();
+        List<String> students = new ArrayList<>();
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        List<Object[]> tokens = new ArrayList<>();
+        for (int i = 0; i < TAS + STUDENTS; i++) {
+            String id = TimeOrderedUuid.next();
+            boolean ta = i < TAS;
+            String username = (ta ? "ta" : "student") + i;
+            (ta ? tas : students).add(id);
+            users.add(new Object[]{id, username, username + "@example.edu", "{noop}password", ta ? null : "S" + i});
+            roles.add(new Object[]{id, ta ? "TA" : "STUDENT"});
+            tokens.add(new Object[]{id, "token-" + i, Timestamp.valueOf(start.plusDays(30))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, email, password_hash, student_id) "
+                + "VALUES (UUID_TO_BIN(?), ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role) VALUES (UUID_TO_BIN(?), ?)", roles);
+        jdbcTemplate.batchUpdate("INSERT INTO refresh_tokens (user_id, token, expiry_date) "
+                + "VALUES (UUID_TO_BIN(?), ?, ?)", tokens);
+
+        List<String> sessions = new ArrayList<>();
+        List<Object[]> sessionRows = new ArrayList<>();
+        for (int i = 0; i < LAB_SESSIONS; i++) {
+            String id = "session-" + i;
+            LocalDateTime begin = start.plusDays(i);
+            boolean open = i >= LAB_SESSIONS - 2;
+            sessions.add(id);
+            sessionRows.add(new Object[]{id, "Lab " + i, Timestamp.valueOf(begin), Timestamp.valueOf(begin.plusHours(3)),
+                    open ? "OPEN" : "CLOSED", open ? null : Timestamp.valueOf(begin.plusHours(3))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO lab_sessions (id, name, start_time, end_time, status, closed_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", sessionRows);
+
+        List<Object[]> requests = new ArrayList<>();
+        List<Object[]> replies = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String id = TimeOrderedUuid.next();
+            int session = i * LAB_SESSIONS / REQUESTS;
+            boolean open = session >= LAB_SESSIONS - 2;
+            RequestStatus status = open
+                    ? (random.nextInt(3) == 0 ? RequestStatus.IN_PROGRESS : RequestStatus.PENDING)
+                    : (random.nextInt(20) == 0 ? RequestStatus.CANCELLED : RequestStatus.RESOLVED);
+            String student = students.get(random.nextInt(students.size()));
+            String ta = status == RequestStatus.PENDING || status == RequestStatus.CANCELLED
+                    ? null : tas.get(random.nextInt(tas.size()));
+            LocalDateTime createdAt = start.plusDays(session).plusSeconds(i % (REQUESTS / LAB_SESSIONS) * 20L);
+            int replyCount = ta != null ? random.nextInt(3) : 0;
+            requests.add(new Object[]{id, "Request " + i, "Help with exercise " + (i % 12), student, "student" + i,
+                    sessions.get(session), status.name(), Timestamp.valueOf(createdAt).getTime(), ta,
+                    ta != null ? "ta" : null, Timestamp.valueOf(createdAt),
+                    status == RequestStatus.RESOLVED ? Timestamp.valueOf(createdAt.plusMinutes(10)) : null,
+                    replyCount});
+            for (int r = 0; r < replyCount; r++) {
+                replies.add(new Object[]{TimeOrderedUuid.next(), id, ta, "Reply " + r,
+                        Timestamp.valueOf(createdAt.plusMinutes(r + 1))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (id, title, description, student_id, student_username, "
+                + "lab_session_id, status, priority, assigned_to, assigned_to_username, created_at, resolved_at, "
+                + "reply_count, version) VALUES (UUID_TO_BIN(?), ?, ?, UUID_TO_BIN(?), ?, ?, ?, ?, UUID_TO_BIN(?), ?, ?, ?, ?, 0)",
+                requests);
+        jdbcTemplate.batchUpdate("INSERT INTO replies (id, request_id, ta_id, message, created_at) "
+                + "VALUES (UUID_TO_BIN(?), UUID_TO_BIN(?), UUID_TO_BIN(?), ?, ?)", replies);
+
+        List<Object[]> archived = new ArrayList<>();
+        List<Object[]> archivedReplies = new ArrayList<>();
+        for (int i = 0; i < ARCHIVED_REQUESTS; i++) {
+            String id = TimeOrderedUuid.next();
+            String ta = tas.get(random.nextInt(tas.size()));
+            LocalDateTime createdAt = start.minusDays(365).plusMinutes(i * 20L);
+            archived.add(new Object[]{id, "Archived " + i, "Old question " + (i % 12),
+                    students.get(random.nextInt(students.size())), "student" + i, "RESOLVED",
+                    Timestamp.valueOf(createdAt).getTime(), ta, "ta",
+                    Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt.plusMinutes(10))});
+            for (int r = random.nextInt(3); r > 0; r--) {
+                archivedReplies.add(new Object[]{TimeOrderedUuid.next(), id, ta, "Old reply " + r,
+                        Timestamp.valueOf(createdAt.plusMinutes(r))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests_archive (id, title, description, student_id, student_username, "
+                + "status, priority, assigned_to, assigned_to_username, created_at, resolved_at) "
+                + "VALUES (UUID_TO_BIN(?), ?, ?, UUID_TO_BIN(?), ?, ?, ?, UUID_TO_BIN(?), ?, ?, ?)", archived);
+        jdbcTemplate.batchUpdate("INSERT INTO replies_archive (id, request_id, ta_id, message, created_at) "
+                + "VALUES (UUID_TO_BIN(?), UUID_TO_BIN(?), UUID_TO_BIN(?), ?, ?)", archivedReplies);
+    }
+
+    /**
+     * Real keys from the seeded tables, so plans see realistic values.
+     */
+    private Samples samples() {
+        Map<Class<?>, String> entityIds = new LinkedHashMap<>();
+        entityIds.put(RequestRepository.class, sample("SELECT BIN_TO_UUID(id) FROM requests LIMIT 1"));
+        entityIds.put(ReplyRepository.class, sample("SELECT BIN_TO_UUID(request_id) FROM replies LIMIT 1"));
+        entityIds.put(UserRepository.class, sample("SELECT BIN_TO_UUID(id) FROM users LIMIT 1"));
+        entityIds.put(ArchivedRequestRepository.class, sample("SELECT BIN_TO_UUID(id) FROM requests_archive LIMIT 1"));
+        entityIds.put(ArchivedReplyRepository.class,
+                sample("SELECT BIN_TO_UUID(request_id) FROM replies_archive LIMIT 1"));
+        entityIds.put(LabSessionRepository.class, sample("SELECT id FROM lab_sessions WHERE status = 'OPEN' LIMIT 1"));
+        entityIds.put(RefreshTokenRepository.class, sample("SELECT BIN_TO_UUID(user_id) FROM refresh_tokens LIMIT 1"));
+        return new Samples(entityIds,
+                sample("SELECT BIN_TO_UUID(student_id) FROM requests LIMIT 1"),
+                sample("SELECT BIN_TO_UUID(assigned_to) FROM requests WHERE assigned_to IS NOT NULL LIMIT 1"),
+                entityIds.get(LabSessionRepository.class),
+                sample("SELECT username FROM users WHERE username LIKE 'student%' LIMIT 1"),
+                sample("SELECT email FROM users LIMIT 1"),
+                sample("SELECT token FROM refresh_tokens LIMIT 1"));
+    }
+
+    private String sample(String sql) {
+        List<String> rows = jdbcTemplate.queryForList(sql, String.class);
+        return rows.isEmpty() || rows.get(0) == null ? NIL_ID : rows.get(0);
+    }
+
+    private Object[] sampleArguments(Method method, String entityId) {
+        Parameter[] parameters = method.getParameters();
+        String[] discovered = parameterNames.getParameterNames(method);
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            String name = param != null ? param.value() : discovered != null ? discovered[i] : parameters[i].getName();
+            args[i] = sampleValue(parameters[i].getType(), name.toLowerCase(Locale.ROOT), entityId);
+        }
+        return args;
+    }
+
+    private Object sampleValue(Class<?> type, String name, String entityId) {
+        if (type == String.class) {
+            if (name.endsWith("username")) {
+                return samples.username();
+            }
+            if (name.equals("email")) {
+                return samples.email();
+            }
+            if (name.equals("token")) {
+                return samples.token();
+            }
+            if (name.equals("studentid")) {
+                return samples.studentId();
+            }
+            if (name.equals("taid") || name.equals("assignedto")) {
+                return samples.taId();
+            }
+            if (name.equals("labsessionid")) {
+                return samples.labSessionId();
+            }
+            return entityId;
+        }
+        if (type == RequestStatus.class) {
+            return RequestStatus.PENDING;
+        }
+        if (type == LabSessionStatus.class) {
+            return LabSessionStatus.OPEN;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == Long.class || type == long.class) {
+            return System.currentTimeMillis();
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return name.contains("status")
+                    ? List.of(RequestStatus.PENDING, RequestStatus.IN_PROGRESS)
+                    : List.of(entityId);
+        }
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        throw new IllegalArgumentException("no sample value for parameter " + name + " of type " + type.getSimpleName());
+    }
+}
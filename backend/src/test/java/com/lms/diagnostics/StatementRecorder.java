@@ -0,0 +1,106 @@
+package com.lms.diagnostics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Records the SQL and bound parameters of every statement executed by the current thread
+ * while recording is on. Wraps the application "dataSource" bean in JDK proxies, so it sees
+ * exactly what Hibernate and JdbcTemplate send to the driver. Register it as a static bean in
+ * the test configuration so it post-processes the data source.
+ */
+public class StatementRecorder implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    /**
+     * A statement as executed: SQL with placeholders and the values bound to them, in order.
+     */
+    public record RecordedStatement(String sql, List<Object> parameters) {
+    }
+
+    private final ThreadLocal<List<RecordedStatement>> recording = new ThreadLocal<>();
+
+    /**
+     * Start recording statements executed by the current thread.
+     */
+    public void start() {
+        recording.set(new ArrayList<>());
+    }
+
+    /**
+     * Stop recording and return what the current thread executed since {@link #start()}.
+     */
+    public List<RecordedStatement> stop() {
+        List<RecordedStatement> statements = recording.get();
+        recording.remove();
+        return statements != null ? statements : List.of();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            if (result instanceof PreparedStatement statement && "prepareStatement".equals(method.getName())) {
+                return wrap(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            } else if (EXECUTE_METHODS.contains(name) && (args == null || args.length == 0)) {
+                List<RecordedStatement> statements = recording.get();
+                if (statements != null) {
+                    statements.add(new RecordedStatement(sql, new ArrayList<>(parameters.values())));
+                }
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Delegate<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Delegate<T> delegate) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return delegate.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
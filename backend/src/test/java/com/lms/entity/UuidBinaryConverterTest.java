@@ -0,0 +1,33 @@
+package com.lms.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ids round-trip through BINARY(16); malformed ids are rejected instead of matching nothing.
+ */
+class UuidBinaryConverterTest {
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+
+    @Test
+    void roundTripsInUuidToBinByteOrder() {
+        String id = "01890a5d-ac96-774b-bcce-b302099a8057";
+
+        byte[] bytes = converter.convertToDatabaseColumn(id);
+
+        assertThat(bytes).hasSize(16);
+        assertThat(bytes[0]).isEqualTo((byte) 0x01);
+        assertThat(bytes[15]).isEqualTo((byte) 0x57);
+        assertThat(converter.convertToEntityAttribute(bytes)).isEqualTo(id);
+    }
+
+    @Test
+    void rejectsMalformedId() {
+        assertThatThrownBy(() -> converter.convertToDatabaseColumn("not-a-uuid"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not-a-uuid");
+    }
+}
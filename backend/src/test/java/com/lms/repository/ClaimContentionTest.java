@@ -0,0 +1,194 @@
+package com.lms.repository;
+
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.lms.repository.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races several TAs for the same pending requests and checks that exactly one claim wins each time.
+ *
+ * The conditional UPDATE ({@link RequestRepository#claimIfPending}) is compared with the previous
+ * find/check/save path under @Version locking, where every loser ends in an optimistic lock failure
+ * and a rollback. Timings are logged for both; only the single-winner outcome is asserted.
+ */
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClaimContentionTest {
+
+    private static final int ROUNDS = 200;
+    private static final int CLAIMANTS = 8;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactions;
+    private ExecutorService executor;
+    private User student;
+    private List<User> tas;
+
+    /** A claim attempt by one TA; true if it won the request. */
+    private interface Claim {
+        boolean attempt(String requestId, String taId, String taUsername);
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactions = new TransactionTemplate(transactionManager);
+        executor = Executors.newFixedThreadPool(CLAIMANTS);
+        student = userRepository.save(user("student"));
+        tas = userRepository.saveAll(IntStream.range(0, CLAIMANTS).mapToObj(i -> user("ta" + i)).toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        requestRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void conditionalUpdateHasExactlyOneWinner() throws Exception {
+        Result result = race(this::claimWithConditionalUpdate);
+        log.info("claimIfPending: {}", result);
+
+        assertThat(result.winnersPerRound()).containsOnly(1);
+        assertThat(result.lockFailures()).isZero();
+    }
+
+    @Test
+    void findCheckSaveHasExactlyOneWinner() throws Exception {
+        Result result = race(this::claimWithFindCheckSave);
+        log.info("find/check/save: {}", result);
+
+        assertThat(result.winnersPerRound()).containsOnly(1);
+    }
+
+    @Test
+    void bothPathsUnderTheSameLoad() throws Exception {
+        // Warm both paths first so the comparison is not dominated by class loading and JIT
+        race(this::claimWithConditionalUpdate);
+        race(this::claimWithFindCheckSave);
+
+        Result update = race(this::claimWithConditionalUpdate);
+        Result findCheckSave = race(this::claimWithFindCheckSave);
+        log.info("{} rounds x {} claimants: claimIfPending {} ms, find/check/save {} ms ({} lock failures)",
+                ROUNDS, CLAIMANTS, update.elapsedMs(), findCheckSave.elapsedMs(), findCheckSave.lockFailures());
+
+        assertThat(update.winnersPerRound()).containsOnly(1);
+        assertThat(findCheckSave.winnersPerRound()).containsOnly(1);
+    }
+
+    private boolean claimWithConditionalUpdate(String requestId, String taId, String taUsername) {
+        return Boolean.TRUE.equals(transactions.execute(status ->
+                requestRepository.claimIfPending(requestId, taId, taUsername, LocalDateTime.now()) == 1));
+    }
+
+    private boolean claimWithFindCheckSave(String requestId, String taId, String taUsername) {
+        return Boolean.TRUE.equals(transactions.execute(status -> {
+            Request request = requestRepository.findById(requestId).orElseThrow();
+            if (request.getStatus() != RequestStatus.PENDING || request.getAssignedTo() != null) {
+                return false;
+            }
+            request.setStatus(RequestStatus.IN_PROGRESS);
+            request.setAssignedTo(taId);
+            request.setAssignedToUsername(taUsername);
+            requestRepository.saveAndFlush(request);
+            return true;
+        }));
+    }
+
+    private Result race(Claim claim) throws Exception {
+        List<String> requestIds = seed();
+        List<Integer> winnersPerRound = new ArrayList<>(ROUNDS);
+        AtomicInteger lockFailures = new AtomicInteger();
+
+        long started = System.nanoTime();
+        for (String requestId : requestIds) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> attempts = new ArrayList<>(CLAIMANTS);
+            for (User ta : tas) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return claim.attempt(requestId, ta.getId(), ta.getUsername());
+                    } catch (ObjectOptimisticLockingFailureException e) {
+                        lockFailures.incrementAndGet();
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(30, TimeUnit.SECONDS)) {
+                    winners++;
+                }
+            }
+            winnersPerRound.add(winners);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        requestRepository.deleteAllInBatch();
+        return new Result(winnersPerRound, lockFailures.get(), elapsedMs);
+    }
+
+    private List<String> seed() {
+        List<Request> requests = new ArrayList<>(ROUNDS);
+        for (int i = 0; i < ROUNDS; i++) {
+            requests.add(Request.builder()
+                    .title("Request " + i)
+                    .description("Contended request")
+                    .studentId(student.getId())
+                    .studentUsername(student.getUsername())
+                    .status(RequestStatus.PENDING)
+                    .priority((long) i)
+                    .build());
+        }
+        return requestRepository.saveAll(requests).stream().map(Request::getId).toList();
+    }
+
+    private record Result(List<Integer> winnersPerRound, int lockFailures, long elapsedMs) {
+
+        @Override
+        public String toString() {
+            return "%d rounds in %d ms, %d lock failures".formatted(winnersPerRound.size(), elapsedMs, lockFailures);
+        }
+    }
+}
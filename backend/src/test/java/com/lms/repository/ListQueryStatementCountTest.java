@@ -0,0 +1,130 @@
+package com.lms.repository;
+
+import com.lms.dto.ReplyDto;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.Reply;
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.lms.repository.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * List endpoints build their DTOs from projections, so the number of statements per page must not
+ * grow with the number of rows on it. Each query is run on a small and a large page and checked
+ * against a fixed statement count, with no entities loaded.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ListQueryStatementCountTest {
+
+    private static final int REQUESTS = 60;
+    private static final int REPLIES_PER_REQUEST = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private ReplyRepository replyRepository;
+
+    private Statistics statistics;
+    private String studentId;
+    private String requestId;
+
+    @BeforeEach
+    void seed() {
+        User student = entityManager.persist(user("student"));
+        List<User> tas = List.of(entityManager.persist(user("ta1")), entityManager.persist(user("ta2")));
+        studentId = student.getId();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            Request request = entityManager.persist(Request.builder()
+                    .title("Request " + i)
+                    .description("Help with exercise " + i)
+                    .studentId(student.getId())
+                    .studentUsername(student.getUsername())
+                    .status(RequestStatus.PENDING)
+                    .priority((long) i)
+                    .build());
+            if (i == 0) {
+                requestId = request.getId();
+                for (int j = 0; j < REPLIES_PER_REQUEST; j++) {
+                    entityManager.persist(Reply.builder()
+                            .requestId(request.getId())
+                            .taId(tas.get(j % tas.size()).getId())
+                            .message("Reply " + j)
+                            .build());
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void requestPageIsOneSelectAndOneCount(int pageSize) {
+        Page<RequestResponse> all = requestRepository.findAllResponses(PageRequest.of(0, pageSize));
+        assertStatements(2);
+        assertThat(all.getContent()).hasSize(pageSize);
+
+        Page<RequestResponse> mine = requestRepository.findResponsesByStudentId(studentId, PageRequest.of(0, pageSize));
+        assertStatements(2);
+        assertThat(mine.getContent()).hasSize(pageSize);
+        assertThat(mine.getTotalElements()).isEqualTo(REQUESTS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 30})
+    void replyPageIsOneSelectAndOneCount(int pageSize) {
+        Page<ReplyDto> page = replyRepository.findDtosByRequestId(requestId, PageRequest.of(0, pageSize));
+        assertStatements(2);
+        assertThat(page.getContent()).hasSize(pageSize)
+                .allSatisfy(reply -> assertThat(reply.getTaUsername()).startsWith("ta"));
+
+        List<ReplyDto> seek = replyRepository.seekDtosByRequestId(requestId, PageRequest.of(0, pageSize));
+        assertStatements(1);
+        assertThat(seek).hasSize(pageSize);
+    }
+
+    @Test
+    void allRepliesOfARequestAreOneSelect() {
+        List<ReplyDto> replies = replyRepository.findDtosByRequestId(requestId);
+        assertStatements(1);
+        assertThat(replies).hasSize(REPLIES_PER_REQUEST);
+    }
+
+    private void assertStatements(long expected) {
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(expected);
+        assertThat(statistics.getEntityLoadCount()).as("entities loaded").isZero();
+        assertThat(statistics.getCollectionLoadCount()).as("collections loaded").isZero();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.lms.repository;
+
+import com.lms.entity.User;
+
+/**
+ * User fixtures shared by the repository tests.
+ */
+final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /** An unsaved user with the given username, a matching email and a placeholder password hash. */
+    static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("x");
+        return user;
+    }
+}
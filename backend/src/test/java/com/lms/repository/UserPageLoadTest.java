@@ -0,0 +1,151 @@
+package com.lms.repository;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.Role;
+import com.lms.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.lms.repository.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts and allocation for a 500-row page of users, with roles left lazy and with roles
+ * touched, and for the username lookups used when mapping requests. Statement and load counts
+ * are asserted; bytes allocated by the test thread are logged only, since they vary by JVM.
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class UserPageLoadTest {
+
+    private static final int USERS = 500;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    private Statistics statistics;
+    private List<String> userIds;
+
+    @BeforeEach
+    void seed() {
+        userIds = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = user("user" + i);
+            user.addRole(Role.STUDENT);
+            if (i % 10 == 0) {
+                user.addRole(Role.TA);
+            }
+            entityManager.persist(user);
+            userIds.add(user.getId());
+
+            entityManager.persist(Request.builder()
+                    .title("Request " + i)
+                    .description("Help with exercise " + i)
+                    .studentId(user.getId())
+                    .studentUsername(user.getUsername())
+                    .status(RequestStatus.PENDING)
+                    .priority((long) i)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void userPageLeavesRolesUnloaded() {
+        Page<User> page = measure("user page, roles lazy", () -> userRepository.findAll(PageRequest.of(0, USERS)));
+
+        assertThat(page.getContent()).hasSize(USERS).noneMatch(user -> Hibernate.isInitialized(user.getRoles()));
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).as("users loaded").isEqualTo(USERS);
+        assertThat(statistics.getCollectionLoadCount()).as("role collections loaded").isZero();
+    }
+
+    @Test
+    void rolesOnAUserPageLoadInBatches() {
+        List<Integer> roleCounts = measure("user page, roles touched", () ->
+                userRepository.findAll(PageRequest.of(0, USERS)).stream().map(user -> user.getRoles().size()).toList());
+
+        assertThat(roleCounts).hasSize(USERS);
+        assertThat(roleCounts.stream().mapToInt(Integer::intValue).sum()).isEqualTo(USERS + USERS / 10);
+        // One select and one count for the page, then one role select per 50 users
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(2 + USERS / 50);
+        assertThat(statistics.getCollectionLoadCount()).as("role collections loaded").isEqualTo(USERS);
+    }
+
+    @Test
+    void usernameLookupsLoadNoEntities() {
+        List<String> usernames = measure("username by id x" + USERS, () -> userIds.stream()
+                .map(id -> userRepository.findUsernameById(id).orElseThrow())
+                .toList());
+
+        assertThat(usernames).hasSize(USERS);
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(USERS);
+        assertThat(statistics.getEntityLoadCount()).as("users loaded").isZero();
+        assertThat(statistics.getCollectionLoadCount()).as("role collections loaded").isZero();
+    }
+
+    @Test
+    void requestPageLoadsNoUsers() {
+        Page<RequestResponse> page = measure("request page", () -> requestRepository.findAllResponses(PageRequest.of(0, USERS)));
+
+        assertThat(page.getContent()).hasSize(USERS).allSatisfy(request ->
+                assertThat(request.getStudentUsername()).startsWith("user"));
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).as("entities loaded").isZero();
+        assertThat(statistics.getCollectionLoadCount()).as("collections loaded").isZero();
+    }
+
+    /**
+     * Run a load on a cleared persistence context and log its statements and thread allocation.
+     * A first, unmeasured run keeps query compilation and class loading out of the numbers.
+     */
+    private <T> T measure(String label, Supplier<T> load) {
+        load.get();
+        entityManager.clear();
+        statistics.clear();
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        T result = load.get();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        log.info("{}: {} statements, {} entities, {} collections, {} KiB allocated", label,
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getCollectionLoadCount(), allocated / 1024);
+        return result;
+    }
+}
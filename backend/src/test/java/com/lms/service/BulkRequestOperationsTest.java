@@ -0,0 +1,172 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.diagnostics.StatementRecorder;
+import com.lms.dto.BulkRequestOperationDto;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.User;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A TA's bulk update resolves and re-prioritises requests in one transaction, resolving them all
+ * with a single statement, and is announced to clients with a single aggregated event.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@ActiveProfiles("h2")
+class BulkRequestOperationsTest {
+
+    private static final String BULK_UPDATED = "requests:bulk-updated";
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LabSessionRepository labSessionRepository;
+    @Autowired
+    private StatementRecorder recorder;
+    @Autowired
+    @Qualifier("brokerChannel")
+    private AbstractSubscribableChannel brokerChannel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    /** Types of the events sent to the TA topic while a test runs. */
+    private final List<String> broadcasts = new CopyOnWriteArrayList<>();
+    private final MessageHandler topicListener = message -> {
+        if ("/topic/requests".equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+            broadcasts.add(eventType((byte[]) message.getPayload()));
+        }
+    };
+
+    @BeforeEach
+    void listen() {
+        brokerChannel.subscribe(topicListener);
+    }
+
+    @AfterEach
+    void stopListening() {
+        brokerChannel.unsubscribe(topicListener);
+    }
+
+    @Test
+    void mixedOperationsRunInOneTransactionWithOneBroadcast() {
+        User ta = TestFixtures.saveUser(userRepository, "bulk-ta");
+        TestFixtures.saveUser(userRepository, "bulk-student");
+        String session = TestFixtures.openSession(labSessionRepository, "Bulk lab");
+        List<String> claimed = List.of(create(session, "bulk-student"), create(session, "bulk-student"),
+                create(session, "bulk-student"));
+        List<String> waiting = List.of(create(session, "bulk-student"), create(session, "bulk-student"));
+        claimed.forEach(id -> requestService.assignRequestTo(id, ta.getId()));
+        broadcasts.clear();
+
+        recorder.start();
+        List<RequestResponse> updated;
+        try {
+            updated = requestService.applyBulkOperations(List.of(
+                    resolve(claimed.get(0)), setPriority(waiting.get(0), 5), resolve(claimed.get(1)),
+                    setPriority(waiting.get(1), 7), resolve(claimed.get(2))), ta.getUsername());
+        } finally {
+            List<StatementRecorder.RecordedStatement> executed = recorder.stop();
+            List<String> updates = executed.stream()
+                    .map(StatementRecorder.RecordedStatement::sql)
+                    .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("update requests"))
+                    .toList();
+            // One set-based UPDATE for all resolves, then one per priority change
+            assertThat(updates).hasSize(3);
+            assertThat(updates.get(0)).contains("resolved_at").contains(" in (");
+            assertThat(updates.subList(1, 3)).allMatch(sql -> sql.contains("priority"));
+        }
+
+        assertThat(updated).extracting(RequestResponse::getId)
+                .containsExactlyInAnyOrder(claimed.get(0), claimed.get(1), claimed.get(2), waiting.get(0),
+                        waiting.get(1));
+        claimed.forEach(id -> assertThat(requestService.getRequestById(id).getStatus())
+                .isEqualTo(RequestStatus.RESOLVED));
+        assertThat(requestService.getRequestById(waiting.get(0)).getPriority()).isEqualTo(5L);
+        assertThat(requestService.getRequestById(waiting.get(1)).getPriority()).isEqualTo(7L);
+        assertThat(broadcasts).containsExactly(BULK_UPDATED);
+    }
+
+    @Test
+    void oneInvalidOperationRollsBackTheBatch() {
+        User ta = TestFixtures.saveUser(userRepository, "bulk-rollback-ta");
+        TestFixtures.saveUser(userRepository, "bulk-rollback-student");
+        String session = TestFixtures.openSession(labSessionRepository, "Bulk rollback lab");
+        String claimed = create(session, "bulk-rollback-student");
+        String waiting = create(session, "bulk-rollback-student");
+        // Still pending, so it cannot be resolved
+        String unclaimed = create(session, "bulk-rollback-student");
+        requestService.assignRequestTo(claimed, ta.getId());
+        long priority = requestService.getRequestById(waiting).getPriority();
+        broadcasts.clear();
+
+        assertThatThrownBy(() -> requestService.applyBulkOperations(List.of(
+                resolve(claimed), setPriority(waiting, priority + 100), resolve(unclaimed)), ta.getUsername()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(requestService.getRequestById(claimed).getStatus()).isEqualTo(RequestStatus.IN_PROGRESS);
+        assertThat(requestService.getRequestById(claimed).getResolvedAt()).isNull();
+        assertThat(requestService.getRequestById(waiting).getPriority()).isEqualTo(priority);
+        assertThat(requestService.getRequestById(unclaimed).getStatus()).isEqualTo(RequestStatus.PENDING);
+        assertThat(broadcasts).isEmpty();
+    }
+
+    private String create(String session, String student) {
+        return requestService.createRequest(TestFixtures.request(session, "Question", "Help"), student).getId();
+    }
+
+    private static BulkRequestOperationDto resolve(String requestId) {
+        return BulkRequestOperationDto.builder()
+                .action(BulkRequestOperationDto.Action.RESOLVE)
+                .requestId(requestId)
+                .build();
+    }
+
+    private static BulkRequestOperationDto setPriority(String requestId, long priority) {
+        return BulkRequestOperationDto.builder()
+                .action(BulkRequestOperationDto.Action.SET_PRIORITY)
+                .requestId(requestId)
+                .priority(priority)
+                .build();
+    }
+
+    private String eventType(byte[] payload) {
+        try {
+            JsonNode event = objectMapper.readTree(payload);
+            return event.path("type").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.lms.service;
+
+import com.lms.dto.ClusterReplyResponse;
+import com.lms.dto.ReplyDto;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.User;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.RequestRepository;
+import com.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Answering a near-duplicate cluster replies to and resolves the requests the TA may answer in one
+ * go; pending ones count as claimed at their resolution.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:services;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@ActiveProfiles("h2")
+class ClusterReplyTest {
+
+    private static final String DESCRIPTION = "My program throws a NullPointerException when reading the input file";
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private ReplyService replyService;
+    @Autowired
+    private RequestClusterIndex requestClusterIndex;
+    @Autowired
+    private RequestStatusCounters requestStatusCounters;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LabSessionRepository labSessionRepository;
+
+    @Test
+    void repliesToAndResolvesTheAnswerableMembers() {
+        User ta = TestFixtures.saveUser(userRepository, "cluster-ta");
+        User otherTa = TestFixtures.saveUser(userRepository, "cluster-other-ta");
+        String session = TestFixtures.openSession(labSessionRepository, "Cluster lab");
+        String pending = create(session, "cluster-student-1");
+        String held = create(session, "cluster-student-2");
+        String heldByOther = create(session, "cluster-student-3");
+        requestService.assignRequestTo(held, ta.getId());
+        requestService.assignRequestTo(heldByOther, otherTa.getId());
+        Request claimed = requestRepository.findById(held).orElseThrow();
+
+        String clusterId = requestClusterIndex.clusterOf(pending);
+        assertThat(requestClusterIndex.members(clusterId)).containsExactlyInAnyOrder(pending, held, heldByOther);
+
+        String message = "Check that the file exists before opening it. ".repeat(30);
+        ClusterReplyResponse response = replyService.replyToCluster(clusterId, message, ta.getUsername());
+
+        assertThat(response.getResolvedRequestIds()).containsExactlyInAnyOrder(pending, held);
+        assertThat(response.getSkippedRequestIds()).containsExactly(heldByOther);
+
+        Request resolvedPending = requestRepository.findById(pending).orElseThrow();
+        assertThat(resolvedPending.getStatus()).isEqualTo(RequestStatus.RESOLVED);
+        assertThat(resolvedPending.getAssignedTo()).isEqualTo(ta.getId());
+        assertThat(resolvedPending.getAssignedAt()).isEqualTo(resolvedPending.getResolvedAt());
+        assertThat(resolvedPending.getReplyCount()).isEqualTo(1);
+        Request resolvedHeld = requestRepository.findById(held).orElseThrow();
+        assertThat(resolvedHeld.getStatus()).isEqualTo(RequestStatus.RESOLVED);
+        assertThat(resolvedHeld.getAssignedAt()).isEqualTo(claimed.getAssignedAt());
+        assertThat(requestRepository.findById(heldByOther).orElseThrow().getStatus())
+                .isEqualTo(RequestStatus.IN_PROGRESS);
+
+        // Long replies are previews in the hot row and read back whole
+        List<ReplyDto> thread = replyService.getRepliesByRequestId(pending);
+        assertThat(thread).singleElement().satisfies(reply -> {
+            assertThat(reply.getMessage()).isEqualTo(message.trim());
+            assertThat(reply.getTaUsername()).isEqualTo(ta.getUsername());
+        });
+
+        // Both resolutions are service samples, and the counters moved once each
+        assertThat(requestRepository.findRecentlyServed(PageRequest.of(0, 10)))
+                .extracting(RequestRepository.ServiceTimeView::getAssignedTo)
+                .filteredOn(ta.getId()::equals)
+                .hasSize(2);
+        assertThat(requestStatusCounters.counts(session).orElseThrow())
+                .containsEntry(RequestStatus.PENDING, 0L)
+                .containsEntry(RequestStatus.IN_PROGRESS, 1L)
+                .containsEntry(RequestStatus.RESOLVED, 2L);
+        assertThat(requestClusterIndex.members(clusterId)).containsExactly(heldByOther);
+    }
+
+    private String create(String session, String username) {
+        TestFixtures.saveUser(userRepository, username);
+        RequestResponse created = requestService.createRequest(
+                TestFixtures.request(session, "NullPointerException on file read", DESCRIPTION), username);
+        return created.getId();
+    }
+}
@@ -0,0 +1,101 @@
+package com.lms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deadlines fire on the first tick at or after them, including those one or more revolutions away.
+ */
+class HashedTimerWheelTest {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final long TICK_MS = 100;
+    private static final long START = 1_000_000;
+
+    private final HashedTimerWheel<String> wheel = new HashedTimerWheel<>(WHEEL_SIZE, TICK_MS, START);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        wheel.schedule("exact", START + 3 * TICK_MS);
+        wheel.schedule("between", START + 3 * TICK_MS + 1);
+
+        advanceTo(START + 3 * TICK_MS - 1);
+        assertThat(fired).isEmpty();
+        advanceTo(START + 3 * TICK_MS);
+        assertThat(fired).containsExactly("exact");
+        advanceTo(START + 4 * TICK_MS);
+        assertThat(fired).containsExactly("exact", "between");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesOneRevolutionAwayWaitForTheirRound() {
+        long revolution = WHEEL_SIZE * TICK_MS;
+        // Same bucket as tick 0, one and two revolutions later
+        wheel.schedule("one", START + revolution);
+        wheel.schedule("two", START + 2 * revolution);
+        wheel.schedule("beyond", START + 2 * revolution + 5 * TICK_MS);
+
+        advanceTo(START + revolution - TICK_MS);
+        assertThat(fired).isEmpty();
+        advanceTo(START + revolution);
+        assertThat(fired).containsExactly("one");
+        advanceTo(START + 2 * revolution - 1);
+        assertThat(fired).containsExactly("one");
+        advanceTo(START + 2 * revolution);
+        assertThat(fired).containsExactly("one", "two");
+        advanceTo(START + 2 * revolution + 5 * TICK_MS);
+        assertThat(fired).containsExactly("one", "two", "beyond");
+    }
+
+    @Test
+    void roundsCountFromTheCurrentTick() {
+        advanceTo(START + 10 * TICK_MS);
+        long revolution = WHEEL_SIZE * TICK_MS;
+        wheel.schedule("later", START + 10 * TICK_MS + revolution + TICK_MS);
+
+        advanceTo(START + 10 * TICK_MS + revolution);
+        assertThat(fired).isEmpty();
+        advanceTo(START + 11 * TICK_MS + revolution);
+        assertThat(fired).containsExactly("later");
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        advanceTo(START + 5 * TICK_MS);
+        wheel.schedule("late", START);
+
+        advanceTo(START + 6 * TICK_MS);
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        HashedTimerWheel.Timeout<String> cancelled = wheel.schedule("cancelled", START + TICK_MS);
+        HashedTimerWheel.Timeout<String> kept = wheel.schedule("kept", START + TICK_MS);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+        advanceTo(START + TICK_MS);
+
+        assertThat(fired).containsExactly("kept");
+        assertThat(wheel.cancel(kept)).isFalse();
+    }
+
+    @Test
+    void wheelSizeMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new HashedTimerWheel<String>(500, TICK_MS, START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void advanceTo(long nowMs) {
+        wheel.advance(nowMs, fired::add);
+    }
+}
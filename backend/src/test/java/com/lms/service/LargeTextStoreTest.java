@@ -0,0 +1,183 @@
+package com.lms.service;
+
+import com.lms.dto.ReplyDto;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.Reply;
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.ReplyBodyRepository;
+import com.lms.repository.ReplyRepository;
+import com.lms.repository.RequestBodyRepository;
+import com.lms.repository.RequestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Long texts are split into a hot-row preview and a side-table body, compressed from the
+ * configured threshold (2048 bytes) on, and read back whole only by detail reads.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(LargeTextStore.class)
+class LargeTextStoreTest {
+
+    @Autowired
+    private LargeTextStore largeTextStore;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ReplyRepository replyRepository;
+    @Autowired
+    private RequestBodyRepository requestBodyRepository;
+    @Autowired
+    private ReplyBodyRepository replyBodyRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void previewKeepsTheFirstThousandCodePoints() {
+        String fits = "a".repeat(LargeTextStore.PREVIEW_LENGTH);
+        String over = fits + "b";
+        // Surrogate pairs: two chars per code point
+        String emoji = "😀".repeat(LargeTextStore.PREVIEW_LENGTH + 1);
+
+        assertThat(LargeTextStore.isLong(fits)).isFalse();
+        assertThat(LargeTextStore.preview(fits)).isSameAs(fits);
+        assertThat(LargeTextStore.isLong(over)).isTrue();
+        assertThat(LargeTextStore.preview(over)).isEqualTo(fits);
+        assertThat(LargeTextStore.preview(emoji)).isEqualTo("😀".repeat(LargeTextStore.PREVIEW_LENGTH));
+    }
+
+    @Test
+    void textThatFitsTheHotRowHasNoBody() {
+        String requestId = saveRequest("a".repeat(LargeTextStore.PREVIEW_LENGTH));
+
+        assertThat(requestBodyRepository.count()).isZero();
+        assertThat(largeTextStore.findRequestBody(requestId)).isEmpty();
+    }
+
+    @Test
+    void bodiesBelowTheThresholdAreStoredRaw() {
+        String justOver = "a".repeat(LargeTextStore.PREVIEW_LENGTH + 1);
+        String belowThreshold = "b".repeat(2047);
+        String first = saveRequest(justOver);
+        String second = saveRequest(belowThreshold);
+
+        assertThat(requestBodyRepository.findById(first).orElseThrow().isCompressed()).isFalse();
+        assertThat(requestBodyRepository.findById(second).orElseThrow().isCompressed()).isFalse();
+        assertThat(largeTextStore.findRequestBody(first)).contains(justOver);
+        assertThat(largeTextStore.findRequestBody(second)).contains(belowThreshold);
+    }
+
+    @Test
+    void bodiesFromTheThresholdOnAreCompressed() {
+        String atThreshold = "c".repeat(2048);
+        // Two-byte characters: 1100 code points, 2200 bytes
+        String multiByte = "é".repeat(1100);
+        String atId = saveRequest(atThreshold);
+        String multiByteId = saveRequest(multiByte);
+
+        var stored = requestBodyRepository.findById(atId).orElseThrow();
+        assertThat(stored.isCompressed()).isTrue();
+        assertThat(stored.getOriginalBytes()).isEqualTo(2048);
+        assertThat(stored.getContent().length).isLessThan(2048);
+        assertThat(largeTextStore.findRequestBody(atId)).contains(atThreshold);
+        assertThat(requestBodyRepository.findById(multiByteId).orElseThrow().isCompressed()).isTrue();
+        assertThat(largeTextStore.findRequestBody(multiByteId)).contains(multiByte);
+    }
+
+    @Test
+    void listReadsCarryThePreviewAndDetailReadsTheBody() {
+        String text = "d".repeat(3000);
+        String requestId = saveRequest(text);
+
+        RequestResponse listed = requestRepository.findResponseById(requestId).orElseThrow();
+        assertThat(listed.isDescriptionTruncated()).isTrue();
+        assertThat(listed.getDescription()).hasSize(LargeTextStore.PREVIEW_LENGTH);
+        assertThat(largeTextStore.findRequestBody(requestId)).contains(text);
+    }
+
+    @Test
+    void editingReplacesOrDropsTheBody() {
+        String requestId = saveRequest("e".repeat(3000));
+
+        largeTextStore.saveRequestBody(requestId, "f".repeat(1500), true);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(largeTextStore.findRequestBody(requestId)).contains("f".repeat(1500));
+
+        largeTextStore.saveRequestBody(requestId, "short again", true);
+        entityManager.clear();
+        assertThat(largeTextStore.findRequestBody(requestId)).isEmpty();
+    }
+
+    @Test
+    void replyBodiesFollowTheTruncatedFlag() {
+        String requestId = saveRequest("Help");
+        String taId = UUID.randomUUID().toString();
+        String longMessage = "g".repeat(2500);
+        Reply longReply = saveReply(requestId, taId, longMessage);
+        Reply shortReply = saveReply(requestId, taId, "Try again");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ReplyDto> thread = replyRepository.findDtosByRequestId(requestId);
+        assertThat(thread).extracting(ReplyDto::isMessageTruncated).containsExactlyInAnyOrder(true, false);
+        Map<String, String> bodies = largeTextStore.findReplyBodies(
+                List.of(longReply.getId(), shortReply.getId()));
+        assertThat(bodies).containsOnlyKeys(longReply.getId());
+        assertThat(bodies.get(longReply.getId())).isEqualTo(longMessage);
+    }
+
+    @Test
+    void deletingARequestDropsItsBodyAndReplyBodies() {
+        String requestId = saveRequest("h".repeat(3000));
+        String otherId = saveRequest("i".repeat(3000));
+        String taId = UUID.randomUUID().toString();
+        saveReply(requestId, taId, "j".repeat(2500));
+        Reply kept = saveReply(otherId, taId, "k".repeat(2500));
+        entityManager.flush();
+
+        largeTextStore.deleteRequestBodies(requestId);
+
+        assertThat(requestBodyRepository.findAll()).extracting(body -> body.getRequestId()).containsExactly(otherId);
+        assertThat(replyBodyRepository.findAll()).extracting(body -> body.getReplyId()).containsExactly(kept.getId());
+    }
+
+    private String saveRequest(String description) {
+        Request request = requestRepository.save(Request.builder()
+                .title("Request")
+                .description(LargeTextStore.preview(description))
+                .descriptionTruncated(LargeTextStore.isLong(description))
+                .studentId(UUID.randomUUID().toString())
+                .status(RequestStatus.PENDING)
+                .build());
+        largeTextStore.saveRequestBody(request.getId(), description, false);
+        entityManager.flush();
+        entityManager.clear();
+        return request.getId();
+    }
+
+    private Reply saveReply(String requestId, String taId, String message) {
+        Reply reply = replyRepository.save(Reply.builder()
+                .requestId(requestId)
+                .taId(taId)
+                .message(LargeTextStore.preview(message))
+                .messageTruncated(LargeTextStore.isLong(message))
+                .build());
+        largeTextStore.saveReplyBodies(Map.of(reply.getId(), message));
+        return reply;
+    }
+}
@@ -0,0 +1,93 @@
+package com.lms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Random inserts and deletes agree with a sorted list on membership, size and every rank.
+ */
+class OrderStatisticTreeTest {
+
+    private static final int KEY_RANGE = 500;
+
+    @Test
+    void matchesASortedListUnderRandomOperations() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            OrderStatisticTree<Integer> tree = new OrderStatisticTree<>();
+            List<Integer> sorted = new ArrayList<>();
+
+            for (int step = 0; step < 2_000; step++) {
+                int key = random.nextInt(KEY_RANGE);
+                int position = Collections.binarySearch(sorted, key);
+                // Bias towards inserts early so the tree grows, towards deletes later so it shrinks again
+                if (random.nextInt(2_000) >= step) {
+                    assertThat(tree.add(key)).as("add %d, seed %d", key, seed).isEqualTo(position < 0);
+                    if (position < 0) {
+                        sorted.add(-position - 1, key);
+                    }
+                } else {
+                    assertThat(tree.remove(key)).as("remove %d, seed %d", key, seed).isEqualTo(position >= 0);
+                    if (position >= 0) {
+                        sorted.remove(position);
+                    }
+                }
+
+                int probe = random.nextInt(KEY_RANGE);
+                int expected = Collections.binarySearch(sorted, probe);
+                assertThat(tree.rank(probe)).as("rank %d, seed %d", probe, seed).isEqualTo(Math.max(expected, -1));
+                assertThat(tree.size()).isEqualTo(sorted.size());
+            }
+            assertInOrder(tree, sorted);
+        }
+    }
+
+    @Test
+    void ranksFollowInsertsAndDeletesAtEveryPosition() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>();
+        List<Integer> sorted = new ArrayList<>();
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < 200; key++) {
+            keys.add(key * 2);
+        }
+        Collections.shuffle(keys, new Random(7));
+
+        for (int key : keys) {
+            tree.add(key);
+            int position = Collections.binarySearch(sorted, key);
+            sorted.add(-position - 1, key);
+            assertInOrder(tree, sorted);
+        }
+        assertThat(tree.add(keys.get(0))).isFalse();
+        // Absent keys between and around present ones
+        assertThat(tree.rank(-1)).isEqualTo(-1);
+        assertThat(tree.rank(201)).isEqualTo(-1);
+
+        Collections.shuffle(keys, new Random(11));
+        for (int key : keys) {
+            assertThat(tree.remove(key)).isTrue();
+            sorted.remove(Integer.valueOf(key));
+            assertInOrder(tree, sorted);
+        }
+        assertThat(tree.isEmpty()).isTrue();
+        assertThat(tree.remove(0)).isFalse();
+    }
+
+    private static void assertInOrder(OrderStatisticTree<Integer> tree, List<Integer> sorted) {
+        List<Integer> visited = new ArrayList<>();
+        tree.forEachRanked((key, rank) -> {
+            assertThat(rank).isEqualTo(visited.size());
+            visited.add(key);
+        });
+        assertThat(visited).isEqualTo(sorted);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(tree.rank(sorted.get(i))).isEqualTo(i);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lifecycle events can reach the index out of commit order; only changes newer than the
+ * applied state of a request may win, only applied changes reach the followers, and
+ * reconciliation repairs entries one by one.
+ */
+class PendingQueueIndexTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private final List<RequestLifecycleEvent> applied = new ArrayList<>();
+    private PendingQueueIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PendingQueueIndex(event -> applied.add(((AppliedRequestChange) event).event()));
+        index.load(List.of());
+    }
+
+    @Test
+    void olderUpdateDoesNotReplaceNewerOne() {
+        index.upsert(request("a", RequestStatus.IN_PROGRESS, 2));
+
+        assertThat(index.upsert(request("a", RequestStatus.PENDING, 1))).isFalse();
+        assertThat(index.get("a").getStatus()).isEqualTo(RequestStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void lateUpdateDoesNotReopenResolvedRequest() {
+        index.upsert(request("a", RequestStatus.PENDING, 0));
+        index.upsert(request("a", RequestStatus.RESOLVED, 2));
+
+        assertThat(index.upsert(request("a", RequestStatus.IN_PROGRESS, 1))).isFalse();
+        assertThat(index.get("a")).isNull();
+    }
+
+    @Test
+    void staleRemovalIsIgnored() {
+        index.upsert(request("a", RequestStatus.PENDING, 3));
+
+        assertThat(index.remove(request("a", RequestStatus.PENDING, 2))).isFalse();
+        assertThat(index.get("a")).isNotNull();
+    }
+
+    @Test
+    void replyCountOrdersUpdatesOfTheSameVersion() {
+        index.upsert(request("a", RequestStatus.PENDING, 1, 2));
+
+        assertThat(index.upsert(request("a", RequestStatus.PENDING, 1, 1))).isFalse();
+        assertThat(index.upsert(request("a", RequestStatus.PENDING, 1, 3))).isTrue();
+    }
+
+    @Test
+    void lateEventIsNotRepublishedAndPreviousStateComesFromTheIndex() {
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.CREATED,
+                request("a", RequestStatus.PENDING, 0), null));
+        // The resolve committed after the claim but its listener ran first
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.RESOLVED,
+                request("a", RequestStatus.RESOLVED, 2), RequestStatus.IN_PROGRESS));
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.ASSIGNED,
+                request("a", RequestStatus.IN_PROGRESS, 1), RequestStatus.PENDING));
+
+        assertThat(applied).extracting(RequestLifecycleEvent::type)
+                .containsExactly(RequestLifecycleEvent.CREATED, RequestLifecycleEvent.RESOLVED);
+        assertThat(applied.get(1).previousStatus()).isEqualTo(RequestStatus.PENDING);
+        assertThat(index.get("a")).isNull();
+    }
+
+    @Test
+    void changeOvertakingTheCreationOpensTheRequestForFollowers() {
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.ASSIGNED,
+                request("a", RequestStatus.IN_PROGRESS, 1), RequestStatus.PENDING));
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.CREATED,
+                request("a", RequestStatus.PENDING, 0), null));
+
+        assertThat(applied).hasSize(1);
+        assertThat(applied.get(0).previousStatus()).isNull();
+        assertThat(index.get("a").getStatus()).isEqualTo(RequestStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void positionsFollowOnlyAppliedChanges() {
+        QueuePositionService positions = new QueuePositionService(index, null);
+        index = new PendingQueueIndex(event -> positions.onAppliedChange((AppliedRequestChange) event));
+        index.load(List.of());
+        positions.rebuild();
+
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.CREATED,
+                request("a", RequestStatus.PENDING, 0), null));
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.CREATED,
+                request("b", RequestStatus.PENDING, 0), null));
+        // The claim of "a" is applied before its older priority change arrives
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.ASSIGNED,
+                request("a", RequestStatus.IN_PROGRESS, 2), RequestStatus.PENDING));
+        index.onRequestLifecycleEvent(event(RequestLifecycleEvent.UPDATED,
+                request("a", RequestStatus.PENDING, 1), RequestStatus.PENDING));
+
+        assertThat(positions.getPosition("a", RequestStatus.IN_PROGRESS).getPosition()).isNull();
+        assertThat(positions.getPosition("b", RequestStatus.PENDING).getPosition()).isEqualTo(1);
+        assertThat(positions.queueLength(null)).isEqualTo(1);
+    }
+
+    @Test
+    void positionsAreRebuiltFromTheReconciledIndex() {
+        QueuePositionService positions = new QueuePositionService(index, null);
+        index.upsert(request("a", RequestStatus.PENDING, 0));
+        positions.rebuild();
+        assertThat(positions.queueLength(null)).isEqualTo(1);
+
+        // Claimed without an event reaching this instance
+        index.reconcile(List.of(request("a", RequestStatus.IN_PROGRESS, 1)), index.modificationCount());
+        positions.rebuild();
+
+        assertThat(positions.getPosition("a", RequestStatus.IN_PROGRESS).getPosition()).isNull();
+        assertThat(positions.queueLength(null)).isZero();
+    }
+
+    @Test
+    void reconcileRepairsEntriesWithoutOverwritingNewerOnes() {
+        index.upsert(request("stale", RequestStatus.PENDING, 0));
+        index.upsert(request("gone", RequestStatus.PENDING, 0));
+        long readStamp = index.modificationCount();
+        // Changed after the database read started: the read must not undo it
+        index.upsert(request("fresh", RequestStatus.IN_PROGRESS, 4));
+
+        int drift = index.reconcile(List.of(
+                request("stale", RequestStatus.IN_PROGRESS, 1),
+                request("fresh", RequestStatus.PENDING, 3),
+                request("missed", RequestStatus.PENDING, 0)), readStamp);
+
+        assertThat(drift).isEqualTo(3);
+        assertThat(index.get("stale").getStatus()).isEqualTo(RequestStatus.IN_PROGRESS);
+        assertThat(index.get("fresh").getStatus()).isEqualTo(RequestStatus.IN_PROGRESS);
+        assertThat(index.get("missed")).isNotNull();
+        assertThat(index.get("gone")).isNull();
+    }
+
+    private static RequestLifecycleEvent event(String type, RequestResponse request, RequestStatus previousStatus) {
+        return new RequestLifecycleEvent(type, request, previousStatus, null);
+    }
+
+    private static RequestResponse request(String id, RequestStatus status, long version) {
+        return request(id, status, version, 0);
+    }
+
+    private static RequestResponse request(String id, RequestStatus status, long version, int replyCount) {
+        return RequestResponse.builder()
+                .id(id)
+                .status(status)
+                .priority(1L)
+                .createdAt(CREATED_AT)
+                .version(version)
+                .replyCount(replyCount)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.lms.service;
+
+import com.lms.entity.Request;
+import com.lms.entity.User;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.RequestRepository;
+import com.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Moved requests are ranked halfway between their new neighbours, neighbours are spread out
+ * when there is no room left between them, and a TA's rapid moves are applied once they pause.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:services;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@ActiveProfiles("h2")
+class QueueReorderTest {
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private QueueReorderService queueReorderService;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LabSessionRepository labSessionRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void movedRequestTakesTheMidpointBetweenItsNeighbours() {
+        List<String> ids = queue("midpoint", 1_000L, 2_000L, 3_000L);
+
+        requestService.applyQueueMoves(List.of(new QueueMove(ids.get(2), ids.get(1), true)));
+
+        Request moved = requestRepository.findById(ids.get(2)).orElseThrow();
+        assertThat(moved.getPriority()).isEqualTo(1_500L);
+        assertThat(moved.isHandRanked()).isTrue();
+        assertThat(priorities(ids)).containsExactly(1_000L, 2_000L, 1_500L);
+    }
+
+    @Test
+    void neighboursAreSpreadOutWhenTheirRanksAreAdjacent() {
+        List<String> ids = queue("rebalance", 1_000L, 1_001L, 1_002L, 1_003L);
+
+        requestService.applyQueueMoves(List.of(new QueueMove(ids.get(3), ids.get(1), true)));
+
+        // The range ends at the tail of the queue, so it is stretched upwards to the full gap
+        assertThat(priorities(ids)).containsExactly(1_000L, 2_000L, 3_000L, 1_500L);
+        assertThat(requestRepository.findById(ids.get(1)).orElseThrow().isHandRanked()).isFalse();
+        assertThat(requestRepository.findById(ids.get(3)).orElseThrow().isHandRanked()).isTrue();
+    }
+
+    @Test
+    void rapidMovesOfARequestCollapseIntoTheLastOne() throws InterruptedException {
+        List<String> ids = queue("debounce", 1_000L, 2_000L, 3_000L);
+        long version = requestRepository.findById(ids.get(2)).orElseThrow().getVersion();
+        User ta = TestFixtures.saveUser(userRepository, "debounce-ta");
+
+        queueReorderService.submit(ta.getUsername(), new QueueMove(ids.get(2), ids.get(0), true));
+        queueReorderService.submit(ta.getUsername(), new QueueMove(ids.get(2), ids.get(1), true));
+        // Nothing is applied while the TA is still moving requests
+        assertThat(requestRepository.findById(ids.get(2)).orElseThrow().getPriority()).isEqualTo(3_000L);
+
+        Request moved = awaitPriorityChange(ids.get(2), 3_000L);
+        assertThat(moved.getPriority()).isEqualTo(1_500L);
+        assertThat(moved.getVersion()).isEqualTo(version + 1);
+    }
+
+    /** Create a pending request per rank in a new lab session and give each its rank. */
+    private List<String> queue(String name, long... ranks) {
+        String session = TestFixtures.openSession(labSessionRepository, name + " lab");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < ranks.length; i++) {
+            String username = name + "-student-" + i;
+            TestFixtures.saveUser(userRepository, username);
+            String id = requestService.createRequest(
+                    TestFixtures.request(session, "Question " + i, "Help with step " + i), username).getId();
+            long rank = ranks[i];
+            transactionTemplate.executeWithoutResult(status -> requestRepository.updatePriority(id, rank));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private List<Long> priorities(List<String> ids) {
+        return ids.stream().map(id -> requestRepository.findById(id).orElseThrow().getPriority()).toList();
+    }
+
+    private Request awaitPriorityChange(String id, long priority) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            Request request = requestRepository.findById(id).orElseThrow();
+            if (request.getPriority() != priority || System.currentTimeMillis() > deadline) {
+                return request;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.lms.service;
+
+import com.lms.dto.CursorPage;
+import com.lms.dto.ReplyDto;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.Reply;
+import com.lms.entity.RequestStatus;
+import com.lms.entity.User;
+import com.lms.repository.ArchivedReplyRepository;
+import com.lms.repository.ArchivedRequestRepository;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.ReplyRepository;
+import com.lms.repository.RequestRepository;
+import com.lms.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Old finished requests move to the archive with their replies, in batches, and a student's
+ * history pages through live and archived requests as one list.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:services;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@ActiveProfiles("h2")
+class RequestArchiverTest {
+
+    private static final String STUDENT = "archive-student";
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private ReplyService replyService;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ArchivedRequestRepository archivedRequestRepository;
+    @Autowired
+    private ReplyRepository replyRepository;
+    @Autowired
+    private ArchivedReplyRepository archivedReplyRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LabSessionRepository labSessionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void archivesOldFinishedRequestsAndMergesThemIntoTheHistory() {
+        User ta = TestFixtures.saveUser(userRepository, "archive-ta");
+        TestFixtures.saveUser(userRepository, STUDENT);
+        String session = TestFixtures.openSession(labSessionRepository, "Archive lab");
+        LocalDateTime now = LocalDateTime.now();
+        // Oldest first: three finished long ago, one still waiting since then, one finished recently, one open
+        String r0 = request(session, ta, now.minusDays(203), true);
+        String r1 = request(session, ta, now.minusDays(202), true);
+        String r2 = request(session, ta, now.minusDays(201), true);
+        String r3 = request(session, ta, now.minusDays(200), false);
+        String r4 = request(session, ta, now.minusDays(1), true);
+        String r5 = request(session, ta, now, false);
+        reply(r0, ta, "First answer");
+        reply(r0, ta, "Second answer");
+        reply(r4, ta, "Recent answer");
+
+        // Batches of two: the three old resolved requests take two batches
+        new RequestArchiver(jdbcTemplate, transactionManager, true, 180, 2, 10, 0).archiveFinishedRequests();
+
+        assertThat(archivedRequestRepository.findAllById(List.of(r0, r1, r2, r3, r4, r5)))
+                .extracting(archived -> archived.getId())
+                .containsExactlyInAnyOrder(r0, r1, r2);
+        assertThat(requestRepository.findAllById(List.of(r0, r1, r2, r3, r4, r5)))
+                .extracting(live -> live.getId())
+                .containsExactlyInAnyOrder(r3, r4, r5);
+        assertThat(replyRepository.findDtosByRequestId(r0)).isEmpty();
+        assertThat(archivedReplyRepository.findDtosByRequestId(r0)).extracting(ReplyDto::getMessage)
+                .containsExactly("First answer", "Second answer");
+        assertThat(replyService.getRepliesByRequestId(r0)).hasSize(2);
+        assertThat(replyRepository.findDtosByRequestId(r4)).extracting(ReplyDto::getMessage)
+                .containsExactly("Recent answer");
+        assertThat(requestService.getRequestById(r1).getStatus()).isEqualTo(RequestStatus.RESOLVED);
+
+        // Offset pages over both tables, newest first
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<RequestResponse> merged = requestService.getMyRequests(STUDENT, null, page, 2, true);
+            assertThat(merged.getTotalElements()).isEqualTo(6);
+            merged.forEach(request -> paged.add(request.getId()));
+        }
+        assertThat(paged).containsExactly(r5, r4, r3, r2, r1, r0);
+        assertThat(requestService.getMyRequests(STUDENT, null, 0, 10, false).getTotalElements()).isEqualTo(3);
+        Page<RequestResponse> resolved = requestService.getMyRequests(STUDENT, RequestStatus.RESOLVED, 0, 10, true);
+        assertThat(resolved.getTotalElements()).isEqualTo(4);
+        assertThat(resolved.getContent()).extracting(RequestResponse::getId).containsExactly(r4, r2, r1, r0);
+        // Only finished requests are archived, so open statuses skip the archive
+        assertThat(requestService.getMyRequests(STUDENT, RequestStatus.PENDING, 0, 10, true).getTotalElements())
+                .isEqualTo(2);
+
+        // Cursor pages carry on from the live table into the archive
+        CursorPage<RequestResponse> first = requestService.getMyRequestsByCursor(STUDENT, null, null, 4, true);
+        assertThat(first.getContent()).extracting(RequestResponse::getId).containsExactly(r5, r4, r3, r2);
+        assertThat(first.isHasNext()).isTrue();
+        CursorPage<RequestResponse> second = requestService.getMyRequestsByCursor(
+                STUDENT, null, first.getNextCursor(), 4, true);
+        assertThat(second.getContent()).extracting(RequestResponse::getId).containsExactly(r1, r0);
+        assertThat(second.isHasNext()).isFalse();
+    }
+
+    /** Create a request of the student at the given time, resolved by the TA if asked. */
+    private String request(String session, User ta, LocalDateTime createdAt, boolean resolve) {
+        String id = requestService.createRequest(TestFixtures.request(session, "Question", "Help"), STUDENT).getId();
+        if (resolve) {
+            requestService.assignRequestTo(id, ta.getId());
+            requestService.resolveRequest(id, ta.getUsername());
+        }
+        // created_at is set on insert and not updatable through the entity
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+                .createQuery("UPDATE Request r SET r.createdAt = :createdAt WHERE r.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", id)
+                .executeUpdate());
+        return id;
+    }
+
+    private void reply(String requestId, User ta, String message) {
+        replyRepository.save(Reply.builder()
+                .requestId(requestId)
+                .taId(ta.getId())
+                .message(message)
+                .build());
+    }
+}
@@ -0,0 +1,129 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * MinHash signatures estimate the Jaccard similarity of 4-character shingles, and requests join
+ * the cluster of a similar enough open request of the same lab session.
+ */
+class RequestClusterIndexTest {
+
+    private static final String NPE = "my program throws a nullpointerexception when reading the input file";
+
+    @Test
+    void identicalTextHasIdenticalSignatures() {
+        long[] signature = RequestClusterIndex.signature(NPE);
+
+        assertThat(signature).hasSize(64).isEqualTo(RequestClusterIndex.signature(NPE));
+        assertThat(RequestClusterIndex.similarity(signature, RequestClusterIndex.signature(NPE))).isEqualTo(1.0);
+    }
+
+    @Test
+    void similarityEstimatesTheJaccardSimilarityOfShingles() {
+        String[][] pairs = {
+                {NPE, "my program throws a nullpointerexception when reading the output file"},
+                {NPE, "my code throws a nullpointerexception when parsing the config"},
+                {NPE, "how do i submit the assignment on the course website"},
+        };
+        for (String[] pair : pairs) {
+            double estimated = RequestClusterIndex.similarity(
+                    RequestClusterIndex.signature(pair[0]), RequestClusterIndex.signature(pair[1]));
+            // 64 rows: the standard error is at most 1/16
+            assertThat(estimated).as(pair[1]).isCloseTo(jaccard(pair[0], pair[1]), within(0.2));
+        }
+    }
+
+    @Test
+    void shortTextIsPaddedToOneShingle() {
+        assertThat(RequestClusterIndex.similarity(RequestClusterIndex.signature("ab"),
+                RequestClusterIndex.signature("ab  "))).isEqualTo(1.0);
+        assertThat(RequestClusterIndex.similarity(RequestClusterIndex.signature("ab"),
+                RequestClusterIndex.signature("cd"))).isLessThan(0.1);
+    }
+
+    @Test
+    void nearDuplicatesOfTheSameSessionShareACluster() {
+        RequestClusterIndex index = new RequestClusterIndex(new PendingQueueIndex(event -> {
+        }), 0.6);
+        add(index, "a", "lab-1", "NullPointerException", NPE);
+        add(index, "b", "lab-1", "NullPointerException!", NPE + ".");
+        add(index, "c", "lab-2", "NullPointerException", NPE);
+        add(index, "d", "lab-1", "Submission", "how do i submit the assignment on the course website");
+
+        assertThat(index.clusterOf("b")).isEqualTo("a");
+        assertThat(index.members("a")).containsExactly("a", "b");
+        assertThat(index.clusterOf("c")).isEqualTo("c");
+        assertThat(index.clusterOf("d")).isEqualTo("d");
+
+        // The cluster keeps its ID while it has members
+        index.onAppliedChange(change("a", "lab-1", "NullPointerException", NPE, RequestStatus.RESOLVED));
+        assertThat(index.members("a")).containsExactly("b");
+        assertThat(index.clusterOf("a")).isNull();
+    }
+
+    @Test
+    void requestsBelowTheThresholdStartTheirOwnCluster() {
+        String related = "my program throws a nullpointerexception when reading the output file";
+        double similarity = RequestClusterIndex.similarity(
+                RequestClusterIndex.signature("npe " + NPE), RequestClusterIndex.signature("npe " + related));
+
+        RequestClusterIndex strict = new RequestClusterIndex(new PendingQueueIndex(event -> {
+        }), similarity + 0.01);
+        add(strict, "a", "lab-1", "NPE", NPE);
+        add(strict, "b", "lab-1", "NPE", related);
+        assertThat(strict.clusterOf("b")).isEqualTo("b");
+
+        RequestClusterIndex lenient = new RequestClusterIndex(new PendingQueueIndex(event -> {
+        }), similarity);
+        add(lenient, "a", "lab-1", "NPE", NPE);
+        add(lenient, "b", "lab-1", "NPE", related);
+        // Candidates must share an LSH bucket: with 16 bands of 4 rows, near certain at this similarity
+        assertThat(lenient.clusterOf("b")).isEqualTo("a");
+    }
+
+    private static void add(RequestClusterIndex index, String id, String labSessionId, String title,
+                            String description) {
+        index.onAppliedChange(change(id, labSessionId, title, description, RequestStatus.PENDING));
+    }
+
+    private static AppliedRequestChange change(String id, String labSessionId, String title, String description,
+                                               RequestStatus status) {
+        RequestResponse request = RequestResponse.builder()
+                .id(id)
+                .labSessionId(labSessionId)
+                .title(title)
+                .description(description)
+                .status(status)
+                .priority(1L)
+                .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0))
+                .build();
+        String type = status == RequestStatus.PENDING ? RequestLifecycleEvent.CREATED : RequestLifecycleEvent.RESOLVED;
+        return new AppliedRequestChange(new RequestLifecycleEvent(type, request, RequestStatus.PENDING, null));
+    }
+
+    private static double jaccard(String a, String b) {
+        Set<String> left = shingles(a);
+        Set<String> right = shingles(b);
+        Set<String> union = new HashSet<>(left);
+        union.addAll(right);
+        left.retainAll(right);
+        return (double) left.size() / union.size();
+    }
+
+    private static Set<String> shingles(String text) {
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + 4 <= text.length(); i++) {
+            shingles.add(text.substring(i, i + 4));
+        }
+        return shingles;
+    }
+}
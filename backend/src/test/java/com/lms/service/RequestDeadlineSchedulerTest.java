@@ -0,0 +1,174 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deadlines follow applied lifecycle changes and are fired by explicit ticks; fired mutations are
+ * recorded by the pipeline instead of run.
+ */
+class RequestDeadlineSchedulerTest {
+
+    private static final long TICK_MS = 1_000;
+    private static final long ESCALATE_AFTER_MS = 60_000;
+    private static final int MAX_ESCALATIONS = 2;
+    private static final long RELEASE_AFTER_MS = 30_000;
+    private static final String TA = "ta-1";
+
+    private final List<String> fired = new CopyOnWriteArrayList<>();
+    private final Set<String> online = ConcurrentHashMap.newKeySet();
+    private PendingQueueIndex index;
+    private RequestDeadlineScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        index = new PendingQueueIndex(event -> {
+        });
+        TaPresenceRegistry presence = new TaPresenceRegistry(null) {
+            @Override
+            public boolean isOnline(String taId) {
+                return online.contains(taId);
+            }
+        };
+        RequestMutationPipeline pipeline = new RequestMutationPipeline(null, index, null, null, false, 1, 1, 1) {
+            @Override
+            public <T> T executeForRequest(String requestId, RequestStatus target, Supplier<T> mutation) {
+                fired.add((target == RequestStatus.PENDING ? "release " : "escalate ") + requestId);
+                return null;
+            }
+        };
+        QueueStateStore queueStateStore = new QueueStateStore(index, null, null, false, "unused", 0);
+        scheduler = new RequestDeadlineScheduler(null, index, presence, pipeline, queueStateStore, true,
+                TICK_MS, ESCALATE_AFTER_MS, MAX_ESCALATIONS, RELEASE_AFTER_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void pendingRequestIsEscalatedUpToTheLimit() {
+        index.load(List.of(request("a", RequestStatus.PENDING, null, LocalDateTime.now())));
+        long created = System.currentTimeMillis();
+        scheduler.onAppliedChange(change(RequestLifecycleEvent.CREATED, "a", RequestStatus.PENDING, null, null));
+
+        scheduler.tick(created + ESCALATE_AFTER_MS - TICK_MS);
+        assertThat(fired).isEmpty();
+        scheduler.tick(created + ESCALATE_AFTER_MS + TICK_MS);
+        assertThat(fired).containsExactly("escalate a");
+
+        // Re-armed from when the first escalation fired, and not again after the last one
+        scheduler.tick(System.currentTimeMillis() + 2 * ESCALATE_AFTER_MS + TICK_MS);
+        assertThat(fired).containsExactly("escalate a", "escalate a");
+        assertThat(scheduler.size()).isZero();
+    }
+
+    @Test
+    void claimReplacesTheEscalationAndResolveDisarms() {
+        scheduler.onAppliedChange(change(RequestLifecycleEvent.CREATED, "a", RequestStatus.PENDING, null, null));
+        assertThat(actions()).containsEntry("a", "ESCALATE");
+
+        scheduler.onAppliedChange(change(RequestLifecycleEvent.ASSIGNED, "a", RequestStatus.IN_PROGRESS, TA,
+                RequestStatus.PENDING));
+        assertThat(actions()).containsExactly(Map.entry("a", "RELEASE"));
+
+        scheduler.onAppliedChange(change(RequestLifecycleEvent.RESOLVED, "a", RequestStatus.RESOLVED, TA,
+                RequestStatus.IN_PROGRESS));
+        assertThat(scheduler.size()).isZero();
+        scheduler.tick(System.currentTimeMillis() + 10 * ESCALATE_AFTER_MS);
+        assertThat(fired).isEmpty();
+    }
+
+    @Test
+    void heldRequestIsReleasedOnlyWhileItsTaIsOffline() {
+        online.add(TA);
+        scheduler.onAppliedChange(change(RequestLifecycleEvent.ASSIGNED, "a", RequestStatus.IN_PROGRESS, TA,
+                RequestStatus.PENDING));
+
+        scheduler.tick(System.currentTimeMillis() + RELEASE_AFTER_MS + TICK_MS);
+        assertThat(fired).isEmpty();
+        assertThat(scheduler.size()).isZero();
+
+        // The TA's last session closes: the grace period starts again
+        online.remove(TA);
+        index.load(List.of(request("a", RequestStatus.IN_PROGRESS, TA, LocalDateTime.now())));
+        scheduler.onSessionDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "session-1", CloseStatus.NORMAL));
+        assertThat(actions()).containsExactly(Map.entry("a", "RELEASE"));
+
+        // The wheel already ticked past the new deadline above, so it fires on the next tick
+        scheduler.tick(System.currentTimeMillis() + 2 * RELEASE_AFTER_MS);
+        assertThat(fired).containsExactly("release a");
+    }
+
+    @Test
+    void rebuildArmsDeadlinesFromTheWarmedIndex() {
+        scheduler.onAppliedChange(change(RequestLifecycleEvent.CREATED, "gone", RequestStatus.PENDING, null, null));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime waiting = now.minusSeconds(90);
+        index.load(List.of(
+                request("waiting", RequestStatus.PENDING, null, waiting),
+                // Waited past the last escalation
+                request("old", RequestStatus.PENDING, null, now.minusSeconds(150)),
+                request("held", RequestStatus.IN_PROGRESS, TA, now)));
+        long rebuiltAt = System.currentTimeMillis();
+
+        scheduler.rebuild();
+
+        Map<String, QueueStateStore.SavedDeadline> armed = scheduler.exportDeadlines().stream()
+                .collect(Collectors.toMap(QueueStateStore.SavedDeadline::requestId, deadline -> deadline));
+        assertThat(armed).containsOnlyKeys("waiting", "held");
+        // 90 seconds old: the second escalation is due at 120 seconds
+        assertThat(armed.get("waiting").escalation()).isEqualTo(2);
+        assertThat(armed.get("waiting").deadlineMs()).isEqualTo(toEpochMillis(waiting) + 2 * ESCALATE_AFTER_MS);
+        // Held requests get a full grace period
+        assertThat(armed.get("held").action()).isEqualTo("RELEASE");
+        assertThat(armed.get("held").deadlineMs()).isBetween(rebuiltAt + RELEASE_AFTER_MS,
+                System.currentTimeMillis() + RELEASE_AFTER_MS);
+    }
+
+    private Map<String, String> actions() {
+        return scheduler.exportDeadlines().stream()
+                .collect(Collectors.toMap(QueueStateStore.SavedDeadline::requestId,
+                        QueueStateStore.SavedDeadline::action));
+    }
+
+    private static AppliedRequestChange change(String type, String id, RequestStatus status, String assignedTo,
+                                               RequestStatus previousStatus) {
+        return new AppliedRequestChange(new RequestLifecycleEvent(type,
+                request(id, status, assignedTo, LocalDateTime.now()), previousStatus, null));
+    }
+
+    private static RequestResponse request(String id, RequestStatus status, String assignedTo, LocalDateTime createdAt) {
+        return RequestResponse.builder()
+                .id(id)
+                .status(status)
+                .assignedTo(assignedTo)
+                .priority(1L)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
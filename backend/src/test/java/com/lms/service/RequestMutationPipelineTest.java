@@ -0,0 +1,235 @@
+package com.lms.service;
+
+import com.lms.entity.LabSessionStatus;
+import com.lms.repository.LabSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The enabled pipeline against an H2 database: mutations queued behind a running one are committed
+ * together, a failing one is isolated from the rest of its group, a timed-out one is cancelled,
+ * and retired lanes stop.
+ * Each mutation inserts a row into a table with unique names and records its commit.
+ */
+class RequestMutationPipelineTest {
+
+    private static final String LAB = "lab-1";
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private final Map<String, LabSessionStatus> sessions = new ConcurrentHashMap<>();
+    private final List<String> committed = new CopyOnWriteArrayList<>();
+    private final List<Object> transactions = new CopyOnWriteArrayList<>();
+    private RequestMutationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:pipeline-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE items (name VARCHAR(50) PRIMARY KEY)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        sessions.put(LAB, LabSessionStatus.OPEN);
+    }
+
+    @AfterEach
+    void stopWriters() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void mutationsQueuedBehindARunningOneAreCommittedTogether() throws InterruptedException {
+        RequestMutationPipeline pipeline = pipeline(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        Caller holder = hold(pipeline, null, release, () -> insert("held"));
+        Caller first = submit(pipeline, null, () -> insert("first"));
+        Caller second = submit(pipeline, null, () -> insert("second"));
+        awaitWaiting(first);
+        awaitWaiting(second);
+
+        release.countDown();
+
+        assertThat(holder.result()).isEqualTo("held");
+        assertThat(first.result()).isEqualTo("first");
+        assertThat(second.result()).isEqualTo("second");
+        assertThat(committed).containsExactly("held", "first", "second");
+        // The holder ran alone; the two queued behind it shared one transaction
+        assertThat(transactions).hasSize(3);
+        assertThat(transactions.get(1)).isSameAs(transactions.get(2));
+        assertThat(transactions.get(0)).isNotSameAs(transactions.get(1));
+    }
+
+    @Test
+    void aFailingMutationIsReplayedAloneAndFailsOnlyItself() throws InterruptedException {
+        RequestMutationPipeline pipeline = pipeline(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        Caller holder = hold(pipeline, null, release, () -> insert("held"));
+        Caller before = submit(pipeline, null, () -> insert("before"));
+        awaitWaiting(before);
+        Caller duplicate = submit(pipeline, null, () -> insert("held"));
+        awaitWaiting(duplicate);
+        Caller after = submit(pipeline, null, () -> insert("after"));
+        awaitWaiting(after);
+
+        release.countDown();
+
+        assertThat(before.result()).isEqualTo("before");
+        assertThat(after.result()).isEqualTo("after");
+        assertThatThrownBy(duplicate::result).isInstanceOf(DuplicateKeyException.class);
+        assertThat(names()).containsExactlyInAnyOrder("held", "before", "after");
+        // The rolled-back group announced nothing; the replays commit in queue order
+        assertThat(committed).containsExactly("held", "before", "after");
+    }
+
+    @Test
+    void aMutationThatTimesOutWhileQueuedNeverRuns() throws InterruptedException {
+        RequestMutationPipeline pipeline = pipeline(200);
+        CountDownLatch release = new CountDownLatch(1);
+        Caller holder = hold(pipeline, null, release, () -> insert("held"));
+
+        assertThatThrownBy(() -> pipeline.execute(null, () -> insert("late")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("timed out");
+        release.countDown();
+
+        // The holder had started, so its caller waited past the timeout for the outcome
+        assertThat(holder.result()).isEqualTo("held");
+        assertThat(pipeline.execute(null, () -> insert("retried"))).isEqualTo("retried");
+        assertThat(names()).containsExactlyInAnyOrder("held", "retried");
+    }
+
+    @Test
+    void aRetiredLaneCommitsWhatIsQueuedThenStops() throws InterruptedException {
+        RequestMutationPipeline pipeline = pipeline(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        Caller holder = hold(pipeline, LAB, release, () -> {
+            writer.set(Thread.currentThread());
+            return insert("held");
+        });
+        Caller queued = submit(pipeline, LAB, () -> insert("queued"));
+        awaitWaiting(queued);
+
+        sessions.put(LAB, LabSessionStatus.CLOSED);
+        pipeline.closeLane(LAB);
+        release.countDown();
+
+        assertThat(queued.result()).isEqualTo("queued");
+        assertThat(holder.result()).isEqualTo("held");
+        assertThat(writer.get().getName()).isEqualTo("request-writer-" + LAB);
+        writer.get().join(5_000);
+        assertThat(writer.get().isAlive()).isFalse();
+        // Mutations of the closed session run inline and are left to reject themselves
+        assertThat(pipeline.execute(LAB, () -> Thread.currentThread())).isSameAs(Thread.currentThread());
+    }
+
+    private RequestMutationPipeline pipeline(long timeoutMs) {
+        LabSessionRepository labSessions = (LabSessionRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{LabSessionRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findStatusById")) {
+                        return Optional.ofNullable(sessions.get((String) args[0]));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        pipeline = new RequestMutationPipeline(transactionManager, new PendingQueueIndex(event -> {
+        }), null, labSessions, true, 16, 16, timeoutMs);
+        return pipeline;
+    }
+
+    /** Insert a row, remembering its transaction and announcing it once committed. */
+    private String insert(String name) {
+        jdbcTemplate.update("INSERT INTO items (name) VALUES (?)", name);
+        transactions.add(TransactionSynchronizationManager.getResource(dataSource));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.add(name);
+            }
+        });
+        return name;
+    }
+
+    private List<String> names() {
+        return jdbcTemplate.queryForList("SELECT name FROM items", String.class);
+    }
+
+    /** Submit a mutation that keeps the lane's writer busy until released, and wait until it runs. */
+    private static Caller hold(RequestMutationPipeline pipeline, String labSessionId, CountDownLatch release,
+                               Supplier<String> mutation) {
+        CountDownLatch running = new CountDownLatch(1);
+        Caller holder = submit(pipeline, labSessionId, () -> {
+            running.countDown();
+            await(release);
+            return mutation.get();
+        });
+        await(running);
+        return holder;
+    }
+
+    private static Caller submit(RequestMutationPipeline pipeline, String labSessionId, Supplier<String> mutation) {
+        CompletableFuture<Object> outcome = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                outcome.complete(pipeline.execute(labSessionId, mutation));
+            } catch (RuntimeException e) {
+                outcome.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        return new Caller(thread, outcome);
+    }
+
+    /** Wait until a caller is parked on its result, so its mutation is queued. */
+    private static void awaitWaiting(Caller caller) throws InterruptedException {
+        while (caller.thread().getState() != Thread.State.TIMED_WAITING
+                && caller.thread().getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Caller(Thread thread, CompletableFuture<Object> outcome) {
+        Object result() {
+            try {
+                return outcome.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                throw (RuntimeException) e.getCause();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.lms.service;
+
+import com.lms.dto.RequestResponse;
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.RequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counters are loaded with one grouped query and then follow lifecycle events without touching the database.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class RequestStatusCountersTest {
+
+    private static final String SESSION_A = "session-a";
+    private static final String SESSION_B = "session-b";
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    private RequestStatusCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        save(SESSION_A, RequestStatus.PENDING);
+        save(SESSION_A, RequestStatus.PENDING);
+        save(SESSION_A, RequestStatus.RESOLVED);
+        save(SESSION_B, RequestStatus.IN_PROGRESS);
+        save(SESSION_B, RequestStatus.CANCELLED);
+        save(null, RequestStatus.RESOLVED);
+        requestRepository.flush();
+
+        counters = new RequestStatusCounters(requestRepository);
+    }
+
+    @Test
+    void emptyUntilLoaded() {
+        assertThat(counters.counts(null)).isEmpty();
+    }
+
+    @Test
+    void loadsCountsPerSessionAndOverall() {
+        counters.reload();
+
+        assertThat(counters.counts(null)).contains(counts(2, 1, 2, 1));
+        assertThat(counters.counts(SESSION_A)).contains(counts(2, 0, 1, 0));
+        assertThat(counters.counts(SESSION_B)).contains(counts(0, 1, 0, 1));
+        assertThat(counters.counts("unknown")).contains(counts(0, 0, 0, 0));
+    }
+
+    @Test
+    void followsLifecycleEvents() {
+        counters.reload();
+
+        RequestResponse created = response(SESSION_A, RequestStatus.PENDING);
+        counters.onAppliedChange(change(RequestLifecycleEvent.CREATED, created, null, null));
+        RequestResponse claimed = response(SESSION_A, RequestStatus.IN_PROGRESS);
+        counters.onAppliedChange(change(
+                RequestLifecycleEvent.ASSIGNED, claimed, RequestStatus.PENDING, null));
+        RequestResponse moved = response(SESSION_A, RequestStatus.PENDING);
+        counters.onAppliedChange(change(
+                RequestLifecycleEvent.UPDATED, moved, RequestStatus.PENDING, null));
+        counters.onAppliedChange(change(
+                RequestLifecycleEvent.DELETED, moved, RequestStatus.PENDING, null));
+
+        assertThat(counters.counts(SESSION_A)).contains(counts(1, 1, 1, 0));
+        assertThat(counters.counts(null)).contains(counts(1, 2, 2, 1));
+    }
+
+    @Test
+    void reloadPicksUpChangesMadeWithoutEvents() {
+        counters.reload();
+        requestRepository.cancelPendingByLabSessionId(SESSION_A);
+
+        assertThat(counters.counts(SESSION_A)).contains(counts(2, 0, 1, 0));
+        counters.reload();
+        assertThat(counters.counts(SESSION_A)).contains(counts(0, 0, 1, 2));
+    }
+
+    @Test
+    void eventsDuringReloadAreReplayedOntoTheLoadedCounts() {
+        // The request is created after the grouped count has read the table, before the reload applies it
+        RequestRepository racing = (RequestRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RequestRepository.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(requestRepository, args);
+                    if (method.getName().equals("countGroupedByLabSessionAndStatus")) {
+                        counters.onAppliedChange(change(RequestLifecycleEvent.CREATED,
+                                response(SESSION_A, RequestStatus.PENDING), null, null));
+                    }
+                    return result;
+                });
+        counters = new RequestStatusCounters(racing);
+
+        counters.reload();
+
+        assertThat(counters.counts(SESSION_A)).contains(counts(3, 0, 1, 0));
+        assertThat(counters.counts(null)).contains(counts(3, 1, 2, 1));
+    }
+
+    private static AppliedRequestChange change(String type, RequestResponse request,
+                                               RequestStatus previousStatus, String previousAssignedTo) {
+        return new AppliedRequestChange(new RequestLifecycleEvent(type, request, previousStatus, previousAssignedTo));
+    }
+
+    private static Map<RequestStatus, Long> counts(long pending, long inProgress, long resolved, long cancelled) {
+        return Map.of(RequestStatus.PENDING, pending, RequestStatus.IN_PROGRESS, inProgress,
+                RequestStatus.RESOLVED, resolved, RequestStatus.CANCELLED, cancelled);
+    }
+
+    private void save(String labSessionId, RequestStatus status) {
+        requestRepository.save(Request.builder()
+                .title("Request")
+                .description("Help")
+                .studentId(UUID.randomUUID().toString())
+                .labSessionId(labSessionId)
+                .status(status)
+                .build());
+    }
+
+    private static RequestResponse response(String labSessionId, RequestStatus status) {
+        RequestResponse response = new RequestResponse();
+        response.setId(UUID.randomUUID().toString());
+        response.setLabSessionId(labSessionId);
+        response.setStatus(status);
+        return response;
+    }
+}
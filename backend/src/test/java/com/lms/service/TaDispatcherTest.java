@@ -0,0 +1,244 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.LabSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dispatch toggles take effect on commit, bursts of changes coalesce into one drain per lab
+ * session, and per-TA load counters follow claims, releases and resolves. Assignments and
+ * drains are recorded instead of run against a database.
+ */
+class TaDispatcherTest {
+
+    private static final String LAB = "lab-1";
+    private static final String OTHER_LAB = "lab-2";
+    private static final TaPresenceRegistry.OnlineTa TA = new TaPresenceRegistry.OnlineTa("ta-1", "ta.one", 1);
+
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final Set<TaPresenceRegistry.OnlineTa> online = ConcurrentHashMap.newKeySet();
+    /** Lab session of every drain, in the order the worker ran them. */
+    private final BlockingQueue<String> drains = new LinkedBlockingQueue<>();
+    /** "request -> TA" for every assignment made by a drain. */
+    private final BlockingQueue<String> assignments = new LinkedBlockingQueue<>();
+    private final Map<String, CountDownLatch> drainGates = new ConcurrentHashMap<>();
+    private final Map<String, Long> priorities = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private PendingQueueIndex index;
+    private TaDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        sessions.addAll(List.of(LAB, OTHER_LAB));
+        index = new PendingQueueIndex(event -> {
+        });
+        index.load(List.of());
+        TaPresenceRegistry presence = new TaPresenceRegistry(null) {
+            @Override
+            public Collection<OnlineTa> onlineTas() {
+                return List.copyOf(online);
+            }
+        };
+        RequestService requestService = new RequestService(null, null, null, null, null, null, null, null, null,
+                null, null, null, null) {
+            @Override
+            public Optional<RequestResponse> assignRequestTo(String requestId, String taId) {
+                // Claims reach the dispatcher as applied changes before the drain picks the next TA
+                apply(RequestLifecycleEvent.ASSIGNED, request(requestId, LAB, RequestStatus.IN_PROGRESS, taId),
+                        RequestStatus.PENDING, null);
+                assignments.add(requestId + " -> " + taId);
+                return Optional.empty();
+            }
+        };
+        // Every drain reads the fair order once, so it is where drains are counted and held
+        WeightedFairQueue fairQueue = new WeightedFairQueue(index, new ObjectMapper(), false, "general=1", "general") {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public List<RequestResponse> fairOrder(String labSessionId, int limit) {
+                drains.add(labSessionId);
+                CountDownLatch gate = drainGates.get(labSessionId);
+                if (gate != null) {
+                    awaitQuietly(gate);
+                }
+                return index.list(RequestStatus.PENDING);
+            }
+        };
+        LabSessionRepository labSessions = (LabSessionRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{LabSessionRepository.class}, (proxy, method, args) ->
+                        switch (method.getName()) {
+                            case "updateAutoDispatch" -> sessions.contains((String) args[0]) ? 1 : 0;
+                            case "findByAutoDispatchIsNotNull" -> List.of();
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        });
+        dispatcher = new TaDispatcher(requestService, index, presence,
+                new SimpMessagingTemplate((message, timeout) -> true), labSessions, fairQueue, false, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        drainGates.values().forEach(CountDownLatch::countDown);
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void enablingTakesEffectOnCommitAndDrainsTheBacklog() throws InterruptedException {
+        online.add(TA);
+        apply(RequestLifecycleEvent.CREATED, request("a", LAB, RequestStatus.PENDING, null), null, null);
+        assertThatThrownBy(() -> dispatcher.setEnabled("missing", true))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Rolled back: nothing changes
+        inTransaction(false, () -> dispatcher.setEnabled(LAB, true));
+        assertThat(dispatcher.isEnabled(LAB)).isFalse();
+
+        inTransaction(true, () -> {
+            dispatcher.setEnabled(LAB, true);
+            assertThat(dispatcher.isEnabled(LAB)).isFalse();
+        });
+        assertThat(dispatcher.isEnabled(LAB)).isTrue();
+        assertThat(dispatcher.isEnabled(OTHER_LAB)).isFalse();
+        assertThat(drains.poll(5, TimeUnit.SECONDS)).isEqualTo(LAB);
+        assertThat(assignments.poll(5, TimeUnit.SECONDS)).isEqualTo("a -> ta-1");
+
+        dispatcher.setEnabled(LAB, false);
+        assertThat(dispatcher.isEnabled(LAB)).isFalse();
+    }
+
+    @Test
+    void aBurstOfChangesQueuesOneMoreDrain() throws InterruptedException {
+        dispatcher.setEnabled(OTHER_LAB, true);
+        assertThat(drains.poll(5, TimeUnit.SECONDS)).isEqualTo(OTHER_LAB);
+
+        // Hold the first drain on the worker while the burst arrives
+        CountDownLatch gate = new CountDownLatch(1);
+        drainGates.put(LAB, gate);
+        dispatcher.setEnabled(LAB, true);
+        assertThat(drains.poll(5, TimeUnit.SECONDS)).isEqualTo(LAB);
+        for (int i = 0; i < 50; i++) {
+            apply(RequestLifecycleEvent.CREATED, request("r" + i, LAB, RequestStatus.PENDING, null), null, null);
+        }
+        drainGates.remove(LAB);
+        gate.countDown();
+
+        // The worker runs drains in order, so once this one runs the burst has been handled
+        apply(RequestLifecycleEvent.CREATED, request("other", OTHER_LAB, RequestStatus.PENDING, null), null, null);
+        List<String> ran = new ArrayList<>();
+        String drain;
+        while (!OTHER_LAB.equals(drain = drains.poll(5, TimeUnit.SECONDS))) {
+            assertThat(drain).isNotNull();
+            ran.add(drain);
+        }
+        assertThat(ran).containsExactly(LAB);
+    }
+
+    @Test
+    void loadRecoversAfterReleaseAndResolve() throws InterruptedException {
+        index.load(List.of(request("held", LAB, RequestStatus.IN_PROGRESS, TA.id()),
+                request("other", LAB, RequestStatus.IN_PROGRESS, TA.id())));
+        dispatcher.seedLoadCounters();
+        assertThat(dispatcher.currentLoad(TA.id())).isEqualTo(2);
+
+        apply(RequestLifecycleEvent.RESOLVED, request("other", LAB, RequestStatus.RESOLVED, TA.id()),
+                RequestStatus.IN_PROGRESS, TA.id());
+        assertThat(dispatcher.currentLoad(TA.id())).isEqualTo(1);
+
+        // At capacity (one request per TA): new work waits
+        online.add(TA);
+        dispatcher.setEnabled(LAB, true);
+        assertThat(drains.poll(5, TimeUnit.SECONDS)).isEqualTo(LAB);
+        apply(RequestLifecycleEvent.CREATED, request("waiting", LAB, RequestStatus.PENDING, null), null, null);
+        assertThat(drains.poll(5, TimeUnit.SECONDS)).isEqualTo(LAB);
+        assertThat(assignments).isEmpty();
+
+        // Releasing frees the TA, who gets the released request back at the head of the queue
+        apply(RequestLifecycleEvent.UPDATED, request("held", LAB, RequestStatus.PENDING, null),
+                RequestStatus.IN_PROGRESS, TA.id());
+        assertThat(assignments.poll(5, TimeUnit.SECONDS)).isEqualTo("held -> ta-1");
+        assertThat(dispatcher.currentLoad(TA.id())).isEqualTo(1);
+
+        // Resolving it frees the TA for the request that was waiting
+        apply(RequestLifecycleEvent.RESOLVED, request("held", LAB, RequestStatus.RESOLVED, TA.id()),
+                RequestStatus.IN_PROGRESS, TA.id());
+        assertThat(assignments.poll(5, TimeUnit.SECONDS)).isEqualTo("waiting -> ta-1");
+        assertThat(dispatcher.currentLoad(TA.id())).isEqualTo(1);
+
+        apply(RequestLifecycleEvent.RESOLVED, request("waiting", LAB, RequestStatus.RESOLVED, TA.id()),
+                RequestStatus.IN_PROGRESS, TA.id());
+        assertThat(dispatcher.currentLoad(TA.id())).isZero();
+        // A duplicate resolve never drives the counter below zero
+        apply(RequestLifecycleEvent.RESOLVED, request("waiting", LAB, RequestStatus.RESOLVED, TA.id()),
+                RequestStatus.IN_PROGRESS, TA.id());
+        assertThat(dispatcher.currentLoad(TA.id())).isZero();
+        assertThat(assignments).isEmpty();
+    }
+
+    /** Apply a change to the queue index and hand it to the dispatcher, as the index does once applied. */
+    private void apply(String type, RequestResponse request, RequestStatus previousStatus, String previousAssignedTo) {
+        index.upsert(request);
+        dispatcher.onAppliedChange(new AppliedRequestChange(
+                new RequestLifecycleEvent(type, request, previousStatus, previousAssignedTo)));
+    }
+
+    /** Run work with transaction synchronization active, then commit or roll back. */
+    private static void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            if (commit) {
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** A state of a request, newer than any before it; requests rank in the order first seen. */
+    private RequestResponse request(String id, String labSessionId, RequestStatus status, String assignedTo) {
+        return RequestResponse.builder()
+                .id(id)
+                .labSessionId(labSessionId)
+                .status(status)
+                .assignedTo(assignedTo)
+                .version(versions.incrementAndGet())
+                .priority(priorities.computeIfAbsent(id, key -> (long) priorities.size()))
+                .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0))
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch gate) {
+        try {
+            gate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lms.service;
+
+import com.lms.dto.CreateRequestDto;
+import com.lms.entity.LabSession;
+import com.lms.entity.User;
+import com.lms.repository.LabSessionRepository;
+import com.lms.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Users, lab sessions and requests shared by the service tests that run against the full context.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /** Save a user with the given username, a matching email and a placeholder password hash. */
+    static User saveUser(UserRepository userRepository, String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("x");
+        return userRepository.save(user);
+    }
+
+    /** Save an open lab session and return its id. */
+    static String openSession(LabSessionRepository labSessionRepository, String name) {
+        LocalDateTime now = LocalDateTime.now();
+        return labSessionRepository.save(LabSession.builder()
+                .name(name)
+                .startTime(now)
+                .endTime(now.plusHours(2))
+                .build()).getId();
+    }
+
+    /** A request for a lab session with the given text. */
+    static CreateRequestDto request(String labSessionId, String title, String description) {
+        return CreateRequestDto.builder()
+                .title(title)
+                .description(description)
+                .labSessionId(labSessionId)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.lms.service;
+
+import com.lms.entity.Request;
+import com.lms.entity.RequestStatus;
+import com.lms.repository.RequestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * A restarted estimator starts from the service and wait times of recently resolved requests.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class WaitTimeEstimatorTest {
+
+    private static final String SESSION = "session-a";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void seedsAveragesFromRecentlyResolvedRequests() {
+        // Oldest first: 10 min wait / 4 min service, then 2 min wait / 6 min service
+        save(START, START.plusMinutes(10), START.plusMinutes(14));
+        save(START.plusMinutes(20), START.plusMinutes(22), START.plusMinutes(28));
+        // Resolved without a claim: no service time to learn from
+        save(START.plusMinutes(30), null, START.plusMinutes(31));
+        entityManager.clear();
+
+        WaitTimeEstimator estimator = new WaitTimeEstimator(null, null, requestRepository, 0.5, 300_000, 200);
+        estimator.warmUp();
+
+        assertThat(estimator.averageServiceTimeSeconds(SESSION)).isCloseTo(300.0, within(0.001));
+        assertThat(estimator.averageWaitTimeSeconds(SESSION)).isCloseTo(360.0, within(0.001));
+        assertThat(estimator.averageServiceTimeSeconds(null)).isCloseTo(300.0, within(0.001));
+    }
+
+    @Test
+    void startsEmptyWithoutHistory() {
+        WaitTimeEstimator estimator = new WaitTimeEstimator(null, null, requestRepository, 0.5, 300_000, 200);
+        estimator.warmUp();
+
+        assertThat(estimator.averageServiceTimeSeconds(SESSION)).isNull();
+    }
+
+    private void save(LocalDateTime createdAt, LocalDateTime assignedAt, LocalDateTime resolvedAt) {
+        Request request = requestRepository.save(Request.builder()
+                .title("Request")
+                .description("Help")
+                .studentId(UUID.randomUUID().toString())
+                .labSessionId(SESSION)
+                .status(RequestStatus.RESOLVED)
+                .assignedTo(assignedAt != null ? UUID.randomUUID().toString() : null)
+                .assignedAt(assignedAt)
+                .resolvedAt(resolvedAt)
+                .build());
+        // created_at is set by @CreationTimestamp on insert and not updatable through the entity
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Request r SET r.createdAt = :createdAt WHERE r.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", request.getId())
+                .executeUpdate();
+    }
+}
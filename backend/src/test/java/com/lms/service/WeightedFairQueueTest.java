@@ -0,0 +1,102 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.dto.RequestResponse;
+import com.lms.entity.RequestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * While every class is backlogged, claims are shared in proportion to the class weights,
+ * and a class returning from idle starts at the current virtual time.
+ */
+class WeightedFairQueueTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private WeightedFairQueue queue;
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        queue = new WeightedFairQueue(new PendingQueueIndex(event -> {
+        }), new ObjectMapper(), true, "quick=3,general=2,debugging=1", "general");
+    }
+
+    @Test
+    void backloggedClassesAreServedInProportionToTheirWeights() {
+        enqueue("quick", 100);
+        enqueue("general", 100);
+        enqueue("debugging", 100);
+
+        Map<String, Integer> served = claim(120);
+
+        assertThat(served).containsEntry("quick", 60).containsEntry("general", 40).containsEntry("debugging", 20);
+    }
+
+    @Test
+    void fairOrderPredictsTheSameSharesWithoutCharging() {
+        enqueue("quick", 30);
+        enqueue("general", 30);
+        enqueue("debugging", 30);
+
+        List<RequestResponse> order = queue.fairOrder(null, 60);
+
+        Map<String, Integer> predicted = new HashMap<>();
+        order.forEach(request -> predicted.merge(queue.classOf(request), 1, Integer::sum));
+        assertThat(predicted).containsEntry("quick", 30).containsEntry("general", 20).containsEntry("debugging", 10);
+        assertThat(queue.fairOrder(null, 60)).isEqualTo(order);
+    }
+
+    @Test
+    void classesWithoutBacklogDoNotHoardCredit() {
+        enqueue("quick", 100);
+        enqueue("general", 100);
+        claim(50);
+
+        // Debugging was idle for 50 claims; it still gets only its share from now on
+        enqueue("debugging", 100);
+        Map<String, Integer> served = claim(60);
+
+        assertThat(served.get("debugging")).isBetween(9, 11);
+        assertThat(served.get("quick")).isBetween(29, 31);
+    }
+
+    /** Claim the head of the fair order {@code count} times and count the claims per class. */
+    private Map<String, Integer> claim(int count) {
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            RequestResponse next = queue.fairOrder(null, 1).get(0);
+            served.merge(queue.classOf(next), 1, Integer::sum);
+            RequestResponse claimed = request(next.getId(), next.getMetadata(), RequestStatus.IN_PROGRESS);
+            queue.onAppliedChange(new AppliedRequestChange(new RequestLifecycleEvent(
+                    RequestLifecycleEvent.ASSIGNED, claimed, RequestStatus.PENDING, null)));
+        }
+        return served;
+    }
+
+    private void enqueue(String cls, int count) {
+        for (int i = 0; i < count; i++) {
+            RequestResponse request = request("r" + created++, queue.metadataFor(cls), RequestStatus.PENDING);
+            queue.onAppliedChange(new AppliedRequestChange(new RequestLifecycleEvent(
+                    RequestLifecycleEvent.CREATED, request, null, null)));
+        }
+    }
+
+    private RequestResponse request(String id, String metadata, RequestStatus status) {
+        return RequestResponse.builder()
+                .id(id)
+                .status(status)
+                .metadata(metadata)
+                .priority(Long.parseLong(id.substring(1)))
+                .createdAt(CREATED_AT)
+                .build();
+    }
+}
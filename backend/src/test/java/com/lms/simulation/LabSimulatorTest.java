@@ -0,0 +1,113 @@
+package com.lms.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Replays of a small trace whose waits are worked out by hand, and the service times inferred
+ * from a trace.
+ */
+class LabSimulatorTest {
+
+    private static final Map<String, Integer> WEIGHTS = Map.of("general", 1);
+
+    /**
+     * Five requests of one lab session, as (arrival, service) in seconds:
+     * (0, 10), (2, 5), (4, 3), (20, 4), (21, 2). Every request has its own TA in the trace,
+     * so its service time is exactly resolved_at - assigned_at.
+     */
+    private static final long[][] JOBS = {{0, 10}, {2, 5}, {4, 3}, {20, 4}, {21, 2}};
+
+    @Test
+    void oneTaServesInArrivalOrder() {
+        SimulationReport report = simulator().run(1, DispatchPolicy.FIFO);
+
+        // Starts at 0, 10, 15, 20 and 24: waits 0, 8, 11, 0 and 3
+        assertThat(report.requests()).isEqualTo(5);
+        assertThat(report.meanWait()).isCloseTo(4.4, within(1e-9));
+        assertThat(report.p50Wait()).isEqualTo(3.0);
+        assertThat(report.p95Wait()).isEqualTo(11.0);
+        assertThat(report.maxWait()).isEqualTo(11.0);
+        // 24 seconds of service over the 26 seconds from first arrival to last completion
+        assertThat(report.utilization()).isCloseTo(24.0 / 26.0, within(1e-9));
+    }
+
+    @Test
+    void aSecondTaOnlyLeavesTheThirdRequestWaiting() {
+        SimulationReport report = simulator().run(2, DispatchPolicy.FIFO);
+
+        // The second TA frees up at 7, so the request that arrived at 4 waits 3 seconds
+        assertThat(report.p50Wait()).isZero();
+        assertThat(report.p95Wait()).isEqualTo(3.0);
+        assertThat(report.meanWait()).isCloseTo(0.6, within(1e-9));
+    }
+
+    @Test
+    void serviceStartsAtTheClaimWhenItWasRecorded() {
+        List<TraceRecord> records = List.of(
+                // One TA without claim times: each service starts at the later of arrival and the
+                // previous resolution, 10 then max(2, 10)
+                record(0, null, 10_000L, "ta-1"),
+                record(2_000, null, 15_000L, "ta-1"),
+                // Claimed at 11, while still helping the request above: the claim wins
+                record(1_000, 11_000L, 18_000L, "ta-1"),
+                record(4_000, 12_000L, 20_000L, "ta-2"),
+                // Never claimed, or not resolved: nothing to observe
+                record(5_000, null, 21_000L, null),
+                record(6_000, null, null, "ta-2"));
+
+        assertThat(Workload.inferServiceTimes(records)).containsExactly(10_000, 5_000, 7_000, 8_000, 0, 0);
+    }
+
+    @Test
+    void requestsWithoutObservedServiceDrawFromTheirClass() {
+        List<TraceRecord> records = List.of(
+                new TraceRecord(0, 0L, 4_000L, "ta-1", "lab", "RESOLVED", "quick"),
+                new TraceRecord(1_000, 1_000L, 7_000L, "ta-2", "lab", "RESOLVED", "quick"),
+                new TraceRecord(2_000, 2_000L, 62_000L, "ta-3", "lab", "RESOLVED", "debugging"),
+                new TraceRecord(3_000, null, null, null, "lab", "PENDING", "quick"),
+                new TraceRecord(4_000, null, null, null, "lab", "CANCELLED", "quick"));
+
+        Workload workload = Workload.from(source(records), null, 42);
+
+        assertThat(workload.size()).isEqualTo(4);
+        assertThat(workload.meanService("quick")).isEqualTo(5_000.0);
+        assertThat(workload.jobsBySession().get("lab").get(3).service()).isIn(4_000L, 6_000L);
+    }
+
+    private static LabSimulator simulator() {
+        List<TraceRecord> records = new ArrayList<>();
+        for (int i = 0; i < JOBS.length; i++) {
+            long arrival = JOBS[i][0] * 1000;
+            records.add(new TraceRecord(arrival, arrival, arrival + JOBS[i][1] * 1000, "ta-" + i, "lab",
+                    "RESOLVED", null));
+        }
+        return new LabSimulator(Workload.from(source(records), null, 1), WEIGHTS);
+    }
+
+    private static TraceRecord record(long createdAt, Long assignedAt, Long resolvedAt, String ta) {
+        return new TraceRecord(createdAt, assignedAt, resolvedAt, ta, "lab", resolvedAt != null ? "RESOLVED" : "IN_PROGRESS",
+                null);
+    }
+
+    static TraceSource source(List<TraceRecord> records) {
+        return new TraceSource() {
+            @Override
+            public void stream(Consumer<TraceRecord> sink) {
+                records.forEach(sink);
+            }
+
+            @Override
+            public String describe() {
+                return "test trace";
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.lms.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Traces read over JDBC from H2 copies of the live and of an older schema, and exported to CSV
+ * and read back.
+ */
+class TraceSourceTest {
+
+    private static final byte[] TA = HexFormat.of().parseHex("0190a1b2c3d47e8f9a0b1c2d3e4f5a6b");
+    private static final String REQUESTS = """
+            CREATE TABLE %s (id INT PRIMARY KEY, created_at TIMESTAMP, assigned_at TIMESTAMP,
+                resolved_at TIMESTAMP, assigned_to BINARY(16), lab_session_id VARCHAR(36),
+                status VARCHAR(20), metadata VARCHAR(200))
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsLiveAndArchivedRequestsInArrivalOrder() throws SQLException {
+        String url = "jdbc:h2:mem:trace-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(REQUESTS.formatted("requests"));
+                statement.execute(REQUESTS.formatted("requests_archive"));
+            }
+            insert(connection, "requests", 1, at(10, 20), at(10, 25), at(10, 40), TA, "RESOLVED", "{\"category\":\"quick\"}");
+            insert(connection, "requests", 2, at(11, 0), null, null, null, "PENDING", null);
+            insert(connection, "requests", 3, null, null, null, null, "PENDING", null);
+            insert(connection, "requests_archive", 4, at(9, 0), at(9, 5), at(9, 30), TA, "RESOLVED", "not json");
+
+            List<TraceRecord> records = read(new JdbcTraceSource(url, "sa", ""));
+
+            assertThat(records).containsExactly(
+                    new TraceRecord(millis(at(9, 0)), millis(at(9, 5)), millis(at(9, 30)),
+                            HexFormat.of().formatHex(TA), "lab", "RESOLVED", null),
+                    new TraceRecord(millis(at(10, 20)), millis(at(10, 25)), millis(at(10, 40)),
+                            HexFormat.of().formatHex(TA), "lab", "RESOLVED", "quick"),
+                    new TraceRecord(millis(at(11, 0)), null, null, null, "lab", "PENDING", null));
+        }
+    }
+
+    @Test
+    void readsSchemasFromBeforeClaimTimesAndTheArchive() throws SQLException {
+        String url = "jdbc:h2:mem:trace-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TABLE requests (created_at TIMESTAMP, resolved_at TIMESTAMP, assigned_to VARCHAR(36),
+                            lab_session_id VARCHAR(36), status VARCHAR(20), metadata VARCHAR(200))
+                        """);
+                statement.execute("INSERT INTO requests VALUES (TIMESTAMP '2026-01-05 09:00:00', "
+                        + "TIMESTAMP '2026-01-05 09:10:00', 'ta-1', 'lab', 'RESOLVED', NULL)");
+            }
+
+            List<TraceRecord> records = read(new JdbcTraceSource(url, "sa", ""));
+
+            assertThat(records).singleElement().satisfies(record -> {
+                assertThat(record.assignedAt()).isNull();
+                assertThat(record.assignedTo()).isEqualTo("ta-1");
+                assertThat(record.resolvedAt() - record.createdAt()).isEqualTo(600_000);
+            });
+        }
+    }
+
+    @Test
+    void exportedTracesReadBackUnchanged() {
+        List<TraceRecord> records = List.of(
+                new TraceRecord(1_000, 2_000L, 5_000L, "ta-1", "lab-1", "RESOLVED", "quick"),
+                new TraceRecord(3_000, null, null, null, null, "PENDING", null),
+                new TraceRecord(4_000, null, null, null, "lab-1", "CANCELLED", "debugging"));
+        Path trace = directory.resolve("trace.csv");
+
+        assertThat(CsvTraceSource.export(LabSimulatorTest.source(records), trace)).isEqualTo(3);
+
+        assertThat(read(new CsvTraceSource(trace))).isEqualTo(records);
+    }
+
+    @Test
+    void readsTracesExportedBeforeClaimTimes() throws Exception {
+        Path trace = directory.resolve("old.csv");
+        Files.writeString(trace, """
+                created_at,resolved_at,assigned_to,lab_session_id,status,category
+                2026-01-05 09:00:00,2026-01-05T09:10:00,ta-1,lab,RESOLVED,
+                """);
+
+        assertThat(read(new CsvTraceSource(trace))).containsExactly(new TraceRecord(
+                utcMillis(LocalDateTime.of(2026, 1, 5, 9, 0)), null, utcMillis(LocalDateTime.of(2026, 1, 5, 9, 10)),
+                "ta-1", "lab", "RESOLVED", null));
+    }
+
+    private static void insert(Connection connection, String table, int id, LocalDateTime createdAt,
+                               LocalDateTime assignedAt, LocalDateTime resolvedAt, byte[] ta, String status,
+                               String metadata) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + table
+                + " (id, created_at, assigned_at, resolved_at, assigned_to, lab_session_id, status, metadata)"
+                + " VALUES (?, ?, ?, ?, ?, 'lab', ?, ?)")) {
+            statement.setInt(1, id);
+            statement.setTimestamp(2, createdAt != null ? Timestamp.valueOf(createdAt) : null);
+            statement.setTimestamp(3, assignedAt != null ? Timestamp.valueOf(assignedAt) : null);
+            statement.setTimestamp(4, resolvedAt != null ? Timestamp.valueOf(resolvedAt) : null);
+            statement.setBytes(5, ta);
+            statement.setString(6, status);
+            statement.setString(7, metadata);
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<TraceRecord> read(TraceSource source) {
+        List<TraceRecord> records = new ArrayList<>();
+        source.stream(records::add);
+        return records;
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2026, 1, 5, hour, minute);
+    }
+
+    /** JDBC timestamps are in local time. */
+    private static long millis(LocalDateTime time) {
+        return Timestamp.valueOf(time).getTime();
+    }
+
+    /** CSV date-times are read as UTC. */
+    private static long utcMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}